@@ -0,0 +1,154 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import graphs.graph.BFSPaths;
+import graphs.graph.CC;
+import graphs.graph.CSRGraph;
+import graphs.graph.DFSPaths;
+import graphs.graph.Graph;
+import graphs.graph.ParallelBFSPaths;
+import graphs.graph.digraph.Digraph;
+import graphs.graph.digraph.SCC;
+import graphs.graph.digraph.Topological;
+import graphs.graph.weighted.digraph.SPDeltaStepping;
+import graphs.graph.weighted.digraph.SPDijkstra;
+import graphs.graph.weighted.digraph.WeightedDigraph;
+import graphs.graph.weighted.graph.MST;
+import graphs.graph.weighted.graph.WeightedGraph;
+
+/**
+ * Graph processing of graphs.* on random graphs of V vertices and degree*V edges, both with the
+ *  adjacency lists (Graph, Digraph, WeightedDigraph) and with the CSRGraph of the same graph.
+ *
+ * Only the CSRGraph versions of DFS, CC, SCC and Topological are measured, the recursive ones overflow
+ *  the stack on big random graphs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class GraphsBenchmark
+{
+	@Param({ "10000", "1000000" })
+	public int V;
+
+	@Param({ "8" })
+	public int degree;
+
+	private Graph graph;
+	private Digraph digraph;
+	private Digraph dag;
+	private WeightedGraph wGraph;
+	private WeightedDigraph wDigraph;
+	private CSRGraph csrGraph;
+	private CSRGraph csrDigraph;
+	private CSRGraph csrDag;
+	private CSRGraph csrWDigraph;
+
+	@Setup(Level.Trial)
+	public void generate() {
+		int E = degree * V;
+		graph = Inputs.graph(V, E, Inputs.SEED);
+		digraph = Inputs.digraph(V, E, Inputs.SEED);
+		dag = Inputs.dag(V, E, Inputs.SEED);
+		wGraph = Inputs.weightedGraph(V, E, Inputs.SEED);
+		wDigraph = Inputs.weightedDigraph(V, E, Inputs.SEED);
+		csrGraph = new CSRGraph(graph);
+		csrDigraph = new CSRGraph(digraph);
+		csrDag = new CSRGraph(dag);
+		csrWDigraph = new CSRGraph(wDigraph);
+	}
+
+	@Benchmark
+	public CSRGraph csrGraphBuild() {
+		return new CSRGraph(graph);
+	}
+
+	@Benchmark
+	public CSRGraph csrWDigraphBuild() {
+		return new CSRGraph(wDigraph);
+	}
+
+	@Benchmark
+	public BFSPaths bfs() {
+		return new BFSPaths(graph, 0);
+	}
+
+	@Benchmark
+	public BFSPaths bfsCSR() {
+		return new BFSPaths(csrGraph, 0);
+	}
+
+	@Benchmark
+	public ParallelBFSPaths parallelBFSCSR() {
+		return new ParallelBFSPaths(csrGraph, 0);
+	}
+
+	@Benchmark
+	public DFSPaths dfsNonrecursive() {
+		return new DFSPaths(graph, 0, true);
+	}
+
+	@Benchmark
+	public DFSPaths dfsCSR() {
+		return new DFSPaths(csrGraph, 0);
+	}
+
+	@Benchmark
+	public CC ccCSR() {
+		return new CC(csrGraph);
+	}
+
+	@Benchmark
+	public SCC sccCSR() {
+		return new SCC(csrDigraph);
+	}
+
+	@Benchmark
+	public Topological topologicalCSR() {
+		return new Topological(csrDag);
+	}
+
+	@Benchmark
+	public MST mst() {
+		return new MST(wGraph);
+	}
+
+	@Benchmark
+	public SPDijkstra dijkstra() {
+		return new SPDijkstra(wDigraph, 0);
+	}
+
+	@Benchmark
+	public SPDijkstra dijkstraCSR() {
+		return new SPDijkstra(csrWDigraph, 0);
+	}
+
+	@Benchmark
+	public SPDeltaStepping deltaSteppingCSR() {
+		return new SPDeltaStepping(csrWDigraph, 0);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(GraphsBenchmark.class.getSimpleName()).build()).run();
+	}
+}
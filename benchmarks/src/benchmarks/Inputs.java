@@ -0,0 +1,137 @@
+package benchmarks;
+
+import java.util.Random;
+
+import graphs.graph.Graph;
+import graphs.graph.digraph.Digraph;
+import graphs.graph.weighted.digraph.EdgeDirect;
+import graphs.graph.weighted.digraph.WeightedDigraph;
+import graphs.graph.weighted.graph.Edge;
+import graphs.graph.weighted.graph.WeightedGraph;
+
+/**
+ * Generated inputs for the benchmarks, always from a fixed seed so every run (and every engine compared)
+ *  gets the same data. util.RandomN can not be seeded, that is why this uses java.util.Random.
+ */
+public class Inputs
+{
+	public static final long SEED = 20240101L;
+
+	private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+	private Inputs() {}
+
+	public static int[] ints(int n, long seed) {
+		Random random = new Random(seed);
+		int[] a = new int[n];
+		for (int i = 0; i < n; i++) {
+			a[i] = random.nextInt();
+		}
+		return a;
+	}
+
+	/**
+	 * A permutation of 0 to n-1 (the input that CountSort expects).
+	 */
+	public static int[] permutation(int n, long seed) {
+		Random random = new Random(seed);
+		int[] a = new int[n];
+		for (int i = 0; i < n; i++) {
+			a[i] = i;
+		}
+		for (int i = n - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = a[i];
+			a[i] = a[j];
+			a[j] = swap;
+		}
+		return a;
+	}
+
+	public static Integer[] boxed(int[] a) {
+		Integer[] b = new Integer[a.length];
+		for (int i = 0; i < a.length; i++) {
+			b[i] = a[i];
+		}
+		return b;
+	}
+
+	/**
+	 * n strings of length w over the lowercase letters.
+	 */
+	public static String[] strings(int n, int w, long seed) {
+		Random random = new Random(seed);
+		String[] a = new String[n];
+		char[] chars = new char[w];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < w; j++) {
+				chars[j] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+			}
+			a[i] = new String(chars);
+		}
+		return a;
+	}
+
+	/**
+	 * Text of n characters over a small alphabet (many partial matches, the hard case for substring search).
+	 */
+	public static String text(int n, int alphabet, long seed) {
+		Random random = new Random(seed);
+		char[] chars = new char[n];
+		for (int i = 0; i < n; i++) {
+			chars[i] = ALPHABET.charAt(random.nextInt(alphabet));
+		}
+		return new String(chars);
+	}
+
+	public static Graph graph(int V, int E, long seed) {
+		Random random = new Random(seed);
+		Graph graph = new Graph(V);
+		for (int i = 0; i < E; i++) {
+			graph.addEdge(random.nextInt(V), random.nextInt(V));
+		}
+		return graph;
+	}
+
+	public static Digraph digraph(int V, int E, long seed) {
+		Random random = new Random(seed);
+		Digraph digraph = new Digraph(V);
+		for (int i = 0; i < E; i++) {
+			digraph.addEdge(random.nextInt(V), random.nextInt(V));
+		}
+		return digraph;
+	}
+
+	/**
+	 * Edges only from a smaller vertex to a bigger one, so there is no cycle.
+	 */
+	public static Digraph dag(int V, int E, long seed) {
+		Random random = new Random(seed);
+		Digraph digraph = new Digraph(V);
+		for (int i = 0; i < E; i++) {
+			int v = random.nextInt(V);
+			int w = random.nextInt(V);
+			if (v < w)      digraph.addEdge(v, w);
+			else if (v > w) digraph.addEdge(w, v);
+		}
+		return digraph;
+	}
+
+	public static WeightedGraph weightedGraph(int V, int E, long seed) {
+		Random random = new Random(seed);
+		WeightedGraph wGraph = new WeightedGraph(V);
+		for (int i = 0; i < E; i++) {
+			wGraph.addEdge(new Edge(random.nextInt(V), random.nextInt(V), random.nextDouble()));
+		}
+		return wGraph;
+	}
+
+	public static WeightedDigraph weightedDigraph(int V, int E, long seed) {
+		Random random = new Random(seed);
+		WeightedDigraph wDigraph = new WeightedDigraph(V);
+		for (int i = 0; i < E; i++) {
+			wDigraph.addEdge(new EdgeDirect(random.nextInt(V), random.nextInt(V), random.nextDouble()));
+		}
+		return wDigraph;
+	}
+}
@@ -0,0 +1,253 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import searching.BPlusTreeST;
+import searching.BST;
+import searching.HashST;
+import searching.IntIntHashST;
+import searching.RedBlackBST;
+
+/**
+ * Symbol tables of searching.* with n random Integer keys: building the table with n puts, n gets of present
+ *  keys, and the ordered operations of the binary search trees. HashMap and TreeMap are the reference.
+ *  The time reported is for all the n operations of an invocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchingBenchmark
+{
+	@Param({ "1000", "100000", "1000000" })
+	public int n;
+
+	private Integer[] keys;
+	private Integer[] queries;   // the same keys in other order
+	private int[] intKeys;
+	private int[] intQueries;
+	private IntIntHashST intIntHashST;
+	private HashST<Integer, Integer> hashST;
+	private BST<Integer, Integer> bst;
+	private RedBlackBST<Integer, Integer> redBlackBST;
+	private BPlusTreeST<Integer, Integer> bPlusTreeST;
+	private HashMap<Integer, Integer> hashMap;
+	private TreeMap<Integer, Integer> treeMap;
+
+	@Setup(Level.Trial)
+	public void generate() {
+		keys = Inputs.boxed(Inputs.ints(n, Inputs.SEED));
+		queries = keys.clone();
+		Collections.shuffle(Arrays.asList(queries), new Random(Inputs.SEED));
+		intKeys = new int[n];
+		intQueries = new int[n];
+		for (int i = 0; i < n; i++) {
+			intKeys[i] = keys[i];
+			intQueries[i] = queries[i];
+		}
+		intIntHashST = new IntIntHashST();
+		hashST = new HashST<Integer, Integer>();
+		bst = new BST<Integer, Integer>();
+		redBlackBST = new RedBlackBST<Integer, Integer>();
+		bPlusTreeST = new BPlusTreeST<Integer, Integer>();
+		hashMap = new HashMap<Integer, Integer>();
+		treeMap = new TreeMap<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			hashST.put(keys[i], i);
+			intIntHashST.put(intKeys[i], i);
+			bst.put(keys[i], i);
+			redBlackBST.put(keys[i], i);
+			bPlusTreeST.put(keys[i], i);
+			hashMap.put(keys[i], i);
+			treeMap.put(keys[i], i);
+		}
+	}
+
+	@Benchmark
+	public HashST<Integer, Integer> hashSTPut() {
+		HashST<Integer, Integer> st = new HashST<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			st.put(keys[i], i);
+		}
+		return st;
+	}
+
+	@Benchmark
+	public IntIntHashST intIntHashSTPut() {
+		IntIntHashST st = new IntIntHashST();
+		for (int i = 0; i < n; i++) {
+			st.put(intKeys[i], i);
+		}
+		return st;
+	}
+
+	@Benchmark
+	public BST<Integer, Integer> bstPut() {
+		BST<Integer, Integer> st = new BST<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			st.put(keys[i], i);
+		}
+		return st;
+	}
+
+	@Benchmark
+	public RedBlackBST<Integer, Integer> redBlackBSTPut() {
+		RedBlackBST<Integer, Integer> st = new RedBlackBST<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			st.put(keys[i], i);
+		}
+		return st;
+	}
+
+	@Benchmark
+	public BPlusTreeST<Integer, Integer> bPlusTreeSTPut() {
+		BPlusTreeST<Integer, Integer> st = new BPlusTreeST<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			st.put(keys[i], i);
+		}
+		return st;
+	}
+
+	@Benchmark
+	public HashMap<Integer, Integer> hashMapPut() {
+		HashMap<Integer, Integer> map = new HashMap<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			map.put(keys[i], i);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public TreeMap<Integer, Integer> treeMapPut() {
+		TreeMap<Integer, Integer> map = new TreeMap<Integer, Integer>();
+		for (int i = 0; i < n; i++) {
+			map.put(keys[i], i);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public void hashSTGet(Blackhole bh) {
+		for (int i = 0; i < n; i++) {
+			bh.consume(hashST.get(queries[i]));
+		}
+	}
+
+	@Benchmark
+	public void intIntHashSTGet(Blackhole bh) {
+		for (int i = 0; i < n; i++) {
+			bh.consume(intIntHashST.get(intQueries[i]));
+		}
+	}
+
+	@Benchmark
+	public void bstGet(Blackhole bh) {
+		for (int i = 0; i < n; i++) {
+			bh.consume(bst.get(queries[i]));
+		}
+	}
+
+	@Benchmark
+	public void redBlackBSTGet(Blackhole bh) {
+		for (int i = 0; i < n; i++) {
+			bh.consume(redBlackBST.get(queries[i]));
+		}
+	}
+
+	@Benchmark
+	public void bPlusTreeSTGet(Blackhole bh) {
+		for (int i = 0; i < n; i++) {
+			bh.consume(bPlusTreeST.get(queries[i]));
+		}
+	}
+
+	@Benchmark
+	public void hashMapGet(Blackhole bh) {
+		for (int i = 0; i < n; i++) {
+			bh.consume(hashMap.get(queries[i]));
+		}
+	}
+
+	@Benchmark
+	public void treeMapGet(Blackhole bh) {
+		for (int i = 0; i < n; i++) {
+			bh.consume(treeMap.get(queries[i]));
+		}
+	}
+
+	@Benchmark
+	public void redBlackBSTFloorRank(Blackhole bh) {
+		for (int i = 0; i < n; i++) {
+			int key = queries[i] + 1;
+			bh.consume(redBlackBST.floor(key));
+			bh.consume(redBlackBST.rank(key));
+		}
+	}
+
+	@Benchmark
+	public void bPlusTreeSTFloorRank(Blackhole bh) {
+		for (int i = 0; i < n; i++) {
+			int key = queries[i] + 1;
+			bh.consume(bPlusTreeST.floor(key));
+			bh.consume(bPlusTreeST.rank(key));
+		}
+	}
+
+	/**
+	 * 100 ranges of about 1% of the keys each.
+	 */
+	@Benchmark
+	public void redBlackBSTRange(Blackhole bh) {
+		for (int i = 0; i < 100; i++) {
+			for (int key : redBlackBST.keys(redBlackBST.select(i * (n / 100)), redBlackBST.select(i * (n / 100) + n / 100 - 1))) {
+				bh.consume(key);
+			}
+		}
+	}
+
+	@Benchmark
+	public void bPlusTreeSTRange(Blackhole bh) {
+		for (int i = 0; i < 100; i++) {
+			for (int key : bPlusTreeST.keys(bPlusTreeST.select(i * (n / 100)), bPlusTreeST.select(i * (n / 100) + n / 100 - 1))) {
+				bh.consume(key);
+			}
+		}
+	}
+
+	@Benchmark
+	public void bstFloorRank(Blackhole bh) {
+		for (int i = 0; i < n; i++) {
+			int key = queries[i] + 1;
+			bh.consume(bst.floor(key));
+			bh.consume(bst.rank(key));
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(SearchingBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,277 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import sorting.CountSort;
+import sorting.HeapSort;
+import sorting.InsertionSort;
+import sorting.MergeSort;
+import sorting.QuickSort;
+import sorting.SelectionSort;
+import sorting.ShellSort;
+import strings.LSD;
+
+/**
+ * Sorts of sorting.* on random arrays of several sizes, with Arrays.sort as the reference.
+ *
+ * Every invocation sorts a fresh copy of the same input, made in a setup of Level.Invocation that is not
+ *  measured. JMH then times each invocation on its own, which costs microseconds of timestamps and setup
+ *  calls, so it is only accurate for invocations of a millisecond or more: n starts at 1000000 (also in
+ *  Parallel), and Quadratic, whose sorts of small arrays take microseconds, times a single sort per iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortingBenchmark
+{
+	private static final Comparator<Integer> ORDER = Comparator.naturalOrder();
+
+	@Param({ "1000000", "10000000" })
+	public int n;
+
+	private int[] input;
+	private int[] permutation;
+	private Integer[] boxedInput;
+	private int[] a;
+	private int[] p;
+	private Integer[] boxed;
+	private Integer[] tmp;
+
+	@Setup(Level.Trial)
+	public void generate() {
+		input = Inputs.ints(n, Inputs.SEED);
+		permutation = Inputs.permutation(n, Inputs.SEED);
+		boxedInput = Inputs.boxed(input);
+		tmp = new Integer[n];
+	}
+
+	@Setup(Level.Invocation)
+	public void copy() {
+		a = input.clone();
+		p = permutation.clone();
+		boxed = boxedInput.clone();
+	}
+
+	@Benchmark
+	public int[] arraysSort() {
+		Arrays.sort(a);
+		return a;
+	}
+
+	@Benchmark
+	public int[] mergeSort() {
+		MergeSort.sort(a);
+		return a;
+	}
+
+	@Benchmark
+	public int[] mergeSortParallel() {
+		MergeSort.parallelSort(a);
+		return a;
+	}
+
+	@Benchmark
+	public int[] arraysParallelSort() {
+		Arrays.parallelSort(a);
+		return a;
+	}
+
+	@Benchmark
+	public int[] lsdRadixSort() {
+		LSD.sort(a);
+		return a;
+	}
+
+	@Benchmark
+	public int[] quickSort() {
+		QuickSort.sort(a);
+		return a;
+	}
+
+	@Benchmark
+	public int[] heapSort() {
+		HeapSort.sort(a);
+		return a;
+	}
+
+	@Benchmark
+	public int[] shellSort() {
+		ShellSort.sort(a);
+		return a;
+	}
+
+	@Benchmark
+	public int[] countSort() {
+		CountSort.countSort(p);
+		return p;
+	}
+
+	@Benchmark
+	public Integer[] arraysSortGeneric() {
+		Arrays.sort(boxed, ORDER);
+		return boxed;
+	}
+
+	@Benchmark
+	public Integer[] mergeSortGeneric() {
+		MergeSort.sort(boxed, tmp, ORDER, 0, n - 1);
+		return boxed;
+	}
+
+	@Benchmark
+	public Integer[] mergeSortParallelGeneric() {
+		MergeSort.parallelSort(boxed, tmp, ORDER, 0, n - 1);
+		return boxed;
+	}
+
+	@Benchmark
+	public Integer[] quickSort3WayGeneric() {
+		QuickSort.sort3Way(boxed, ORDER);
+		return boxed;
+	}
+
+	@Benchmark
+	public Integer[] heapSortGeneric() {
+		HeapSort.sort(boxed, ORDER);
+		return boxed;
+	}
+
+	/**
+	 * Quadratic sorts, only for small inputs. A sort of 100 elements takes microseconds, too short for a setup
+	 *  of Level.Invocation: each iteration is a single sort of a copy made in a setup of Level.Iteration.
+	 */
+	@State(Scope.Thread)
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 200)
+	@Measurement(iterations = 200)
+	public static class Quadratic
+	{
+		@Param({ "100", "1000", "10000" })
+		public int n;
+
+		private int[] input;
+		private int[] a;
+
+		@Setup(Level.Trial)
+		public void generate() {
+			input = Inputs.ints(n, Inputs.SEED);
+		}
+
+		@Setup(Level.Iteration)
+		public void copy() {
+			a = input.clone();
+		}
+
+		@Benchmark
+		public int[] insertionSort() {
+			InsertionSort.sort(a);
+			return a;
+		}
+
+		@Benchmark
+		public int[] selectionSort() {
+			SelectionSort.sort(a);
+			return a;
+		}
+	}
+
+	/**
+	 * Parallel sorts against Arrays.parallelSort on random, sorted and many-duplicate inputs.
+	 */
+	@State(Scope.Thread)
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public static class Parallel
+	{
+		@Param({ "1000000", "10000000" })
+		public int n;
+
+		@Param({ "random", "sorted", "duplicates" })
+		public String shape;
+
+		private int[] input;
+		private Integer[] boxedInput;
+		private int[] a;
+		private Integer[] boxed;
+		private Integer[] tmp;
+
+		@Setup(Level.Trial)
+		public void generate() {
+			input = Inputs.ints(n, Inputs.SEED);
+			if (shape.equals("sorted")) Arrays.sort(input);
+			else if (shape.equals("duplicates")) {
+				for (int i = 0; i < n; i++) input[i] = Math.floorMod(input[i], 100);
+			}
+			boxedInput = Inputs.boxed(input);
+			tmp = new Integer[n];
+		}
+
+		@Setup(Level.Invocation)
+		public void copy() {
+			a = input.clone();
+			boxed = boxedInput.clone();
+		}
+
+		@Benchmark
+		public int[] arraysParallelSort() {
+			Arrays.parallelSort(a);
+			return a;
+		}
+
+		@Benchmark
+		public int[] quickSortParallel() {
+			QuickSort.parallelSort(a);
+			return a;
+		}
+
+		@Benchmark
+		public int[] mergeSortParallel() {
+			MergeSort.parallelSort(a);
+			return a;
+		}
+
+		@Benchmark
+		public Integer[] arraysParallelSortGeneric() {
+			Arrays.parallelSort(boxed, ORDER);
+			return boxed;
+		}
+
+		@Benchmark
+		public Integer[] quickSort3WayParallelGeneric() {
+			QuickSort.parallelSort3Way(boxed, ORDER);
+			return boxed;
+		}
+
+		@Benchmark
+		public Integer[] mergeSortParallelGeneric() {
+			MergeSort.parallelSort(boxed, tmp, ORDER, 0, n - 1);
+			return boxed;
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(SortingBenchmark.class.getSimpleName()).build()).run();
+	}
+}
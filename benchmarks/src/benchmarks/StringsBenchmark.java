@@ -0,0 +1,189 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import strings.BoyerMoore;
+import strings.KMP;
+import strings.LSD;
+import strings.MSD;
+import strings.MSD3WayQuickSort;
+import strings.TST;
+import strings.TrieST;
+
+/**
+ * String sorts, substring search and string symbol tables of strings.*.
+ *  n is the number of strings (of length w) for tries, and n*w the length of the text for search.
+ *  The sorts are in Sorts, with larger inputs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringsBenchmark
+{
+	@Param({ "10000", "100000" })
+	public int n;
+
+	@Param({ "10" })
+	public int w;
+
+	private String[] input;
+	private String text;
+	private String pattern;
+	private KMP kmp;
+	private BoyerMoore boyerMoore;
+	private TrieST<Integer> trieST;
+	private TST<Integer> tst;
+
+	@Setup(Level.Trial)
+	public void generate() {
+		input = Inputs.strings(n, w, Inputs.SEED);
+		text = Inputs.text(n * w, 4, Inputs.SEED);
+		pattern = Inputs.text(16, 4, Inputs.SEED + 1);   // most likely not in the text, so the search reads all of it
+		kmp = new KMP(pattern);
+		boyerMoore = new BoyerMoore(pattern);
+		trieST = new TrieST<Integer>();
+		tst = new TST<Integer>();
+		for (int i = 0; i < n; i++) {
+			trieST.put(input[i], i);
+			tst.put(input[i], i);
+		}
+	}
+
+	@Benchmark
+	public int stringIndexOf() {
+		return text.indexOf(pattern);
+	}
+
+	@Benchmark
+	public int kmp() {
+		return kmp.searchIndexOf(text);
+	}
+
+	@Benchmark
+	public int boyerMoore() {
+		return boyerMoore.searchIndexOf(text);
+	}
+
+	@Benchmark
+	public TrieST<Integer> trieSTPut() {
+		TrieST<Integer> st = new TrieST<Integer>();
+		for (int i = 0; i < n; i++) {
+			st.put(input[i], i);
+		}
+		return st;
+	}
+
+	@Benchmark
+	public TST<Integer> tstPut() {
+		TST<Integer> st = new TST<Integer>();
+		for (int i = 0; i < n; i++) {
+			st.put(input[i], i);
+		}
+		return st;
+	}
+
+	@Benchmark
+	public void trieSTGet(Blackhole bh) {
+		for (int i = 0; i < n; i++) {
+			bh.consume(trieST.get(input[i]));
+		}
+	}
+
+	@Benchmark
+	public void tstGet(Blackhole bh) {
+		for (int i = 0; i < n; i++) {
+			bh.consume(tst.get(input[i]));
+		}
+	}
+
+	/**
+	 * String sorts. Every invocation sorts a fresh copy of the input, made in a setup of Level.Invocation that
+	 *  is not measured; JMH then times each invocation on its own, which is only accurate for invocations of
+	 *  a millisecond or more, so n starts at 100000.
+	 */
+	@State(Scope.Thread)
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public static class Sorts
+	{
+		@Param({ "100000", "1000000" })
+		public int n;
+
+		@Param({ "10" })
+		public int w;
+
+		private String[] input;
+		private String[] a;
+
+		@Setup(Level.Trial)
+		public void generate() {
+			input = Inputs.strings(n, w, Inputs.SEED);
+		}
+
+		@Setup(Level.Invocation)
+		public void copy() {
+			a = input.clone();
+		}
+
+		@Benchmark
+		public String[] arraysSort() {
+			Arrays.sort(a);
+			return a;
+		}
+
+		@Benchmark
+		public String[] lsd() {
+			LSD.sort(a, w);
+			return a;
+		}
+
+		@Benchmark
+		public String[] msd() {
+			MSD.sort(a);
+			return a;
+		}
+
+		@Benchmark
+		public String[] msdParallel() {
+			MSD.parallelSort(a);
+			return a;
+		}
+
+		@Benchmark
+		public String[] arraysParallelSort() {
+			Arrays.parallelSort(a);
+			return a;
+		}
+
+		@Benchmark
+		public String[] msd3WayQuickSort() {
+			MSD3WayQuickSort.sort(a);
+			return a;
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(StringsBenchmark.class.getSimpleName()).build()).run();
+	}
+}
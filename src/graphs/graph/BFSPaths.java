@@ -4,7 +4,6 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.util.Scanner;
 
-import fundamentals.Queue;
 import fundamentals.Stack;
 
 /**
@@ -44,6 +43,18 @@ public class BFSPaths
 		bfs(graph, sources);
 	}
 
+	public BFSPaths(CSRGraph csr, int s) {
+		if (csr.isDirected()) throw new IllegalArgumentException("CSRGraph must be undirected");
+		visited = new boolean[csr.V()];
+		edgeTo = new int[csr.V()];
+		distTo = new int[csr.V()];
+		for (int v = 0; v < csr.V(); v++) {
+			distTo[v] = Integer.MAX_VALUE;
+		}
+		validateVertex(s);
+		bfs(csr, s);
+	}
+
 	public boolean hasPathTo(int v) {
 		validateVertex(v);
 		return visited[v];
@@ -67,39 +78,67 @@ public class BFSPaths
 	}
 
 	private void bfs(Graph graph, int s) {
-		Queue<Integer> q = new Queue<Integer>();
+		int[] queue = new int[visited.length]; // every vertex is enqueued at most once.
+		int head = 0;
+		int tail = 0;
 		visited[s] = true;
 		distTo[s] = 0;
-		q.enqueue(s);
-		while(!q.isEmpty()) {
-			int v = q.dequeue();
-			for(int w : graph.adjacents(v)) {
+		queue[tail++] = s;
+		while(head < tail) {
+			int v = queue[head++];
+			for(int i = 0; i < graph.degree(v); i++) {
+				int w = graph.adjacent(v, i);
 				if(!visited[w]) {
 					visited[w] = true;
 					edgeTo[w] = v;
 					distTo[w] = distTo[v] + 1;
-					q.enqueue(w);
+					queue[tail++] = w;
 				}
 			}
 		}
 	}
 
 	private void bfs(Graph graph, Iterable<Integer> sources) {
-		Queue<Integer> q = new Queue<Integer>();
+		int[] queue = new int[visited.length]; // every vertex is enqueued at most once.
+		int head = 0;
+		int tail = 0;
 		for(int s : sources) {
 			validateVertex(s);
+			if(visited[s]) continue;
 			visited[s] = true;
 			distTo[s] = 0;
-			q.enqueue(s);
+			queue[tail++] = s;
+		}
+		while(head < tail) {
+			int v = queue[head++];
+			for(int i = 0; i < graph.degree(v); i++) {
+				int w = graph.adjacent(v, i);
+				if(!visited[w]) {
+					visited[w] = true;
+					edgeTo[w] = v;
+					distTo[w] = distTo[v] + 1;
+					queue[tail++] = w;
+				}
+			}
 		}
-		while(!q.isEmpty()) {
-			int v = q.dequeue();
-			for(int w : graph.adjacents(v)) {
+	}
+
+	private void bfs(CSRGraph csr, int s) {
+		int[] queue = new int[visited.length]; // every vertex is enqueued at most once.
+		int head = 0;
+		int tail = 0;
+		visited[s] = true;
+		distTo[s] = 0;
+		queue[tail++] = s;
+		while(head < tail) {
+			int v = queue[head++];
+			for(int i = csr.begin(v); i < csr.end(v); i++) {
+				int w = csr.target(i);
 				if(!visited[w]) {
 					visited[w] = true;
 					edgeTo[w] = v;
 					distTo[w] = distTo[v] + 1;
-					q.enqueue(w);
+					queue[tail++] = w;
 				}
 			}
 		}
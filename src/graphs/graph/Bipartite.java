@@ -56,7 +56,8 @@ public class Bipartite
 
 	private void dfs(Graph graph, int v) {
 		visited[v] = true;
-		for(int w : graph.adjacents(v)) {
+		for(int i = 0; i < graph.degree(v); i++) {
+			int w = graph.adjacent(v, i);
 			if(cycle != null) return;
 			if(!visited[w]) {
 				edgeTo[w] = v;
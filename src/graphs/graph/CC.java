@@ -35,6 +35,22 @@ public class CC
 		}
 	}
 
+	public CC(CSRGraph csr) {
+		if (csr.isDirected()) throw new IllegalArgumentException("CSRGraph must be undirected");
+		visited = new boolean[csr.V()];
+		id = new int[csr.V()];
+		size = new int[csr.V()];
+		count = 0;
+		int[] cursor = new int[csr.V()];
+		int[] stack = new int[csr.V()];
+		for(int v = 0; v < csr.V(); v++) {
+			if(!visited[v]) {
+				dfs(csr, v, cursor, stack);
+				count++;
+			}
+		}
+	}
+
 	public int count() {
 		return count;
 	}
@@ -56,13 +72,39 @@ public class CC
 		visited[v] = true;
 		id[v] = count;
 		size[count]++;
-		for(int w : graph.adjacents(v)) {
+		for(int i = 0; i < graph.degree(v); i++) {
+			int w = graph.adjacent(v, i);
 			if(!visited[w]) {
 				dfs(graph, w);
 			}
 		}
 	}
 
+	// nonrecursive dfs reusing the cursor and stack arrays between components.
+	private void dfs(CSRGraph csr, int s, int[] cursor, int[] stack) {
+		int top = 0;
+		visited[s] = true;
+		id[s] = count;
+		size[count]++;
+		cursor[s] = csr.begin(s);
+		stack[top++] = s;
+		while(top > 0) {
+			int v = stack[top - 1];
+			if(cursor[v] < csr.end(v)) {
+				int w = csr.target(cursor[v]++);
+				if(!visited[w]) {
+					visited[w] = true;
+					id[w] = count;
+					size[count]++;
+					cursor[w] = csr.begin(w);
+					stack[top++] = w;
+				}
+			} else {
+				top--;
+			}
+		}
+	}
+
 	private void validateVertex(int v) {
 		int V = visited.length;
 		if (v < 0 || v >= V)
@@ -0,0 +1,448 @@
+package graphs.graph;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Scanner;
+
+import graphs.graph.digraph.Digraph;
+import graphs.graph.weighted.digraph.EdgeDirect;
+import graphs.graph.weighted.digraph.WeightedDigraph;
+import util.RandomN;
+
+/**
+ * Immutable graph in Compressed Sparse Row (CSR) format with vertices named 0 to V-1;
+ * Parallel edges and self-loops allowed. It can be directed or undirected, weighted or unweighted.
+ *
+ * The adjacents of vertex v are stored contiguously in targets[offsets[v]] to targets[offsets[v+1]-1],
+ *  and the weight of each entry (if any) at the same index in weights. An undirected graph stores every
+ *  edge twice (once for each endpoint), same as Graph does.
+ *
+ *     offsets: | 0 | 2 | 5 | 5 | ... | M |
+ *     targets: | w w | w w w | | ... |
+ *     weights: | x x | x x x | | ... |
+ *
+ * Extra space: O(V + E) with three primitive buffers (no object or boxed Integer per edge). The buffers wrap
+ *  arrays when the graph is built in memory, or they are memory-mapped sections of a binary file (see load),
+ *  so the algorithms run straight over the file pages without parsing or copying anything.
+ *
+ * Binary file (little-endian), every section starts at a multiple of 8 bytes:
+ *
+ *     header:  | magic "CSRG" | version | flags (1 directed, 2 weighted) | V | E | M entries | (8 bytes padding) |
+ *     offsets: | V+1 ints |
+ *     targets: | M ints |
+ *     weights: | M doubles | (only if weighted)
+ *
+ * Initialization: O(V + E), load is O(1) (pages are read by the OS when first touched).
+ * Operations:
+ *     all methods: O(1) except source that is O(log V) and reverse that is O(V + E).
+ *
+ * NOTE: clients iterate the adjacents of v without allocation with:
+ *     for (int i = csr.begin(v); i < csr.end(v); i++) { int w = csr.target(i); double weight = csr.weight(i); }
+ */
+public class CSRGraph
+{
+	private static final int MAGIC = 0x47525343; // "CSRG" read as a little-endian int
+	private static final int VERSION = 1;
+	private static final int HEADER = 32;        // bytes of the header
+
+	private final int V;
+	private final int E;
+	private final boolean directed;
+	private final IntBuffer offsets;    // offsets[v] = index of first adjacent of v, offsets[V] = number of entries.
+	private final IntBuffer targets;    // adjacent vertex of each entry.
+	private final DoubleBuffer weights; // weight of each entry, null when unweighted.
+
+	private CSRGraph(int V, int E, boolean directed, int[] offsets, int[] targets, double[] weights) {
+		this(V, E, directed, IntBuffer.wrap(offsets), IntBuffer.wrap(targets), weights == null ? null : DoubleBuffer.wrap(weights));
+	}
+
+	private CSRGraph(int V, int E, boolean directed, IntBuffer offsets, IntBuffer targets, DoubleBuffer weights) {
+		this.V = V;
+		this.E = E;
+		this.directed = directed;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+	}
+
+	/**
+	 * Builds from an undirected Graph keeping the same order of adjacents than Graph.adjacents(v).
+	 */
+	public CSRGraph(Graph graph) {
+		this.V = graph.V();
+		this.E = graph.E();
+		this.directed = false;
+		this.weights = null;
+		int[] offsets = new int[V + 1];
+		for (int v = 0; v < V; v++) {
+			offsets[v + 1] = offsets[v] + graph.degree(v);
+		}
+		int[] targets = new int[offsets[V]];
+		for (int v = 0; v < V; v++) {
+			for (int i = 0; i < graph.degree(v); i++) {
+				targets[offsets[v] + i] = graph.adjacent(v, i);
+			}
+		}
+		this.offsets = IntBuffer.wrap(offsets);
+		this.targets = IntBuffer.wrap(targets);
+	}
+
+	/**
+	 * Builds from a Digraph keeping the same order of adjacents than Digraph.adjacents(v).
+	 */
+	public CSRGraph(Digraph digraph) {
+		this.V = digraph.V();
+		this.E = digraph.E();
+		this.directed = true;
+		this.weights = null;
+		int[] offsets = new int[V + 1];
+		for (int v = 0; v < V; v++) {
+			offsets[v + 1] = offsets[v] + digraph.outdegree(v);
+		}
+		int[] targets = new int[offsets[V]];
+		for (int v = 0; v < V; v++) {
+			for (int i = 0; i < digraph.outdegree(v); i++) {
+				targets[offsets[v] + i] = digraph.adjacent(v, i);
+			}
+		}
+		this.offsets = IntBuffer.wrap(offsets);
+		this.targets = IntBuffer.wrap(targets);
+	}
+
+	/**
+	 * Builds from a WeightedDigraph keeping the same order of edges than WeightedDigraph.adjacents(v).
+	 */
+	public CSRGraph(WeightedDigraph wDigraph) {
+		this.V = wDigraph.V();
+		this.E = wDigraph.E();
+		this.directed = true;
+		int[] offsets = new int[V + 1];
+		for (int v = 0; v < V; v++) {
+			offsets[v + 1] = offsets[v] + wDigraph.outdegree(v);
+		}
+		int[] targets = new int[offsets[V]];
+		double[] weights = new double[offsets[V]];
+		for (int v = 0; v < V; v++) {
+			int i = offsets[v];
+			for (EdgeDirect e : wDigraph.adjacents(v)) {
+				targets[i] = e.to();
+				weights[i] = e.weight();
+				i++;
+			}
+		}
+		this.offsets = IntBuffer.wrap(offsets);
+		this.targets = IntBuffer.wrap(targets);
+		this.weights = DoubleBuffer.wrap(weights);
+	}
+
+	/**
+	 * Builds straight from an edge stream given as parallel arrays, where edge i is from[i]-to[i] with weight[i].
+	 *  The weight array can be null for an unweighted graph. Adjacents of each vertex keep the order of the stream.
+	 *  Uses a counting sort by source vertex, so there is no need to build a Graph or Digraph first.
+	 */
+	public CSRGraph(int V, int[] from, int[] to, double[] weight, boolean directed) {
+		if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+		if (from.length != to.length) throw new IllegalArgumentException("from and to must have the same length");
+		if (weight != null && weight.length != from.length) throw new IllegalArgumentException("weight must have the same length as from");
+		this.V = V;
+		this.E = from.length;
+		this.directed = directed;
+		int m = directed ? E : 2 * E;
+		int[] offsets = new int[V + 1];
+		for (int i = 0; i < E; i++) {
+			validateVertex(from[i]);
+			validateVertex(to[i]);
+			if (weight != null && Double.isNaN(weight[i])) throw new IllegalArgumentException("Weight is NaN");
+			offsets[from[i] + 1]++;
+			if (!directed) offsets[to[i] + 1]++;
+		}
+		for (int v = 0; v < V; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+		int[] targets = new int[m];
+		double[] weights = weight == null ? null : new double[m];
+		int[] next = new int[V];
+		for (int v = 0; v < V; v++) {
+			next[v] = offsets[v];
+		}
+		for (int i = 0; i < E; i++) {
+			int v = from[i];
+			int w = to[i];
+			int j = next[v]++;
+			targets[j] = w;
+			if (weights != null) weights[j] = weight[i];
+			if (!directed) {
+				j = next[w]++;
+				targets[j] = v;
+				if (weights != null) weights[j] = weight[i];
+			}
+		}
+		this.offsets = IntBuffer.wrap(offsets);
+		this.targets = IntBuffer.wrap(targets);
+		this.weights = weights == null ? null : DoubleBuffer.wrap(weights);
+	}
+
+	public int V() {
+		return V;
+	}
+
+	public int E() {
+		return E;
+	}
+
+	public boolean isDirected() {
+		return directed;
+	}
+
+	public boolean isWeighted() {
+		return weights != null;
+	}
+
+	/**
+	 * Number of entries of v, this is the outdegree if directed or the degree if undirected.
+	 */
+	public int degree(int v) {
+		validateVertex(v);
+		return offsets.get(v + 1) - offsets.get(v);
+	}
+
+	/**
+	 * Index of the first entry of v.
+	 */
+	public int begin(int v) {
+		validateVertex(v);
+		return offsets.get(v);
+	}
+
+	/**
+	 * Index one past the last entry of v.
+	 */
+	public int end(int v) {
+		validateVertex(v);
+		return offsets.get(v + 1);
+	}
+
+	// entry indices are not validated, the array access already does it.
+	public int target(int i) {
+		return targets.get(i);
+	}
+
+	public double weight(int i) {
+		if (weights == null) throw new UnsupportedOperationException("graph is not weighted");
+		return weights.get(i);
+	}
+
+	/**
+	 * Vertex that owns entry i (the 'from' vertex of the edge), with binary search on offsets.
+	 */
+	public int source(int i) {
+		int m = offsets.get(V);
+		if (i < 0 || i >= m) throw new IllegalArgumentException("entry " + i + " is not between 0 and " + (m-1));
+		int lo = 0;
+		int hi = V - 1;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (offsets.get(mid) <= i) lo = mid;
+			else                   hi = mid - 1;
+		}
+		return lo;
+	}
+
+	/**
+	 * Reverse of a directed graph (an undirected graph is its own reverse).
+	 */
+	public CSRGraph reverse() {
+		if (!directed) return this;
+		int m = offsets.get(V);
+		int[] rOffsets = new int[V + 1];
+		for (int i = 0; i < m; i++) {
+			rOffsets[targets.get(i) + 1]++;
+		}
+		for (int v = 0; v < V; v++) {
+			rOffsets[v + 1] += rOffsets[v];
+		}
+		int[] rTargets = new int[m];
+		double[] rWeights = weights == null ? null : new double[m];
+		int[] next = new int[V];
+		for (int v = 0; v < V; v++) {
+			next[v] = rOffsets[v];
+		}
+		for (int v = 0; v < V; v++) {
+			for (int i = offsets.get(v); i < offsets.get(v + 1); i++) {
+				int j = next[targets.get(i)]++;
+				rTargets[j] = v;
+				if (rWeights != null) rWeights[j] = weights.get(i);
+			}
+		}
+		return new CSRGraph(V, E, true, rOffsets, rTargets, rWeights);
+	}
+
+	/**
+	 * Writes the graph in the binary format (see the class comment), to map it later with load.
+	 */
+	public void save(String filename) throws IOException {
+		int m = offsets.get(V);
+		int flags = (directed ? 1 : 0) | (weights != null ? 2 : 0);
+		try (FileChannel channel = FileChannel.open(Paths.get(filename),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(flags).putInt(V).putInt(E).putInt(m).putLong(0L);
+			for (int v = 0; v <= V; v++) {
+				if (buffer.remaining() < 8) write(channel, buffer);
+				buffer.putInt(offsets.get(v));
+			}
+			if ((V + 1) % 2 != 0) buffer.putInt(0); // padding to 8 bytes
+			for (int i = 0; i < m; i++) {
+				if (buffer.remaining() < 8) write(channel, buffer);
+				buffer.putInt(targets.get(i));
+			}
+			if (m % 2 != 0) buffer.putInt(0);
+			if (weights != null) {
+				for (int i = 0; i < m; i++) {
+					if (buffer.remaining() < 8) write(channel, buffer);
+					buffer.putDouble(weights.get(i));
+				}
+			}
+			write(channel, buffer);
+		}
+	}
+
+	private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Maps a file written by save, without reading or copying the sections: every buffer of the graph is a view
+	 *  of the mapped file (read only). Only the header and the first and last offsets are checked.
+	 */
+	public static CSRGraph load(String filename) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER) throw new IOException(filename + " is not a CSRGraph file");
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER).order(ByteOrder.LITTLE_ENDIAN);
+			if (header.getInt() != MAGIC) throw new IOException(filename + " is not a CSRGraph file");
+			int version = header.getInt();
+			if (version != VERSION) throw new IOException(filename + " has unsupported version " + version);
+			int flags = header.getInt();
+			int V = header.getInt();
+			int E = header.getInt();
+			int m = header.getInt();
+			boolean directed = (flags & 1) != 0;
+			boolean weighted = (flags & 2) != 0;
+			if (V < 0 || E < 0 || m != (directed ? E : 2L * E)) throw new IOException(filename + " has a corrupted header");
+			long offsetsAt = HEADER;
+			long targetsAt = align(offsetsAt + 4L * (V + 1));
+			long weightsAt = align(targetsAt + 4L * m);
+			long end = weighted ? weightsAt + 8L * m : targetsAt + 4L * m;
+			if (size < end) throw new IOException(filename + " is truncated");
+			if (4L * (V + 1) > Integer.MAX_VALUE || 4L * m > Integer.MAX_VALUE || (weighted && 8L * m > Integer.MAX_VALUE))
+				throw new IOException(filename + " has a section too big to map"); // a mapped buffer has at most 2^31 - 1 bytes
+			IntBuffer offsets = map(channel, offsetsAt, 4L * (V + 1)).asIntBuffer();
+			IntBuffer targets = map(channel, targetsAt, 4L * m).asIntBuffer();
+			DoubleBuffer weights = weighted ? map(channel, weightsAt, 8L * m).asDoubleBuffer() : null;
+			if (offsets.get(0) != 0 || offsets.get(V) != m) throw new IOException(filename + " has corrupted offsets");
+			return new CSRGraph(V, E, directed, offsets, targets, weights);
+		}
+	}
+
+	private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+		return buffer.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static long align(long position) {
+		return (position + 7) & ~7L;
+	}
+
+	/**
+	 * Converts a graph in the text format of resources/graph to the binary format. The text format is the one read
+	 *  by Graph, Digraph (edges 'v w'), WeightedGraph, WeightedDigraph and FlowNetwork (edges 'v w weight'):
+	 *  V, E and then the E edges, one per line (parsed in parallel by GraphReader.readEdges).
+	 */
+	public static void convert(String textFile, String binaryFile, boolean directed, boolean weighted) throws IOException {
+		GraphReader.Edges edges = GraphReader.readEdges(textFile, weighted);
+		new CSRGraph(edges.V, edges.from, edges.to, edges.weight, directed).save(binaryFile);
+	}
+
+	private void validateVertex(int v) {
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+	}
+
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		s.append(V + " vertices, " + E + " edges \n");
+		for (int v = 0; v < V; v++) {
+			s.append(v + ": ");
+			for (int i = offsets.get(v); i < offsets.get(v + 1); i++) {
+				if (weights == null) s.append(targets.get(i) + " ");
+				else                 s.append(targets.get(i) + String.format(" %5.2f  ", weights.get(i)));
+			}
+			s.append("\n");
+		}
+		return s.toString();
+	}
+
+	public static void main(String[] args) throws FileNotFoundException, IOException {
+		Graph graph = new Graph(new Scanner(new FileReader("resources/graph/tinyG.txt")));
+		System.out.println(new CSRGraph(graph));
+
+		Digraph digraph = new Digraph(new Scanner(new FileReader("resources/graph/tinyDG.txt")));
+		CSRGraph csr = new CSRGraph(digraph);
+		System.out.println(csr);
+		System.out.println("reverse:");
+		System.out.println(csr.reverse());
+
+		WeightedDigraph wDigraph = new WeightedDigraph(new Scanner(new FileReader("resources/graph/tinyEWD.txt")));
+		System.out.println(new CSRGraph(wDigraph));
+
+		System.out.println("from edge stream:");
+		int[] from = { 0, 0, 1, 2 };
+		int[] to = { 1, 2, 2, 3 };
+		double[] weight = { 0.5, 0.25, 0.75, 1.0 };
+		System.out.println(new CSRGraph(4, from, to, weight, true));
+
+		File file = File.createTempFile("tinyEWD", ".csr");
+		file.deleteOnExit();
+		CSRGraph.convert("resources/graph/tinyEWD.txt", file.getPath(), true, true);
+		System.out.println("mapped from " + file.length() + " bytes binary file:");
+		System.out.println(CSRGraph.load(file.getPath()));
+
+		int V = 1_000_000;
+		int E = 10_000_000;
+		from = new int[E];
+		to = new int[E];
+		for (int i = 0; i < E; i++) {
+			from[i] = RandomN.getRandomInt(V);
+			to[i] = RandomN.getRandomInt(V);
+		}
+		file = File.createTempFile("random", ".csr");
+		file.deleteOnExit();
+		new CSRGraph(V, from, to, null, false).save(file.getPath());
+		long start = System.nanoTime();
+		csr = CSRGraph.load(file.getPath());
+		long middle = System.nanoTime();
+		BFSPaths bfs = new BFSPaths(csr, 0);
+		long end = System.nanoTime();
+		int reached = 0;
+		for (int v = 0; v < V; v++) {
+			if (bfs.hasPathTo(v)) reached++;
+		}
+		System.out.printf("random graph V=%d E=%d (%d MB): load %.2f ms, BFSPaths over the mapped file %d ms, %d reached%n",
+				V, E, file.length() >> 20, (middle - start) / 1e6, (end - middle) / 1_000_000, reached);
+	}
+}
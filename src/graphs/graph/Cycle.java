@@ -48,7 +48,8 @@ public class Cycle
 
 	private void dfs(Graph graph, int v, int u) {
 		visited[v] = true;
-		for(int w : graph.adjacents(v)) {
+		for(int i = 0; i < graph.degree(v); i++) {
+			int w = graph.adjacent(v, i);
 			if(hasCycle()) return;
 			if(!visited[w]) {
 				edgeTo[w] = v;
@@ -66,7 +67,8 @@ public class Cycle
 
 	private boolean hasSelfLoop(Graph graph) {
 		for (int v = 0; v < graph.V(); v++) {
-			for (int w : graph.adjacents(v)) {
+			for (int i = 0; i < graph.degree(v); i++) {
+				int w = graph.adjacent(v, i);
 				if (v == w) {
 					cycle = new Stack<Integer>();
 					cycle.push(v);
@@ -81,7 +83,8 @@ public class Cycle
 	private boolean hasParallelEdges(Graph graph) {
 		visited = new boolean[graph.V()];
 		for (int v = 0; v < graph.V(); v++) {
-			for (int w : graph.adjacents(v)) {
+			for (int i = 0; i < graph.degree(v); i++) {
+				int w = graph.adjacent(v, i);
 				if (visited[w]) {
 					cycle = new Stack<Integer>();
 					cycle.push(v);
@@ -91,7 +94,8 @@ public class Cycle
 				}
 				visited[w] = true;
 			}
-			for (int w : graph.adjacents(v)) {
+			for (int i = 0; i < graph.degree(v); i++) {
+				int w = graph.adjacent(v, i);
 				visited[w] = false;
 			}
 		}
@@ -2,7 +2,6 @@ package graphs.graph;
 
 import java.io.FileNotFoundException;
 import java.io.FileReader;
-import java.util.Iterator;
 import java.util.Scanner;
 
 import fundamentals.Stack;
@@ -41,6 +40,15 @@ public class DFSPaths {
 		}
 	}
 
+	public DFSPaths(CSRGraph csr, int s) {
+		if (csr.isDirected()) throw new IllegalArgumentException("CSRGraph must be undirected");
+		this.s = s;
+		visited = new boolean[csr.V()];
+		edgeTo = new int[csr.V()];
+		validateVertex(s);
+		dfs(csr, s);
+	}
+
 	public boolean hasPathTo(int v) {
 		validateVertex(v);
 		return visited[v];
@@ -59,7 +67,8 @@ public class DFSPaths {
 
 	private void dfs(Graph graph, int v) {
 		visited[v] = true;
-		for (int w : graph.adjacents(v)) {
+		for (int i = 0; i < graph.degree(v); i++) {
+			int w = graph.adjacent(v, i);
 			if (!visited[w]) {
 				edgeTo[w] = v;
 				dfs(graph, w);
@@ -67,32 +76,57 @@ public class DFSPaths {
 		}
 	}
 
+	/**
+	 * Nonrecursive DFS that visits in the same order than the recursive one, where cursor[v] is the index
+	 *  of the next entry of v to explore (so no iterator or recursion per vertex, deep graphs are fine).
+	 */
+	private void dfs(CSRGraph csr, int s) {
+		int[] cursor = new int[csr.V()];
+		int[] stack = new int[csr.V()];
+		int top = 0;
+		visited[s] = true;
+		cursor[s] = csr.begin(s);
+		stack[top++] = s;
+		while (top > 0) {
+			int v = stack[top - 1];
+			if (cursor[v] < csr.end(v)) {
+				int w = csr.target(cursor[v]++);
+				if (!visited[w]) {
+					visited[w] = true;
+					edgeTo[w] = v;
+					cursor[w] = csr.begin(w);
+					stack[top++] = w;
+				}
+			} else {
+				top--;
+			}
+		}
+	}
+
 	private void validateVertex(int v) {
 		int V = visited.length;
 		if (v < 0 || v >= V)
 			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V - 1));
 	}
 
-	@SuppressWarnings("unchecked")
+	// cursor[v] is the index of the next adjacent of v to explore.
 	private void nonrecursiveDFS(Graph graph, int s) {
-		Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator[graph.V()];
-		for (int v = 0; v < graph.V(); v++) {
-			adj[v] = graph.adjacents(v).iterator();
-		}
-		Stack<Integer> stack = new Stack<Integer>();
+		int[] cursor = new int[graph.V()];
+		int[] stack = new int[graph.V()];
+		int top = 0;
 		visited[s] = true;
-		stack.push(s);
-		while (!stack.isEmpty()) {
-			int v = stack.peek();
-			if (adj[v].hasNext()) {
-				int w = adj[v].next();
+		stack[top++] = s;
+		while (top > 0) {
+			int v = stack[top - 1];
+			if (cursor[v] < graph.degree(v)) {
+				int w = graph.adjacent(v, cursor[v]++);
 				if (!visited[w]) {
 					visited[w] = true;
 					edgeTo[w] = v;
-					stack.push(w);
+					stack[top++] = w;
 				}
 			} else {
-				stack.pop();
+				top--;
 			}
 		}
 	}
@@ -54,7 +54,8 @@ public class EulerianPath
 			adj[v] = new Queue<Edge>();
 		for (int v = 0; v < graph.V(); v++) {
 			int selfLoops = 0;
-			for (int w : graph.adjacents(v)) {
+			for (int i = 0; i < graph.degree(v); i++) {
+				int w = graph.adjacent(v, i);
 				if (v == w) {
 					if (selfLoops % 2 == 0) {
 						Edge e = new Edge(v, w);
@@ -2,11 +2,11 @@ package graphs.graph;
 
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 
-import fundamentals.Stack;
-
 /**
  * Undirected graph, implemented with adjacency-lists (vertex-index array) with vertices named 0 to V-1;
  * Parallel edges and self-loops allowed.
@@ -14,21 +14,30 @@ import fundamentals.Stack;
  * Initialization: O(V) where V is the number of vertices.
  * Operations:
  *     all methods: O(1) except when client iterates over vertices adjacent where is O(V).
+ *     addEdge: O(1) amortized time.
+ *     
+ * Note: each adjacency-list is a resizing int array (no boxed Integer or node per edge), and the adjacents
+ *     are visited from the last added to the first added (LIFO, like a Stack). For traversals without
+ *     boxing or iterator allocation use the cursor:
+ *         for (int i = 0; i < graph.degree(v); i++) { int w = graph.adjacent(v, i); }
  */
 public class Graph 
 {	
+	private static final int[] EMPTY = new int[0];
+
 	private final int V;
 	private int E;
-	private Stack<Integer>[] adj;
+	private int[][] adj;   // adj[v][0] to adj[v][degree[v]-1], in order added.
+	private int[] degree;
 
-	@SuppressWarnings("unchecked")
 	public Graph(int V) {
 		if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative.");
 		this.V = V;
 		this.E = 0;
-		adj = (Stack<Integer>[]) new Stack[V];
+		adj = new int[V][];
+		degree = new int[V];
 		for(int v = 0; v < V; v++) {
-			adj[v] = new Stack<Integer>();
+			adj[v] = EMPTY;
 		}
 	}
 
@@ -36,24 +45,19 @@ public class Graph
 		this(graph.V());
 		this.E = graph.E();
 		for (int v = 0; v < graph.V(); v++) {
-			Stack<Integer> reverse = new Stack<Integer>();
-			for (int w : graph.adj[v]) {
-				reverse.push(w);
-			}
-			for (int w : reverse) {
-				this.adj[v].push(w);
-			}
+			adj[v] = Arrays.copyOf(graph.adj[v], graph.degree[v]);
+			degree[v] = graph.degree[v];
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	public Graph(Scanner in) {
 		try {
 			this.V = in.nextInt();
 			if (V < 0) throw new IllegalArgumentException("number of vertices in a Graph must be nonnegative");
-			adj = (Stack<Integer>[]) new Stack[V];
+			adj = new int[V][];
+			degree = new int[V];
 			for (int v = 0; v < V; v++) {
-				adj[v] = new Stack<Integer>();
+				adj[v] = EMPTY;
 			}
 			int E = in.nextInt();
 			if (E < 0) throw new IllegalArgumentException("number of edges in a Graph must be nonnegative");
@@ -70,6 +74,33 @@ public class Graph
 		}
 	}
 
+	/**
+	 * Same than Graph(Scanner) but with the byte-level GraphReader, that is much faster for big files.
+	 */
+	public Graph(GraphReader in) {
+		try {
+			this.V = in.nextInt();
+			if (V < 0) throw new IllegalArgumentException("number of vertices in a Graph must be nonnegative");
+			adj = new int[V][];
+			degree = new int[V];
+			for (int v = 0; v < V; v++) {
+				adj[v] = EMPTY;
+			}
+			int E = in.nextInt();
+			if (E < 0) throw new IllegalArgumentException("number of edges in a Graph must be nonnegative");
+			for (int i = 0; i < E; i++) {
+				int v = in.nextInt();
+				int w = in.nextInt();
+				validateVertex(v);
+				validateVertex(w);
+				addEdge(v, w);
+			}
+		}
+		catch (NoSuchElementException e) {
+			throw new IllegalArgumentException("invalid input format in Graph constructor", e);
+		}
+	}
+
 	public int V() {
 		return V;
 	}
@@ -82,18 +113,47 @@ public class Graph
 		validateVertex(v);
 		validateVertex(w);
 		E++;
-		adj[v].push(w);
-		adj[w].push(v);
+		push(v, w);
+		push(w, v);
+	}
+
+	private void push(int v, int w) {
+		if (degree[v] == adj[v].length) adj[v] = Arrays.copyOf(adj[v], Math.max(2, 2 * adj[v].length));
+		adj[v][degree[v]++] = w;
 	}
 
 	public Iterable<Integer> adjacents(int v) {
 		validateVertex(v);
-		return adj[v];
+		return new Iterable<Integer>() {
+			public Iterator<Integer> iterator() {
+				return new Iterator<Integer>() {
+					private int i = degree[v] - 1;
+					public boolean hasNext() {
+						return i >= 0;
+					}
+					public Integer next() {
+						if (!hasNext()) throw new NoSuchElementException();
+						return adj[v][i--];
+					}
+					public void remove() { throw new UnsupportedOperationException(); }
+				};
+			}
+		};
+	}
+
+	/**
+	 * The i-th adjacent of v, for 0 <= i < degree(v), in the same order than adjacents(v).
+	 */
+	public int adjacent(int v, int i) {
+		validateVertex(v);
+		if (i < 0 || i >= degree[v])
+			throw new IllegalArgumentException("index " + i + " is not between 0 and " + (degree[v]-1));
+		return adj[v][degree[v] - 1 - i];
 	}
 
 	public int degree(int v) {
 		validateVertex(v);
-		return adj[v].size();
+		return degree[v];
 	}
 
 	private void validateVertex(int v) {
@@ -106,8 +166,8 @@ public class Graph
 		s.append(V + " vertices, " + E + " edges \n");
 		for (int v = 0; v < V; v++) {
 			s.append(v + ": ");
-			for (int w : adj[v]) {
-				s.append(w + " ");
+			for (int i = degree[v] - 1; i >= 0; i--) {
+				s.append(adj[v][i] + " ");
 			}
 			s.append("\n");
 		}
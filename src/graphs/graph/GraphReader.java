@@ -0,0 +1,406 @@
+package graphs.graph;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import graphs.graph.weighted.digraph.WeightedDigraph;
+import util.RandomN;
+
+/**
+ * Tokenizer for the text format of the graphs (V, E and then the edges 'v w' or 'v w weight'), that reads bytes
+ *  from a buffer and parses the numbers in place: no regex and no String per token, unlike Scanner.
+ *  Tokens are separated by any whitespace (ASCII 32 or less), same than Scanner with the default delimiter.
+ *
+ * A double with at most 15 significant digits and no exponent (like 0.38 or 12.5) is parsed as the exact
+ *  long of its digits divided by a power of ten, that is correctly rounded, so it is the same value than
+ *  Double.parseDouble; any other token (exponent, many digits, NaN, Infinity) falls back to Double.parseDouble.
+ *
+ * readEdges parses a whole file in parallel: the edges are split in chunks at line ends and every chunk is
+ *  parsed by a fork-join worker, so it needs one edge per line (as in the files of resources/graph).
+ *
+ * Operations:
+ *     nextInt, nextDouble, hasNext: O(length of token)
+ *     readEdges: O(size of file), split between the cores.
+ */
+public class GraphReader implements Closeable
+{
+	private static final int BUFFER = 1 << 16;
+	private static final int CHUNK = 1 << 22;   // bytes parsed by a task of readEdges
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15,
+		1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private final InputStream in;   // null when all the bytes are already in buf
+	private byte[] buf;
+	private int pos;
+	private int len;
+	private long consumed;          // bytes before buf[0]
+
+	public GraphReader(String filename) throws IOException {
+		this(new FileInputStream(filename));
+	}
+
+	public GraphReader(InputStream in) {
+		this.in = in;
+		buf = new byte[BUFFER];
+	}
+
+	// reads the tokens of bytes[0] to bytes[length-1].
+	private GraphReader(byte[] bytes, int length) {
+		in = null;
+		buf = bytes;
+		len = length;
+	}
+
+	/**
+	 * Edges of a text file, edge i is from[i]-to[i] with weight[i] (null when unweighted).
+	 */
+	public static class Edges {
+		public final int V;
+		public final int E;
+		public final int[] from;
+		public final int[] to;
+		public final double[] weight;
+
+		private Edges(int V, int E, int[] from, int[] to, double[] weight) {
+			this.V = V;
+			this.E = E;
+			this.from = from;
+			this.to = to;
+			this.weight = weight;
+		}
+	}
+
+	/**
+	 * Number of bytes read so far.
+	 */
+	public long position() {
+		return consumed + pos;
+	}
+
+	public boolean hasNext() {
+		return skipWhitespace();
+	}
+
+	public int nextInt() {
+		long x = nextLong();
+		if (x < Integer.MIN_VALUE || x > Integer.MAX_VALUE) throw new InputMismatchException("int out of range: " + x);
+		return (int) x;
+	}
+
+	public long nextLong() {
+		if (!skipWhitespace()) throw new NoSuchElementException();
+		boolean negative = false;
+		int c = buf[pos];
+		if (c == '-' || c == '+') {
+			negative = c == '-';
+			pos++;
+		}
+		long x = 0;
+		int digits = 0;
+		while (fill() && (c = buf[pos]) >= '0' && c <= '9') {
+			if (x > (Long.MAX_VALUE - (c - '0')) / 10) throw new InputMismatchException("long out of range");
+			x = 10 * x + (c - '0');
+			digits++;
+			pos++;
+		}
+		if (digits == 0 || (fill() && buf[pos] > ' ')) throw new InputMismatchException("not an integer: " + restOfToken());
+		return negative ? -x : x;
+	}
+
+	public double nextDouble() {
+		if (!skipWhitespace()) throw new NoSuchElementException();
+		boolean negative = false;
+		int c = buf[pos];
+		if (c == '-' || c == '+') {
+			negative = c == '-';
+			pos++;
+		}
+		long mantissa = 0;
+		int digits = 0;      // significant digits in mantissa
+		int decimals = 0;    // digits after the point
+		boolean point = false;
+		boolean anyDigit = false;
+		boolean simple = true;
+		while (fill()) {
+			c = buf[pos];
+			if (c >= '0' && c <= '9') {
+				anyDigit = true;
+				if (point) decimals++;
+				if (mantissa != 0 || c != '0') {
+					if (++digits > 15) simple = false;
+					mantissa = 10 * mantissa + (c - '0');
+				}
+			}
+			else if (c == '.' && !point) point = true;
+			else if (c <= ' ') break;
+			else {
+				simple = false;
+				break;
+			}
+			pos++;
+		}
+		if (simple && anyDigit && decimals < POWERS_OF_TEN.length) {
+			double x = mantissa / POWERS_OF_TEN[decimals];
+			return negative ? -x : x;
+		}
+		// slow path: the whole token as a String (fill keeps the current token in the buffer)
+		while (pos > 0 && buf[pos - 1] > ' ') pos--;
+		String token = restOfToken();
+		try {
+			return Double.parseDouble(token);
+		}
+		catch (NumberFormatException e) {
+			throw new InputMismatchException("not a double: " + token);
+		}
+	}
+
+	public void close() throws IOException {
+		if (in != null) in.close();
+	}
+
+	private String restOfToken() {
+		StringBuilder s = new StringBuilder();
+		while (fill() && buf[pos] > ' ') {
+			s.append((char) buf[pos++]);
+		}
+		return s.toString();
+	}
+
+	private boolean skipWhitespace() {
+		while (fill()) {
+			if (buf[pos] > ' ') return true;
+			pos++;
+		}
+		return false;
+	}
+
+	// makes buf[pos] valid, keeping the current token in the buffer, returns false at the end of input.
+	private boolean fill() {
+		if (pos < len) return true;
+		if (in == null) return false;
+		// keep the bytes of the token being read (back to the last whitespace) at the start of the buffer
+		int keep = pos;
+		while (keep > 0 && buf[keep - 1] > ' ') keep--;
+		int kept = len - keep;
+		if (kept == buf.length) buf = Arrays.copyOf(buf, 2 * buf.length);
+		System.arraycopy(buf, keep, buf, 0, kept);
+		consumed += keep;
+		pos -= keep;
+		len = kept;
+		try {
+			int n = in.read(buf, len, buf.length - len);
+			if (n <= 0) return false;
+			len += n;
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return true;
+	}
+
+	/**
+	 * Parses V, E and the E edges of a text file, with the edges split in chunks that are parsed in parallel.
+	 */
+	public static Edges readEdges(String filename, boolean weighted) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			long size = channel.size();
+			int V;
+			int E;
+			long edgesAt;
+			try (GraphReader header = new GraphReader(new FileInputStream(filename))) {
+				V = header.nextInt();
+				E = header.nextInt();
+				edgesAt = header.position();
+			}
+			if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+			if (E < 0) throw new IllegalArgumentException("Number of edges must be nonnegative");
+			// chunk k is bounds[k] to bounds[k+1]-1, every bound but the first is just after a line end
+			int chunks = (int) Math.max(1, (size - edgesAt + CHUNK - 1) / CHUNK);
+			long[] bounds = new long[chunks + 1];
+			bounds[0] = edgesAt;
+			bounds[chunks] = size;
+			ByteBuffer probe = ByteBuffer.allocate(256);
+			for (int k = 1; k < chunks; k++) {
+				long at = Math.max(bounds[k - 1], edgesAt + (long) k * CHUNK);
+				bounds[k] = lineEnd(channel, probe, at, size);
+			}
+			Chunk[] parts = new Chunk[chunks];
+			for (int k = 0; k < chunks; k++) {
+				parts[k] = new Chunk(channel, bounds[k], bounds[k + 1], weighted);
+			}
+			ForkJoinPool.commonPool().invoke(new ParseAll(parts, 0, chunks));
+			int[] from = new int[E];
+			int[] to = new int[E];
+			double[] weight = weighted ? new double[E] : null;
+			int n = 0;
+			for (Chunk part : parts) {
+				if (part.error != null) throw part.error;
+				if (n + part.n > E) throw new IllegalArgumentException("more than " + E + " edges in " + filename);
+				System.arraycopy(part.from, 0, from, n, part.n);
+				System.arraycopy(part.to, 0, to, n, part.n);
+				if (weighted) System.arraycopy(part.weight, 0, weight, n, part.n);
+				n += part.n;
+			}
+			if (n != E) throw new IllegalArgumentException("expected " + E + " edges in " + filename + " but found " + n);
+			return new Edges(V, E, from, to, weight);
+		}
+	}
+
+	// position just after the first line end at or after at, or size.
+	private static long lineEnd(FileChannel channel, ByteBuffer probe, long at, long size) throws IOException {
+		while (at < size) {
+			probe.clear();
+			int n = channel.read(probe, at);
+			if (n <= 0) break;
+			for (int i = 0; i < n; i++) {
+				if (probe.get(i) == '\n') return at + i + 1;
+			}
+			at += n;
+		}
+		return size;
+	}
+
+	private static class Chunk {
+		private final FileChannel channel;
+		private final long start;
+		private final long end;
+		private final boolean weighted;
+		private int n;
+		private int[] from = new int[16];
+		private int[] to = new int[16];
+		private double[] weight;
+		private RuntimeException error;
+
+		private Chunk(FileChannel channel, long start, long end, boolean weighted) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+			this.weighted = weighted;
+			if (weighted) weight = new double[16];
+		}
+
+		private void parse() {
+			try {
+				byte[] bytes = new byte[(int) (end - start)];
+				ByteBuffer buffer = ByteBuffer.wrap(bytes);
+				while (buffer.hasRemaining()) {
+					if (channel.read(buffer, start + buffer.position()) < 0) break;
+				}
+				GraphReader reader = new GraphReader(bytes, buffer.position());
+				while (reader.hasNext()) {
+					if (n == from.length) {
+						from = Arrays.copyOf(from, 2 * n);
+						to = Arrays.copyOf(to, 2 * n);
+						if (weighted) weight = Arrays.copyOf(weight, 2 * n);
+					}
+					from[n] = reader.nextInt();
+					to[n] = reader.nextInt();
+					if (weighted) weight[n] = reader.nextDouble();
+					n++;
+				}
+			}
+			catch (IOException e) {
+				error = new UncheckedIOException(e);
+			}
+			catch (RuntimeException e) {
+				error = e;
+			}
+		}
+	}
+
+	private static class ParseAll extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Chunk[] parts;
+		private final int lo;
+		private final int hi;
+
+		private ParseAll(Chunk[] parts, int lo, int hi) {
+			this.parts = parts;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		protected void compute() {
+			if (hi - lo == 1) {
+				parts[lo].parse();
+				return;
+			}
+			int mid = (lo + hi) >>> 1;
+			invokeAll(new ParseAll(parts, lo, mid), new ParseAll(parts, mid, hi));
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		try (GraphReader in = new GraphReader("resources/graph/tinyEWD.txt")) {
+			WeightedDigraph wDigraph = new WeightedDigraph(in);
+			System.out.println(wDigraph);
+		}
+
+		// random weighted digraph in the text format
+		int V = 1_000_000;
+		int E = 5_000_000;
+		File file = File.createTempFile("randomEWD", ".txt");
+		file.deleteOnExit();
+		try (BufferedWriter out = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+			out.write(V + "\n" + E + "\n");
+			for (int i = 0; i < E; i++) {
+				int cents = RandomN.getRandomInt(100000);
+				out.write(RandomN.getRandomInt(V) + " " + RandomN.getRandomInt(V) + " " + cents / 100 + (cents % 100 < 10 ? ".0" : ".") + cents % 100 + "\n");
+			}
+		}
+		double mb = file.length() / (1024.0 * 1024.0);
+		System.out.printf("random weighted digraph V=%d E=%d, %.1f MB%n", V, E, mb);
+
+		long start = System.nanoTime();
+		Edges edges = readEdges(file.getPath(), true);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("  GraphReader.readEdges:         %6.2f s, %7.1f MB/s (parallel, only parsing)%n", seconds, mb / seconds);
+
+		start = System.nanoTime();
+		WeightedDigraph read;
+		try (GraphReader in = new GraphReader(file.getPath())) {
+			read = new WeightedDigraph(in);
+		}
+		seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("  WeightedDigraph(GraphReader): %6.2f s, %7.1f MB/s%n", seconds, mb / seconds);
+
+		start = System.nanoTime();
+		WeightedDigraph scanned = new WeightedDigraph(new Scanner(new FileReader(file)));
+		seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("  WeightedDigraph(Scanner):      %6.2f s, %7.1f MB/s%n", seconds, mb / seconds);
+
+		// the adjacents of a WeightedDigraph are in reverse order of the file, the edges of readEdges in order
+		CSRGraph a = new CSRGraph(scanned);
+		CSRGraph b = new CSRGraph(read);
+		CSRGraph c = new CSRGraph(edges.V, edges.from, edges.to, edges.weight, true);
+		boolean same = true;
+		for (int v = 0; v < V; v++) {
+			for (int k = 0; k < a.degree(v); k++) {
+				int i = a.begin(v) + k;
+				int j = c.end(v) - 1 - k;
+				if (a.target(i) != b.target(i) || a.weight(i) != b.weight(i)) same = false;
+				if (a.target(i) != c.target(j) || a.weight(i) != c.weight(j)) same = false;
+			}
+		}
+		System.out.println("  same edges and weights than Scanner: " + same);
+	}
+}
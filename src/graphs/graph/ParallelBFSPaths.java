@@ -0,0 +1,272 @@
+package graphs.graph;
+
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import fundamentals.Stack;
+import graphs.graph.digraph.Digraph;
+import util.RandomN;
+
+/**
+ * Direction-optimizing parallel Breadth First Search for finding shortest paths from a source vertex 's'
+ *  to every other vertex, in undirected or directed graphs (over a CSRGraph).
+ *
+ * Each level is expanded by fork-join workers over bitset frontiers (one bit per vertex) in one of two ways:
+ *     top-down:  every vertex in the frontier claims its unvisited adjacents (CAS on the visited bitset).
+ *     bottom-up: every unvisited vertex looks for any parent in the frontier, and stops at the first one.
+ * Top-down is cheaper while the frontier is small, bottom-up is much cheaper when the frontier is large
+ *  (most edges of a big frontier lead to vertices already visited). The search switches to bottom-up when
+ *  the edges to check from the frontier (mf) are more than the edges to check from the unvisited vertices
+ *  (mu) divided by ALPHA, and back to top-down when the frontier has less than V / BETA vertices.
+ *
+ * Extra space: O(V) (plus the reverse CSRGraph for a directed graph).
+ *
+ * Initialization: O(V + E) work, split between the cores.
+ * Operations:
+ *     hasPathTo, distTo: O(1)
+ *     pathTo: O(length of path)
+ *
+ * NOTE: distTo is the same than BFSPaths, and pathTo is a shortest path too, but when there are several
+ *  shortest paths to a vertex the one chosen could be different than BFSPaths (it depends on the workers).
+ */
+public class ParallelBFSPaths
+{
+	private static final int ALPHA = 14;
+	private static final int BETA = 24;
+	private static final int GRAIN = 64; // words of 64 vertices that a task does without splitting
+
+	private final CSRGraph out;       // edges to follow top-down
+	private final CSRGraph in;        // edges to follow bottom-up (reverse of out for a directed graph)
+	private final int[] edgeTo;
+	private final int[] distTo;
+	private final AtomicLongArray visited;
+	private final AtomicLongArray next;
+	private long[] frontier;
+	private int level;
+
+	public ParallelBFSPaths(Graph graph, int s) {
+		this(new CSRGraph(graph), s);
+	}
+
+	public ParallelBFSPaths(Digraph digraph, int s) {
+		this(new CSRGraph(digraph), s);
+	}
+
+	public ParallelBFSPaths(CSRGraph csr, int s) {
+		out = csr;
+		in = csr.reverse();
+		int V = csr.V();
+		edgeTo = new int[V];
+		distTo = new int[V];
+		for (int v = 0; v < V; v++) {
+			distTo[v] = Integer.MAX_VALUE;
+		}
+		int words = (V + 63) >>> 6;
+		visited = new AtomicLongArray(words);
+		next = new AtomicLongArray(words);
+		frontier = new long[words];
+		validateVertex(s);
+		bfs(s);
+	}
+
+	public boolean hasPathTo(int v) {
+		validateVertex(v);
+		return distTo[v] != Integer.MAX_VALUE;
+	}
+
+	public int distTo(int v) {
+		validateVertex(v);
+		return distTo[v];
+	}
+
+	public Iterable<Integer> pathTo(int v) {
+		validateVertex(v);
+		if (!hasPathTo(v)) return null;
+		Stack<Integer> stack = new Stack<Integer>();
+		int x;
+		for (x = v; distTo[x] != 0; x = edgeTo[x]) {
+			stack.push(x);
+		}
+		stack.push(x);
+		return stack;
+	}
+
+	private void bfs(int s) {
+		int V = out.V();
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		visited.set(s >>> 6, 1L << s);
+		frontier[s >>> 6] = 1L << s;
+		distTo[s] = 0;
+		long nf = 1;                        // vertices in frontier
+		long mf = out.degree(s);            // edges to check from frontier
+		long mu = in.end(V - 1) - in.degree(s);   // edges to check from unvisited vertices
+		boolean bottomUp = false;
+		level = 0;
+		while (nf > 0) {
+			if (!bottomUp && mf > mu / ALPHA)  bottomUp = true;
+			else if (bottomUp && nf < V / BETA) bottomUp = false;
+			Step step = new Step(0, frontier.length, bottomUp);
+			pool.invoke(step);
+			nf = step.found;
+			mf = step.foundOut;
+			mu -= step.foundIn;
+			for (int k = 0; k < frontier.length; k++) {
+				frontier[k] = next.get(k);
+				next.set(k, 0L);
+			}
+			level++;
+		}
+	}
+
+	private boolean inFrontier(int v) {
+		return (frontier[v >>> 6] & (1L << v)) != 0;
+	}
+
+	// atomic OR of a bit, returns false if the bit was already set.
+	private static boolean setBit(AtomicLongArray bits, int v) {
+		int k = v >>> 6;
+		long bit = 1L << v;
+		while (true) {
+			long word = bits.get(k);
+			if ((word & bit) != 0) return false;
+			if (bits.compareAndSet(k, word, word | bit)) return true;
+		}
+	}
+
+	/**
+	 * Expands one level for the frontier words from lo to hi-1 (top-down), or for the unvisited vertices
+	 *  in the words from lo to hi-1 (bottom-up), counting the vertices found and their edges.
+	 */
+	private final class Step extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int lo;
+		private final int hi;
+		private final boolean bottomUp;
+		private long found;     // vertices found in this level
+		private long foundOut;  // edges out of found vertices
+		private long foundIn;   // edges into found vertices
+
+		Step(int lo, int hi, boolean bottomUp) {
+			this.lo = lo;
+			this.hi = hi;
+			this.bottomUp = bottomUp;
+		}
+
+		protected void compute() {
+			if (hi - lo > GRAIN) {
+				int mid = (lo + hi) >>> 1;
+				Step left = new Step(lo, mid, bottomUp);
+				Step right = new Step(mid, hi, bottomUp);
+				invokeAll(left, right);
+				found = left.found + right.found;
+				foundOut = left.foundOut + right.foundOut;
+				foundIn = left.foundIn + right.foundIn;
+			}
+			else if (bottomUp) bottomUp();
+			else               topDown();
+		}
+
+		private void topDown() {
+			for (int k = lo; k < hi; k++) {
+				long word = frontier[k];
+				while (word != 0) {
+					int v = (k << 6) + Long.numberOfTrailingZeros(word);
+					word &= word - 1;
+					for (int i = out.begin(v); i < out.end(v); i++) {
+						int w = out.target(i);
+						if ((visited.get(w >>> 6) & (1L << w)) == 0 && setBit(visited, w)) {
+							edgeTo[w] = v;
+							distTo[w] = level + 1;
+							setBit(next, w);
+							found++;
+							foundOut += out.degree(w);
+							foundIn += in.degree(w);
+						}
+					}
+				}
+			}
+		}
+
+		// this task is the only writer of the words from lo to hi-1, of both visited and next.
+		private void bottomUp() {
+			int V = out.V();
+			for (int k = lo; k < hi; k++) {
+				long unvisited = ~visited.get(k);
+				if (k == (V - 1) >>> 6 && (V & 63) != 0) unvisited &= (1L << V) - 1;
+				long visitedWord = 0;
+				while (unvisited != 0) {
+					int w = (k << 6) + Long.numberOfTrailingZeros(unvisited);
+					unvisited &= unvisited - 1;
+					for (int i = in.begin(w); i < in.end(w); i++) {
+						int v = in.target(i);
+						if (inFrontier(v)) {
+							edgeTo[w] = v;
+							distTo[w] = level + 1;
+							visitedWord |= 1L << w;
+							found++;
+							foundOut += out.degree(w);
+							foundIn += in.degree(w);
+							break;
+						}
+					}
+				}
+				if (visitedWord != 0) {
+					visited.set(k, visited.get(k) | visitedWord);
+					next.set(k, visitedWord);
+				}
+			}
+		}
+	}
+
+	private void validateVertex(int v) {
+		int V = distTo.length;
+		if (v < 0 || v >= V)
+			throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+	}
+
+	public static void main(String[] args) throws FileNotFoundException {
+		Graph graph = new Graph(new Scanner(new FileReader("resources/graph/tinyCG.txt")));
+		System.out.println(graph.toString());
+		int s = 0;
+		ParallelBFSPaths bfs = new ParallelBFSPaths(graph, s);
+		for (int v = 0; v < graph.V(); v++) {
+			if (bfs.hasPathTo(v)) {
+				System.out.printf("%d to %d (%d):  ", s, v, bfs.distTo(v));
+				for (int x : bfs.pathTo(v)) {
+					if (x == s) System.out.print(x);
+					else        System.out.print("-" + x);
+				}
+				System.out.println();
+			}
+			else {
+				System.out.printf("%d to %d (-):  not connected%n", s, v);
+			}
+		}
+		System.out.println();
+
+		int V = 1_000_000;
+		int E = 10_000_000;
+		int[] from = new int[E];
+		int[] to = new int[E];
+		for (int i = 0; i < E; i++) {
+			from[i] = RandomN.getRandomInt(V);
+			to[i] = RandomN.getRandomInt(V);
+		}
+		CSRGraph csr = new CSRGraph(V, from, to, null, false);
+		long start = System.nanoTime();
+		BFSPaths sequential = new BFSPaths(csr, 0);
+		long middle = System.nanoTime();
+		ParallelBFSPaths parallel = new ParallelBFSPaths(csr, 0);
+		long end = System.nanoTime();
+		boolean same = true;
+		for (int v = 0; v < V; v++) {
+			if (sequential.distTo(v) != parallel.distTo(v)) same = false;
+		}
+		System.out.printf("random graph V=%d E=%d: BFSPaths %d ms, ParallelBFSPaths %d ms, same distTo: %b%n",
+				V, E, (middle - start) / 1_000_000, (end - middle) / 1_000_000, same);
+	}
+}
@@ -4,8 +4,8 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.util.Scanner;
 
-import fundamentals.Queue;
 import fundamentals.Stack;
+import graphs.graph.CSRGraph;
 
 /**
  * Breadth First Search in Directed Graph for finding shortest paths from a source vertex 's' to every other vertex.
@@ -44,6 +44,18 @@ public class BFSPaths
 		bfs(digraph, sources);
 	}
 
+	public BFSPaths(CSRGraph csr, int s) {
+		if (!csr.isDirected()) throw new IllegalArgumentException("CSRGraph must be directed");
+		visited = new boolean[csr.V()];
+		edgeTo = new int[csr.V()];
+		distTo = new int[csr.V()];
+		for(int v = 0; v < csr.V(); v++) {
+			distTo[v] = Integer.MAX_VALUE;
+		}
+		validateVertex(s);
+		bfs(csr, s);
+	}
+
 	public int distTo(int v) {
 		validateVertex(v);
 		return distTo[v];
@@ -66,39 +78,67 @@ public class BFSPaths
 	}
 
 	private void bfs(Digraph digraph , int s) {
-		Queue<Integer> queue = new Queue<Integer>();
+		int[] queue = new int[visited.length]; // every vertex is enqueued at most once.
+		int head = 0;
+		int tail = 0;
 		visited[s] = true;
 		distTo[s] = 0;
-		queue.enqueue(s);
-		while(!queue.isEmpty()) {
-			int v = queue.dequeue();
-			for(int w : digraph.adjacents(v)) {
+		queue[tail++] = s;
+		while(head < tail) {
+			int v = queue[head++];
+			for(int i = 0; i < digraph.outdegree(v); i++) {
+				int w = digraph.adjacent(v, i);
 				if(!visited[w]) {
 					edgeTo[w] = v;
 					distTo[w] = distTo[v] + 1;
 					visited[w] = true;
-					queue.enqueue(w);
+					queue[tail++] = w;
 				}
 			}
 		}
 	}
 
 	private void bfs(Digraph digraph , Iterable<Integer> sources) {
-		Queue<Integer> queue = new Queue<Integer>();
+		int[] queue = new int[visited.length]; // every vertex is enqueued at most once.
+		int head = 0;
+		int tail = 0;
 		for(int s : sources) {	
 			validateVertex(s);
+			if(visited[s]) continue;
 			visited[s] = true;
 			distTo[s] = 0;
-			queue.enqueue(s);
+			queue[tail++] = s;
+		}
+		while(head < tail) {
+			int v = queue[head++];
+			for(int i = 0; i < digraph.outdegree(v); i++) {
+				int w = digraph.adjacent(v, i);
+				if(!visited[w]) {
+					edgeTo[w] = v;
+					distTo[w] = distTo[v] + 1;
+					visited[w] = true;
+					queue[tail++] = w;
+				}
+			}
 		}
-		while(!queue.isEmpty()) {
-			int v = queue.dequeue();
-			for(int w : digraph.adjacents(v)) {
+	}
+
+	private void bfs(CSRGraph csr, int s) {
+		int[] queue = new int[visited.length]; // every vertex is enqueued at most once.
+		int head = 0;
+		int tail = 0;
+		visited[s] = true;
+		distTo[s] = 0;
+		queue[tail++] = s;
+		while(head < tail) {
+			int v = queue[head++];
+			for(int i = csr.begin(v); i < csr.end(v); i++) {
+				int w = csr.target(i);
 				if(!visited[w]) {
 					edgeTo[w] = v;
 					distTo[w] = distTo[v] + 1;
 					visited[w] = true;
-					queue.enqueue(w);
+					queue[tail++] = w;
 				}
 			}
 		}
@@ -5,6 +5,7 @@ import java.io.FileReader;
 import java.util.Scanner;
 
 import fundamentals.Stack;
+import graphs.graph.CSRGraph;
 
 /**
  * Finds a simple directed cycle in an Directed Graph, using DFS.
@@ -34,6 +35,20 @@ public class Cycle
 		}
 	}
 
+	public Cycle(CSRGraph csr) {
+		if (!csr.isDirected()) throw new IllegalArgumentException("CSRGraph must be directed");
+		visited = new boolean[csr.V()];
+		onStack = new boolean[csr.V()];
+		edgeTo = new int[csr.V()];
+		int[] cursor = new int[csr.V()];
+		int[] stack = new int[csr.V()];
+		for(int v = 0; v < csr.V(); v++) {
+			if(!visited[v] && cycle == null) {
+				dfs(csr, v, cursor, stack);
+			}
+		}
+	}
+
 	public boolean hasCycle() {
 		return cycle != null;
 	}
@@ -45,7 +60,8 @@ public class Cycle
 	private void dfs(Digraph digraph, int v) {
 		visited[v] = true;
 		onStack[v] = true;
-		for(int w : digraph.adjacents(v)) {
+		for(int i = 0; i < digraph.outdegree(v); i++) {
+			int w = digraph.adjacent(v, i);
 			if(hasCycle()) return;
 			if(!visited[w]) {
 				edgeTo[w] = v;
@@ -62,6 +78,38 @@ public class Cycle
 		onStack[v] = false;
 	}
 
+	// nonrecursive dfs where the onStack vertices are the ones in the stack array.
+	private void dfs(CSRGraph csr, int s, int[] cursor, int[] stack) {
+		int top = 0;
+		visited[s] = true;
+		onStack[s] = true;
+		cursor[s] = csr.begin(s);
+		stack[top++] = s;
+		while(top > 0) {
+			int v = stack[top - 1];
+			if(cursor[v] < csr.end(v)) {
+				int w = csr.target(cursor[v]++);
+				if(!visited[w]) {
+					visited[w] = true;
+					onStack[w] = true;
+					edgeTo[w] = v;
+					cursor[w] = csr.begin(w);
+					stack[top++] = w;
+				} else if(onStack[w]) {
+					cycle = new Stack<Integer>();
+					for(int x = v; x != w; x = edgeTo[x]) {
+						cycle.push(x);
+					}
+					cycle.push(w);
+					cycle.push(v);
+					return;
+				}
+			} else {
+				onStack[v] = false;
+				top--;
+			}
+		}
+	}
 
 	public static void main(String[] args) throws FileNotFoundException {
 		Digraph digraph = new Digraph(new Scanner(new FileReader("resources/graph/tinyDG.txt")));
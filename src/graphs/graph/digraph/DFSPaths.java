@@ -2,10 +2,10 @@ package graphs.graph.digraph;
 
 import java.io.FileNotFoundException;
 import java.io.FileReader;
-import java.util.Iterator;
 import java.util.Scanner;
 
 import fundamentals.Stack;
+import graphs.graph.CSRGraph;
 
 /**
  * Depth First Search in Directed Graph for finding paths from a source vertex 's' to every other vertex.
@@ -53,6 +53,15 @@ public class DFSPaths
 		}
 	}
 
+	public DFSPaths(CSRGraph csr, int s) {
+		if (!csr.isDirected()) throw new IllegalArgumentException("CSRGraph must be directed");
+		this.s = s;
+		visited = new boolean[csr.V()];
+		edgeTo = new int[csr.V()];
+		validateVertex(s);
+		dfs(csr, s);
+	}
+
 	public boolean hasPathTo(int v) {
 		validateVertex(v);
 		return visited[v];
@@ -71,7 +80,8 @@ public class DFSPaths
 
 	private void dfs(Digraph digraph, int v) {
 		visited[v] = true;
-		for(int w : digraph.adjacents(v)) {
+		for(int i = 0; i < digraph.outdegree(v); i++) {
+			int w = digraph.adjacent(v, i);
 			if(!visited[w]) {
 				edgeTo[w] = v;
 				dfs(digraph, w);
@@ -79,26 +89,51 @@ public class DFSPaths
 		}
 	}
 
-	@SuppressWarnings("unchecked")
+	// cursor[v] is the index of the next adjacent of v to explore.
 	private void nonrecursiveDFS(Digraph digraph, int s) {
-		Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator[digraph.V()];
-		for(int v = 0; v < digraph.V(); v++) {
-			adj[v] = digraph.adjacents(v).iterator();
-		}
-		Stack<Integer> stack = new Stack<Integer>();
+		int[] cursor = new int[digraph.V()];
+		int[] stack = new int[digraph.V()];
+		int top = 0;
 		visited[s] = true;
-		stack.push(s);
-		while(!stack.isEmpty()) {
-			int v = stack.peek();
-			if(adj[v].hasNext()) {
-				int w = adj[v].next();
+		stack[top++] = s;
+		while(top > 0) {
+			int v = stack[top - 1];
+			if(cursor[v] < digraph.outdegree(v)) {
+				int w = digraph.adjacent(v, cursor[v]++);
 				if(!visited[w]) {
+					visited[w] = true;
 					edgeTo[w] = v;
+					stack[top++] = w;
+				}
+			} else {
+				top--;
+			}
+		}
+	}
+
+	/**
+	 * Nonrecursive DFS that visits in the same order than the recursive one, where cursor[v] is the index
+	 *  of the next entry of v to explore (so no iterator or recursion per vertex, deep graphs are fine).
+	 */
+	private void dfs(CSRGraph csr, int s) {
+		int[] cursor = new int[csr.V()];
+		int[] stack = new int[csr.V()];
+		int top = 0;
+		visited[s] = true;
+		cursor[s] = csr.begin(s);
+		stack[top++] = s;
+		while (top > 0) {
+			int v = stack[top - 1];
+			if (cursor[v] < csr.end(v)) {
+				int w = csr.target(cursor[v]++);
+				if (!visited[w]) {
 					visited[w] = true;
-					stack.push(w);
+					edgeTo[w] = v;
+					cursor[w] = csr.begin(w);
+					stack[top++] = w;
 				}
 			} else {
-				stack.pop();
+				top--;
 			}
 		}
 	}
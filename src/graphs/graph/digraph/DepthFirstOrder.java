@@ -2,10 +2,11 @@ package graphs.graph.digraph;
 
 import java.io.FileNotFoundException;
 import java.io.FileReader;
-import java.util.LinkedHashMap;
 import java.util.Scanner;
 
+import fundamentals.Queue;
 import fundamentals.Stack;
+import graphs.graph.CSRGraph;
 
 /**
  * Finds Depth-Search Ordering of the vertices in a digraph, including:
@@ -17,19 +18,21 @@ import fundamentals.Stack;
  * Operations:
  *     pre, post, reversePost: O(V)
  *     
- * Note: implementation uses a LinkedHashMap in order to mantiain insertion order (similar to a queue FIFO).
- *     where: key is a vertex, and value is index (pre/order).
+ * Note: implementation uses int arrays for the pre/post numbers and for the vertices in pre/post order,
+ *     so there is no boxing while searching.
  */
 public class DepthFirstOrder 
 {
 	private boolean[] visited;
-	private LinkedHashMap<Integer, Integer> preorder;
-	private LinkedHashMap<Integer, Integer> postorder;
+	private int[] pre;            // pre[v]  = preorder number of v
+	private int[] post;           // post[v] = postorder number of v
+	private int[] preorder;       // vertices in preorder
+	private int[] postorder;      // vertices in postorder
+	private int preCounter;
+	private int postCounter;
 	
 	public DepthFirstOrder(Digraph digraph) {
-		visited = new boolean[digraph.V()];
-		preorder = new LinkedHashMap<Integer, Integer>();
-		postorder = new LinkedHashMap<Integer, Integer>();
+		init(digraph.V());
 		for(int v = 0; v < digraph.V(); v++) {
 			if(!visited[v]) {
 				dfs(digraph, v);
@@ -37,38 +40,94 @@ public class DepthFirstOrder
 		}
 	}
 
+	public DepthFirstOrder(CSRGraph csr) {
+		if (!csr.isDirected()) throw new IllegalArgumentException("CSRGraph must be directed");
+		init(csr.V());
+		int[] cursor = new int[csr.V()];
+		int[] stack = new int[csr.V()];
+		for(int v = 0; v < csr.V(); v++) {
+			if(!visited[v]) {
+				dfs(csr, v, cursor, stack);
+			}
+		}
+	}
+
+	private void init(int V) {
+		visited = new boolean[V];
+		pre = new int[V];
+		post = new int[V];
+		preorder = new int[V];
+		postorder = new int[V];
+	}
+
 	private void dfs(Digraph digraph, int v) {
 		visited[v] = true;
-		preorder.put(v, preorder.size());
-		for(int w : digraph.adjacents(v)) {
+		pre[v] = preCounter;
+		preorder[preCounter++] = v;
+		for(int i = 0; i < digraph.outdegree(v); i++) {
+			int w = digraph.adjacent(v, i);
 			if(!visited[w]) {
 				dfs(digraph, w);
 			}
 		}
-		postorder.put(v, postorder.size());
+		post[v] = postCounter;
+		postorder[postCounter++] = v;
+	}
+
+	// nonrecursive dfs with same order than recursive one, cursor[v] is the next entry of v to explore.
+	private void dfs(CSRGraph csr, int s, int[] cursor, int[] stack) {
+		int top = 0;
+		visited[s] = true;
+		pre[s] = preCounter;
+		preorder[preCounter++] = s;
+		cursor[s] = csr.begin(s);
+		stack[top++] = s;
+		while(top > 0) {
+			int v = stack[top - 1];
+			if(cursor[v] < csr.end(v)) {
+				int w = csr.target(cursor[v]++);
+				if(!visited[w]) {
+					visited[w] = true;
+					pre[w] = preCounter;
+					preorder[preCounter++] = w;
+					cursor[w] = csr.begin(w);
+					stack[top++] = w;
+				}
+			} else {
+				top--;
+				post[v] = postCounter;
+				postorder[postCounter++] = v;
+			}
+		}
 	}
 
 	public int preorder(int v) {
 		validateVertex(v);
-		return preorder.get(v);
+		return pre[v];
 	}
 
 	public int postorder(int v) {
 		validateVertex(v);
-		return postorder.get(v);
+		return post[v];
 	}
 
 	public Iterable<Integer> preorder(){
-		return preorder.keySet();
+		Queue<Integer> queue = new Queue<Integer>();
+		for (int v : preorder)
+			queue.enqueue(v);
+		return queue;
 	}
 
 	public Iterable<Integer> postorder(){
-		return postorder.keySet();
+		Queue<Integer> queue = new Queue<Integer>();
+		for (int v : postorder)
+			queue.enqueue(v);
+		return queue;
 	}
 
 	public Iterable<Integer> reversePostorder() {
 		Stack<Integer> reverse = new Stack<Integer>();
-		for (int v : postorder())
+		for (int v : postorder)
 			reverse.push(v);
 		return reverse;
 	}
@@ -2,10 +2,12 @@ package graphs.graph.digraph;
 
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 
-import fundamentals.Stack;
+import graphs.graph.GraphReader;
 
 /**
  * Directed graph, implemented with adjacency-lists (vertex-index array) with vertices named 0 to V-1;
@@ -14,23 +16,32 @@ import fundamentals.Stack;
  * Initialization: O(V) where V is the number of vertices.
  * Operations:
  *     all methods: O(1) except when client iterates over vertices adjacent where is O(V).
+ *     addEdge: O(1) amortized time.
+ *     
+ * Note: each adjacency-list is a resizing int array (no boxed Integer or node per edge), and the adjacents
+ *     are visited from the last added to the first added (LIFO, like a Stack). For traversals without
+ *     boxing or iterator allocation use the cursor:
+ *         for (int i = 0; i < digraph.outdegree(v); i++) { int w = digraph.adjacent(v, i); }
  */
 public class Digraph 
 {
+	private static final int[] EMPTY = new int[0];
+
 	private final int V;
 	private int E = 0;
-	private Stack<Integer>[] adj;
+	private int[][] adj;   // adj[v][0] to adj[v][outdegree[v]-1], in order added.
+	private int[] outdegree;
 	private int[] indegree;
 
-	@SuppressWarnings("unchecked")
 	public Digraph(int V) {
 		if (V < 0) throw new IllegalArgumentException("Number of vertices in a Digraph must be nonnegative");
 		this.V = V;
 		this.E = 0;
 		indegree = new int[V];
-		adj = (Stack<Integer>[]) new Stack[V];
+		outdegree = new int[V];
+		adj = new int[V][];
 		for(int i = 0; i < V; i++) {
-			adj[i] = new Stack<Integer>();
+			adj[i] = EMPTY;
 		}
 	}
 
@@ -40,25 +51,46 @@ public class Digraph
 		for (int v = 0; v < V; v++)
 			this.indegree[v] = digraph.indegree(v);
 		for (int v = 0; v < digraph.V(); v++) {
-			Stack<Integer> reverse = new Stack<Integer>();
-			for (int w : digraph.adj[v]) {
-				reverse.push(w);
+			adj[v] = Arrays.copyOf(digraph.adj[v], digraph.outdegree[v]);
+			outdegree[v] = digraph.outdegree[v];
+		}
+	}
+
+	public Digraph(Scanner in) {
+		try {
+			V = in.nextInt();
+			if (V < 0) throw new IllegalArgumentException("number of vertices in a Digraph must be nonnegative");
+			indegree = new int[V];
+			outdegree = new int[V];
+			adj = new int[V][];
+			for (int v = 0; v < V; v++) {
+				adj[v] = EMPTY;
 			}
-			for (int w : reverse) {
-				adj[v].push(w);
+			int E = in.nextInt();
+			if (E < 0) throw new IllegalArgumentException("number of edges in a Digraph must be nonnegative");
+			for (int i = 0; i < E; i++) {
+				int v = in.nextInt();
+				int w = in.nextInt();
+				addEdge(v, w);
 			}
 		}
+		catch (NoSuchElementException e) {
+			throw new IllegalArgumentException("invalid input format in Digraph constructor", e);
+		}
 	}
 
-	@SuppressWarnings("unchecked")
-	public Digraph(Scanner in) {
+	/**
+	 * Same than Digraph(Scanner) but with the byte-level GraphReader, that is much faster for big files.
+	 */
+	public Digraph(GraphReader in) {
 		try {
 			V = in.nextInt();
 			if (V < 0) throw new IllegalArgumentException("number of vertices in a Digraph must be nonnegative");
 			indegree = new int[V];
-			adj = (Stack<Integer>[]) new Stack[V];
+			outdegree = new int[V];
+			adj = new int[V][];
 			for (int v = 0; v < V; v++) {
-				adj[v] = new Stack<Integer>();
+				adj[v] = EMPTY;
 			}
 			int E = in.nextInt();
 			if (E < 0) throw new IllegalArgumentException("number of edges in a Digraph must be nonnegative");
@@ -83,7 +115,7 @@ public class Digraph
 
 	public int outdegree(int v) {
 		validateVertex(v);
-		return adj[v].size();
+		return outdegree[v];
 	}
 
 	public int indegree(int v) {
@@ -94,21 +126,46 @@ public class Digraph
 	public void addEdge(int v, int w) {
 		validateVertex(v);
 		validateVertex(w);
-		adj[v].push(w);
+		if (outdegree[v] == adj[v].length) adj[v] = Arrays.copyOf(adj[v], Math.max(2, 2 * adj[v].length));
+		adj[v][outdegree[v]++] = w;
 		indegree[w]++;
 		E++;
 	}
 
 	public Iterable<Integer> adjacents(int v) {
 		validateVertex(v);
-		return adj[v];
+		return new Iterable<Integer>() {
+			public Iterator<Integer> iterator() {
+				return new Iterator<Integer>() {
+					private int i = outdegree[v] - 1;
+					public boolean hasNext() {
+						return i >= 0;
+					}
+					public Integer next() {
+						if (!hasNext()) throw new NoSuchElementException();
+						return adj[v][i--];
+					}
+					public void remove() { throw new UnsupportedOperationException(); }
+				};
+			}
+		};
+	}
+
+	/**
+	 * The i-th adjacent of v, for 0 <= i < outdegree(v), in the same order than adjacents(v).
+	 */
+	public int adjacent(int v, int i) {
+		validateVertex(v);
+		if (i < 0 || i >= outdegree[v])
+			throw new IllegalArgumentException("index " + i + " is not between 0 and " + (outdegree[v]-1));
+		return adj[v][outdegree[v] - 1 - i];
 	}
 
 	public Digraph reverse() {
 		Digraph reverse = new Digraph(V);
 		for(int v = 0; v < V; v++) {
-			for(int w : adjacents(v)) {
-				reverse.addEdge(w, v);
+			for(int i = 0; i < outdegree[v]; i++) {
+				reverse.addEdge(adjacent(v, i), v);
 			}
 		}
 		return reverse;
@@ -124,8 +181,8 @@ public class Digraph
 		s.append(V + " vertices, " + E + " edges \n");
 		for (int v = 0; v < V; v++) {
 			s.append(String.format("%d: ", v));
-			for (int w : adj[v]) {
-				s.append(String.format("%d ", w));
+			for (int i = outdegree[v] - 1; i >= 0; i--) {
+				s.append(String.format("%d ", adj[v][i]));
 			}
 			s.append("\n");
 		}
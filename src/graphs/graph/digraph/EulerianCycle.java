@@ -2,7 +2,6 @@ package graphs.graph.digraph;
 
 import java.io.FileNotFoundException;
 import java.io.FileReader;
-import java.util.Iterator;
 import java.util.Scanner;
 
 import fundamentals.Stack;
@@ -20,16 +19,14 @@ public class EulerianCycle
 {
 	private Stack<Integer> cycle = null;
 
-	@SuppressWarnings("unchecked")
 	public EulerianCycle(Digraph digraph) {
 		if (digraph.E() == 0) return;
 		for (int v = 0; v < digraph.V(); v++) 
 			if (digraph.outdegree(v) != digraph.indegree(v))
 				return;
-		// create local view of adjacency lists, to iterate one vertex at a time
-		Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator[digraph.V()];
-		for (int v = 0; v < digraph.V(); v++)
-			adj[v] = digraph.adjacents(v).iterator();
+		// create local view of adjacency lists, to iterate one vertex at a time,
+		// where cursor[v] is the index of the next adjacent of v to use.
+		int[] cursor = new int[digraph.V()];
 		// initialize stack with any non-isolated vertex
 		int s = nonIsolatedVertex(digraph);
 		Stack<Integer> stack = new Stack<Integer>();
@@ -37,9 +34,9 @@ public class EulerianCycle
 		cycle = new Stack<Integer>();
 		while (!stack.isEmpty()) {
 			int v = stack.pop();
-			while (adj[v].hasNext()) {
+			while (cursor[v] < digraph.outdegree(v)) {
 				stack.push(v);
-				v = adj[v].next();
+				v = digraph.adjacent(v, cursor[v]++);
 			}
 			// add vertex with no more leaving edges to cycle
 			cycle.push(v);
@@ -2,7 +2,6 @@ package graphs.graph.digraph;
 
 import java.io.FileNotFoundException;
 import java.io.FileReader;
-import java.util.Iterator;
 import java.util.Scanner;
 
 import fundamentals.Stack;
@@ -21,7 +20,6 @@ public class EulerianPath
 {
 	private Stack<Integer> path = null;
 
-	@SuppressWarnings("unchecked")
 	public EulerianPath(Digraph digraph) {
 		// find vertex from which to start potential Eulerian path:
 		// a vertex v with outdegree(v) > indegree(v) if it exits;
@@ -39,19 +37,18 @@ public class EulerianPath
 		if (deficit > 1) return;
 		// special case for digraph with zero edges (has a degenerate Eulerian path)
 		if (s == -1) s = 0;
-		// create local view of adjacency lists, to iterate one vertex at a time
-		Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator[digraph.V()];
-		for (int v = 0; v < digraph.V(); v++)
-			adj[v] = digraph.adjacents(v).iterator();
+		// create local view of adjacency lists, to iterate one vertex at a time,
+		// where cursor[v] is the index of the next adjacent of v to use.
+		int[] cursor = new int[digraph.V()];
 		// greedily add to cycle, depth-first search style
 		Stack<Integer> stack = new Stack<Integer>();
 		stack.push(s);
 		path = new Stack<Integer>();
 		while (!stack.isEmpty()) {
 			int v = stack.pop();
-			while (adj[v].hasNext()) {
+			while (cursor[v] < digraph.outdegree(v)) {
 				stack.push(v);
-				v = adj[v].next();
+				v = digraph.adjacent(v, cursor[v]++);
 			}
 			// push vertex with no more available edges to path
 			path.push(v);
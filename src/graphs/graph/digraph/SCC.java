@@ -5,6 +5,7 @@ import java.io.FileReader;
 import java.util.Scanner;
 
 import fundamentals.Queue;
+import graphs.graph.CSRGraph;
 
 /**
  * Compute the Strong Connected Component using Kosaraju-Sharir algorithm.
@@ -40,16 +41,55 @@ public class SCC
 		}
 	}
 
+	public SCC(CSRGraph csr) {
+		if (!csr.isDirected()) throw new IllegalArgumentException("CSRGraph must be directed");
+		visited = new boolean[csr.V()];
+		id = new int[csr.V()];
+		DepthFirstOrder dfo = new DepthFirstOrder(csr.reverse());
+		int[] cursor = new int[csr.V()];
+		int[] stack = new int[csr.V()];
+		for(int v : dfo.reversePostorder()) {
+			if(!visited[v]) {
+				dfs(csr, v, cursor, stack);
+				count++;
+			}
+		}
+	}
+
 	private void dfs(Digraph digraph, int v) {
 		visited[v] = true;
 		id[v] = count;
-		for(int w : digraph.adjacents(v)) {
+		for(int i = 0; i < digraph.outdegree(v); i++) {
+			int w = digraph.adjacent(v, i);
 			if(!visited[w]) {
 				dfs(digraph, w);
 			}
 		}
 	}
 
+	// nonrecursive dfs reusing the cursor and stack arrays between components.
+	private void dfs(CSRGraph csr, int s, int[] cursor, int[] stack) {
+		int top = 0;
+		visited[s] = true;
+		id[s] = count;
+		cursor[s] = csr.begin(s);
+		stack[top++] = s;
+		while(top > 0) {
+			int v = stack[top - 1];
+			if(cursor[v] < csr.end(v)) {
+				int w = csr.target(cursor[v]++);
+				if(!visited[w]) {
+					visited[w] = true;
+					id[w] = count;
+					cursor[w] = csr.begin(w);
+					stack[top++] = w;
+				}
+			} else {
+				top--;
+			}
+		}
+	}
+
 	public int count() {
 		return count;
 	}
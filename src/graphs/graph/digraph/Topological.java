@@ -2,6 +2,8 @@ package graphs.graph.digraph;
 
 import java.io.FileNotFoundException;
 
+import graphs.graph.CSRGraph;
+
 /**
  * Finds the topological* order, only if the is a directed acyclic graph (DAG).
  * It uses Cycle and DepthFirstOrder.
@@ -13,9 +15,6 @@ import java.io.FileNotFoundException;
  *     hasOrder, rank: O(1)
  *     order: O(V)
  *     
- * Note: implementation uses a LinkedHashMap in order to mantiain insertion order (similar to a queue FIFO).
- *     where: key is a vertex, and value is index of topological order (reverse postorder).
- *     
  * *Topological: given a digraph, put the vertices in order such that all its directed edges 
  * point from a vertex earlier in the order to a vertex later in the order (or report that doing so is not possible).
  */
@@ -37,6 +36,19 @@ public class Topological
 		}
 	}
 
+	public Topological(CSRGraph csr) {
+		Cycle cycle = new Cycle(csr);
+		if(!cycle.hasCycle()) {
+			DepthFirstOrder dfo = new DepthFirstOrder(csr);
+			order = dfo.reversePostorder();
+			rank = new int[csr.V()];
+			int i = 0;
+			for(int v : order) {
+				rank[v] = i++;
+			}
+		}
+	}
+
 	public boolean hasOrder() {
 		return order != null;
 	}
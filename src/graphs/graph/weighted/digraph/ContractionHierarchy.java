@@ -0,0 +1,692 @@
+package graphs.graph.weighted.digraph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Scanner;
+
+import fundamentals.Queue;
+import fundamentals.Stack;
+import graphs.graph.weighted.graph.Edge;
+import graphs.graph.weighted.graph.WeightedGraph;
+import sorting.DoubleIndexMinPQ;
+import util.RandomN;
+
+/**
+ * Contraction Hierarchy: index built once over a Weighted Digraph with nonnegative weights, that answers
+ *  Shortest Path queries between any pair of vertices exploring only a few hundred vertices.
+ *
+ * Preprocessing contracts the vertices one by one, from the least important to the most important (the rank).
+ *  Contracting v removes it from the digraph, and for every pair u->v->w where u->v->w is the only shortest
+ *  path from u to w (no witness path found without v), a shortcut u->w is added with the weight of both.
+ *  The order is chosen with a priority queue of (shortcuts needed - edges removed + contracted neighbours + level),
+ *  that is updated lazily and for the neighbours of every contracted vertex. A witness search is a Dijkstra from u
+ *  that stops when every w is settled, or after a few settled vertices (a missed witness only adds a shortcut).
+ *
+ * A query runs Dijkstra from s only over edges that go up in rank, and Dijkstra from t only over reverse edges
+ *  that go up in rank; the shortest path is the minimum of distTo(s, v) + distTo(v, t) over the vertices v
+ *  reached by both. A shortcut keeps its two halves, so a path is unpacked back to edges of the digraph.
+ *
+ *     shortcut e = u->w (weight 3) = child1[e] (u->v weight 1) + child2[e] (v->w weight 2), -1 for an edge.
+ *
+ * Extra space: O(V + E + number of shortcuts) plus O(V) per thread that makes queries.
+ *
+ * Initialization: it depends on the digraph, nearly linear for road-like digraphs (grids without a hierarchy are
+ *  much slower, the last vertices contracted get many shortcuts).
+ * Operations:
+ *     dist, hasPath: it depends on the hierarchy, usually some hundreds of vertices settled.
+ *     path: the same plus O(length of the unpacked path).
+ */
+public class ContractionHierarchy
+{
+	private static final int WITNESS_LIMIT = 500;   // vertices settled by a witness search before giving up
+	private static final int ESTIMATE_LIMIT = 50;   // the same, when only counting shortcuts for the priority
+	private static final int MAGIC = 0x43484958;  // first int of the file: "CHIX"
+
+	private final int V;
+	private final int[] rank;
+	private final int m;           // edges and shortcuts in the hierarchy
+	private final int[] from;
+	private final int[] to;
+	private final double[] weight;
+	private final int[] child1;    // first half of a shortcut, -1 for an edge of the digraph
+	private final int[] child2;    // second half of a shortcut, -1 for an edge of the digraph
+	private int shortcuts;
+	// edges v->w with rank[w] > rank[v], grouped by v (CSR)
+	private int[] upOffsets;
+	private int[] upEdges;
+	private int[] upTargets;
+	private double[] upWeights;
+	// edges u->v with rank[u] > rank[v], grouped by v (CSR)
+	private int[] downOffsets;
+	private int[] downEdges;
+	private int[] downSources;
+	private double[] downWeights;
+	private final ThreadLocal<Scratch> scratch;
+
+	public ContractionHierarchy(WeightedDigraph wDigraph) {
+		this(new Contractor(wDigraph));
+	}
+
+	private ContractionHierarchy(Contractor c) {
+		this(c.V, c.rank, c.m, c.from, c.to, c.weight, c.child1, c.child2);
+	}
+
+	private ContractionHierarchy(int V, int[] rank, int m, int[] from, int[] to, double[] weight, int[] child1, int[] child2) {
+		this.V = V;
+		this.rank = rank;
+		this.m = m;
+		this.from = from;
+		this.to = to;
+		this.weight = weight;
+		this.child1 = child1;
+		this.child2 = child2;
+		for (int e = 0; e < m; e++) {
+			if (child1[e] != -1) shortcuts++;
+		}
+		upOffsets = new int[V + 1];
+		downOffsets = new int[V + 1];
+		for (int e = 0; e < m; e++) {
+			if (rank[from[e]] < rank[to[e]]) upOffsets[from[e] + 1]++;
+			else                             downOffsets[to[e] + 1]++;
+		}
+		for (int v = 0; v < V; v++) {
+			upOffsets[v + 1] += upOffsets[v];
+			downOffsets[v + 1] += downOffsets[v];
+		}
+		upEdges = new int[upOffsets[V]];
+		upTargets = new int[upOffsets[V]];
+		upWeights = new double[upOffsets[V]];
+		downEdges = new int[downOffsets[V]];
+		downSources = new int[downOffsets[V]];
+		downWeights = new double[downOffsets[V]];
+		int[] nextUp = Arrays.copyOf(upOffsets, V);
+		int[] nextDown = Arrays.copyOf(downOffsets, V);
+		for (int e = 0; e < m; e++) {
+			if (rank[from[e]] < rank[to[e]]) {
+				int i = nextUp[from[e]]++;
+				upEdges[i] = e;
+				upTargets[i] = to[e];
+				upWeights[i] = weight[e];
+			}
+			else {
+				int i = nextDown[to[e]]++;
+				downEdges[i] = e;
+				downSources[i] = from[e];
+				downWeights[i] = weight[e];
+			}
+		}
+		scratch = ThreadLocal.withInitial(() -> new Scratch(V));
+	}
+
+	/**
+	 * Contraction of the vertices, with a dynamic adjacency list of edge ids (in and out) for every vertex.
+	 *  The edges of a contracted vertex stay in the lists of its neighbours until they are compacted.
+	 */
+	private static class Contractor {
+		private final int V;
+		private int m;
+		private int[] from = new int[16];
+		private int[] to = new int[16];
+		private double[] weight = new double[16];
+		private int[] child1 = new int[16];
+		private int[] child2 = new int[16];
+		private final int[][] out;
+		private final int[][] in;
+		private final int[] outCount;
+		private final int[] inCount;
+		private final boolean[] contracted;
+		private final int[] contractedNeighbours;
+		private final int[] level;        // 1 + maximum level of the contracted neighbours
+		private final int[] rank;
+		private final int[] mark;
+		// witness search
+		private final double[] dist;
+		private final int[] stamp;
+		private final int[] target;       // target[w] == search if w is an out neighbour of v to check
+		private int search;
+		private final DoubleIndexMinPQ pq;
+
+		private Contractor(WeightedDigraph wDigraph) {
+			V = wDigraph.V();
+			out = new int[V][];
+			in = new int[V][];
+			outCount = new int[V];
+			inCount = new int[V];
+			contracted = new boolean[V];
+			contractedNeighbours = new int[V];
+			level = new int[V];
+			rank = new int[V];
+			mark = new int[V];
+			dist = new double[V];
+			stamp = new int[V];
+			target = new int[V];
+			pq = new DoubleIndexMinPQ(V);
+			for (int v = 0; v < V; v++) {
+				out[v] = new int[2];
+				in[v] = new int[2];
+				mark[v] = -1;
+			}
+			for (EdgeDirect e : wDigraph.edges()) {
+				if (e.weight() < 0) throw new IllegalArgumentException("edge " + e + " has negative weight");
+				if (e.from() != e.to()) addEdge(e.from(), e.to(), e.weight(), -1, -1);
+			}
+			contractAll();
+		}
+
+		private void contractAll() {
+			DoubleIndexMinPQ order = new DoubleIndexMinPQ(V);
+			for (int v = 0; v < V; v++) {
+				order.insert(v, priority(v));
+			}
+			int next = 0;
+			while (!order.isEmpty()) {
+				int v = order.delMin();
+				double p = priority(v);
+				if (!order.isEmpty() && p > order.minKey()) {  // lazy update
+					order.insert(v, p);
+					continue;
+				}
+				shortcuts(v, true);
+				contracted[v] = true;
+				rank[v] = next++;
+				for (int k = 0; k < inCount[v]; k++) {
+					updateNeighbour(order, v, from[in[v][k]]);
+				}
+				for (int k = 0; k < outCount[v]; k++) {
+					updateNeighbour(order, v, to[out[v][k]]);
+				}
+			}
+		}
+
+		private void updateNeighbour(DoubleIndexMinPQ order, int v, int u) {
+			if (mark[u] == v || contracted[u]) return;
+			mark[u] = v;
+			contractedNeighbours[u]++;
+			level[u] = Math.max(level[u], level[v] + 1);
+			order.changeKey(u, priority(u));
+		}
+
+		private double priority(int v) {
+			int added = shortcuts(v, false);
+			return added - inCount[v] - outCount[v] + contractedNeighbours[v] + level[v];
+		}
+
+		/**
+		 * Shortcuts needed to contract v (the edges of v must be compacted), and adds them if add is true.
+		 */
+		private int shortcuts(int v, boolean add) {
+			compact(v);
+			int count = 0;
+			for (int k = 0; k < inCount[v]; k++) {
+				int a = in[v][k];
+				int u = from[a];
+				search++;
+				double maxDist = 0.0;
+				int targets = 0;
+				for (int j = 0; j < outCount[v]; j++) {
+					int b = out[v][j];
+					int w = to[b];
+					if (w == u) continue;
+					maxDist = Math.max(maxDist, weight[a] + weight[b]);
+					if (target[w] != search) {
+						target[w] = search;
+						targets++;
+					}
+				}
+				if (targets == 0) continue;
+				witness(u, v, maxDist, targets, add ? WITNESS_LIMIT : ESTIMATE_LIMIT);
+				for (int j = 0; j < outCount[v]; j++) {
+					int b = out[v][j];
+					int w = to[b];
+					if (w == u) continue;
+					double through = weight[a] + weight[b];
+					if (witnessDist(w) > through) {
+						count++;
+						if (add) addEdge(u, w, through, a, b);
+					}
+				}
+			}
+			return count;
+		}
+
+		// Dijkstra from u without v, until all the targets are settled, maxDist or limit settled vertices.
+		private void witness(int u, int v, double maxDist, int targets, int limit) {
+			pq.clear();
+			dist[u] = 0.0;
+			stamp[u] = search;
+			pq.insert(u, 0.0);
+			int settled = 0;
+			while (!pq.isEmpty() && pq.minKey() <= maxDist && settled++ < limit) {
+				int x = pq.delMin();
+				if (target[x] == search && --targets == 0) return;
+				for (int k = 0; k < outCount[x]; k++) {
+					int e = out[x][k];
+					int y = to[e];
+					if (y == v || contracted[y]) continue;
+					double d = dist[x] + weight[e];
+					if (d < witnessDist(y)) {
+						dist[y] = d;
+						stamp[y] = search;
+						if (pq.contains(y)) pq.decreaseKey(y, d);
+						else                pq.insert(y, d);
+					}
+				}
+			}
+		}
+
+		private double witnessDist(int v) {
+			return stamp[v] == search ? dist[v] : Double.POSITIVE_INFINITY;
+		}
+
+		// removes the edges to or from contracted vertices in the lists of v.
+		private void compact(int v) {
+			int n = 0;
+			for (int k = 0; k < outCount[v]; k++) {
+				if (!contracted[to[out[v][k]]]) out[v][n++] = out[v][k];
+			}
+			outCount[v] = n;
+			n = 0;
+			for (int k = 0; k < inCount[v]; k++) {
+				if (!contracted[from[in[v][k]]]) in[v][n++] = in[v][k];
+			}
+			inCount[v] = n;
+		}
+
+		// adds u->w, or only lowers the weight of u->w if the edge is already there (no parallel edges).
+		private void addEdge(int u, int w, double edgeWeight, int first, int second) {
+			for (int k = 0; k < outCount[u]; k++) {
+				int e = out[u][k];
+				if (to[e] == w) {
+					if (edgeWeight < weight[e]) {
+						weight[e] = edgeWeight;
+						child1[e] = first;
+						child2[e] = second;
+					}
+					return;
+				}
+			}
+			if (m == from.length) {
+				from = Arrays.copyOf(from, 2 * m);
+				to = Arrays.copyOf(to, 2 * m);
+				weight = Arrays.copyOf(weight, 2 * m);
+				child1 = Arrays.copyOf(child1, 2 * m);
+				child2 = Arrays.copyOf(child2, 2 * m);
+			}
+			from[m] = u;
+			to[m] = w;
+			weight[m] = edgeWeight;
+			child1[m] = first;
+			child2[m] = second;
+			if (outCount[u] == out[u].length) out[u] = Arrays.copyOf(out[u], 2 * outCount[u]);
+			out[u][outCount[u]++] = m;
+			if (inCount[w] == in[w].length) in[w] = Arrays.copyOf(in[w], 2 * inCount[w]);
+			in[w][inCount[w]++] = m;
+			m++;
+		}
+	}
+
+	// per-thread arrays for one search direction, a stamp per vertex tells if the entry is from this query.
+	private static class Side {
+		private final double[] distTo;
+		private final int[] edgeTo;   // id of the last edge, -1 for none.
+		private final int[] stamp;
+		private final DoubleIndexMinPQ pq;
+
+		private Side(int V) {
+			distTo = new double[V];
+			edgeTo = new int[V];
+			stamp = new int[V];
+			pq = new DoubleIndexMinPQ(V);
+		}
+
+		private double dist(int v, int query) {
+			return stamp[v] == query ? distTo[v] : Double.POSITIVE_INFINITY;
+		}
+
+		private void reach(int v, double dist, int edge, int query) {
+			distTo[v] = dist;
+			edgeTo[v] = edge;
+			stamp[v] = query;
+		}
+	}
+
+	private static class Scratch {
+		private final Side f;
+		private final Side b;
+		private int query;
+		private int settled;
+		private int meet;
+		private double mu;
+
+		private Scratch(int V) {
+			f = new Side(V);
+			b = new Side(V);
+		}
+	}
+
+	public int V() {
+		return V;
+	}
+
+	/**
+	 * Number of shortcuts added by the contraction.
+	 */
+	public int shortcuts() {
+		return shortcuts;
+	}
+
+	/**
+	 * Position of v in the contraction order (0 is the first contracted).
+	 */
+	public int rank(int v) {
+		validateVertex(v);
+		return rank[v];
+	}
+
+	public double dist(int s, int t) {
+		return search(s, t).mu;
+	}
+
+	public boolean hasPath(int s, int t) {
+		return dist(s, t) < Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Shortest path from s to t with edges of the digraph (the shortcuts are unpacked), null if there is none.
+	 */
+	public Iterable<EdgeDirect> path(int s, int t) {
+		Scratch sc = search(s, t);
+		if (sc.meet == -1) return null;
+		Stack<Integer> up = new Stack<Integer>();
+		for (int e = sc.f.edgeTo[sc.meet]; e != -1; e = sc.f.edgeTo[from[e]]) {
+			up.push(e);
+		}
+		Queue<EdgeDirect> path = new Queue<EdgeDirect>();
+		for (int e : up) {
+			unpack(e, path);
+		}
+		for (int e = sc.b.edgeTo[sc.meet]; e != -1; e = sc.b.edgeTo[to[e]]) {
+			unpack(e, path);
+		}
+		return path;
+	}
+
+	/**
+	 * Number of vertices settled by the last query of this thread.
+	 */
+	public int settled() {
+		return scratch.get().settled;
+	}
+
+	private void unpack(int edge, Queue<EdgeDirect> path) {
+		Stack<Integer> stack = new Stack<Integer>();
+		stack.push(edge);
+		while (!stack.isEmpty()) {
+			int e = stack.pop();
+			if (child1[e] == -1) {
+				path.enqueue(new EdgeDirect(from[e], to[e], weight[e]));
+			}
+			else {
+				stack.push(child2[e]);
+				stack.push(child1[e]);
+			}
+		}
+	}
+
+	private Scratch search(int s, int t) {
+		validateVertex(s);
+		validateVertex(t);
+		Scratch sc = scratch.get();
+		Side f = sc.f;
+		Side b = sc.b;
+		if (sc.query == Integer.MAX_VALUE) {
+			Arrays.fill(f.stamp, 0);
+			Arrays.fill(b.stamp, 0);
+			sc.query = 0;
+		}
+		int query = ++sc.query;
+		f.pq.clear();
+		b.pq.clear();
+		sc.settled = 0;
+		sc.meet = s == t ? s : -1;
+		sc.mu = s == t ? 0.0 : Double.POSITIVE_INFINITY;
+		f.reach(s, 0.0, -1, query);
+		b.reach(t, 0.0, -1, query);
+		f.pq.insert(s, 0.0);
+		b.pq.insert(t, 0.0);
+		boolean isForward = true;
+		while (true) {
+			boolean canForward = !f.pq.isEmpty() && f.pq.minKey() < sc.mu;
+			boolean canBackward = !b.pq.isEmpty() && b.pq.minKey() < sc.mu;
+			if (!canForward && !canBackward) break;
+			if (!canForward)  isForward = false;
+			if (!canBackward) isForward = true;
+			Side side = isForward ? f : b;
+			Side other = isForward ? b : f;
+			int[] offsets = isForward ? upOffsets : downOffsets;
+			int[] targets = isForward ? upTargets : downSources;
+			int[] edges = isForward ? upEdges : downEdges;
+			double[] weights = isForward ? upWeights : downWeights;
+			int v = side.pq.delMin();
+			sc.settled++;
+			double d = side.distTo[v];
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				int w = targets[i];
+				double dw = d + weights[i];
+				if (dw < side.dist(w, query)) {
+					side.reach(w, dw, edges[i], query);
+					if (side.pq.contains(w)) side.pq.decreaseKey(w, dw);
+					else                     side.pq.insert(w, dw);
+					double through = dw + other.dist(w, query);
+					if (through < sc.mu) {
+						sc.mu = through;
+						sc.meet = w;
+					}
+				}
+			}
+			isForward = !isForward;
+		}
+		return sc;
+	}
+
+	/**
+	 * Writes the hierarchy (ranks, edges and shortcuts) in a binary file, to load it later without contracting again.
+	 */
+	public void save(String filename) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(V);
+			out.writeInt(m);
+			for (int v = 0; v < V; v++) {
+				out.writeInt(rank[v]);
+			}
+			for (int e = 0; e < m; e++) {
+				out.writeInt(from[e]);
+				out.writeInt(to[e]);
+				out.writeDouble(weight[e]);
+				out.writeInt(child1[e]);
+				out.writeInt(child2[e]);
+			}
+		}
+	}
+
+	/**
+	 * Reads a file written by save. Everything a query trusts is checked, so a truncated or corrupted file
+	 *  throws IOException here instead of failing inside the queries: the size of the file, the ranks (a
+	 *  permutation of the vertices), the vertices and the nonnegative weights of the edges, and the halves of
+	 *  every shortcut (u->v and v->w for u->w, with v of a lower rank than u and w, so unpacking ends).
+	 */
+	public static ContractionHierarchy load(String filename) throws IOException {
+		long size = new File(filename).length();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+			if (in.readInt() != MAGIC) throw new IOException(filename + " is not a contraction hierarchy file");
+			int V = in.readInt();
+			int m = in.readInt();
+			if (V < 0 || m < 0) throw new IOException(filename + " is corrupted");
+			if (size != 12 + 4L * V + 24L * m) throw new IOException(filename + " is corrupted: " + size + " bytes for V " + V + " and m " + m);
+			int[] rank = new int[V];
+			boolean[] ranked = new boolean[V];
+			for (int v = 0; v < V; v++) {
+				rank[v] = in.readInt();
+				if (rank[v] < 0 || rank[v] >= V || ranked[rank[v]]) throw new IOException(filename + " is corrupted: rank of " + v);
+				ranked[rank[v]] = true;
+			}
+			int[] from = new int[m];
+			int[] to = new int[m];
+			double[] weight = new double[m];
+			int[] child1 = new int[m];
+			int[] child2 = new int[m];
+			for (int e = 0; e < m; e++) {
+				from[e] = in.readInt();
+				to[e] = in.readInt();
+				weight[e] = in.readDouble();
+				child1[e] = in.readInt();
+				child2[e] = in.readInt();
+				if (from[e] < 0 || from[e] >= V || to[e] < 0 || to[e] >= V) throw new IOException(filename + " is corrupted: vertices of edge " + e);
+				if (!(weight[e] >= 0)) throw new IOException(filename + " is corrupted: weight of edge " + e);
+			}
+			for (int e = 0; e < m; e++) {
+				int first = child1[e], second = child2[e];
+				if (first == -1 && second == -1) continue;
+				if (first < 0 || first >= m || second < 0 || second >= m) throw new IOException(filename + " is corrupted: shortcut " + e);
+				int v = to[first];
+				if (from[first] != from[e] || from[second] != v || to[second] != to[e] || rank[v] >= rank[from[e]] || rank[v] >= rank[to[e]])
+					throw new IOException(filename + " is corrupted: shortcut " + e);
+			}
+			return new ContractionHierarchy(V, rank, m, from, to, weight, child1, child2);
+		}
+	}
+
+	private void validateVertex(int v) {
+		if (v < 0 || v >= V) throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+	}
+
+	public static void main(String[] args) throws FileNotFoundException, IOException {
+		// mediumEWG with every edge in both directions
+		WeightedGraph wGraph = new WeightedGraph(new Scanner(new FileReader("resources/graph/mediumEWG.txt")));
+		WeightedDigraph medium = new WeightedDigraph(wGraph.V());
+		for (Edge e : wGraph.edges()) {
+			int v = e.either();
+			int w = e.other(v);
+			medium.addEdge(new EdgeDirect(v, w, e.weight()));
+			medium.addEdge(new EdgeDirect(w, v, e.weight()));
+		}
+		long start = System.nanoTime();
+		SPDijkstraAllPairs all = new SPDijkstraAllPairs(medium);
+		long allBuild = System.nanoTime() - start;
+		start = System.nanoTime();
+		ContractionHierarchy ch = new ContractionHierarchy(medium);
+		long chBuild = System.nanoTime() - start;
+		boolean same = true;
+		int pairs = medium.V() * medium.V();
+		double[] expected = new double[pairs];
+		start = System.nanoTime();
+		for (int s = 0; s < medium.V(); s++) {
+			for (int t = 0; t < medium.V(); t++) {
+				expected[s * medium.V() + t] = all.dist(s, t);
+			}
+		}
+		long allQueries = System.nanoTime() - start;
+		start = System.nanoTime();
+		for (int s = 0; s < medium.V(); s++) {
+			for (int t = 0; t < medium.V(); t++) {
+				if (Math.abs(ch.dist(s, t) - expected[s * medium.V() + t]) > 1e-9) same = false;
+			}
+		}
+		long chQueries = System.nanoTime() - start;
+		System.out.printf("mediumEWG V=%d E=%d, %d shortcuts, %d queries:%n", medium.V(), medium.E(), ch.shortcuts(), pairs);
+		System.out.printf("  SPDijkstraAllPairs: build %5d ms, query %8.2f us%n", allBuild / 1_000_000, allQueries / 1000.0 / pairs);
+		System.out.printf("  ContractionHierarchy: build %5d ms, query %8.2f us, same dist: %b%n", chBuild / 1_000_000, chQueries / 1000.0 / pairs, same);
+		System.out.print("  path 0 to 249: ");
+		for (EdgeDirect e : ch.path(0, 249)) {
+			System.out.print(e + "   ");
+		}
+		System.out.println();
+
+		// grid of n*n points with edges to the 4 neighbours (too big for SPDijkstraAllPairs)
+		int n = 100;
+		WeightedDigraph grid = new WeightedDigraph(n * n);
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < n; c++) {
+				int v = r * n + c;
+				if (c + 1 < n) grid.addEdge(new EdgeDirect(v, v + 1, 1.0 + 0.01 * RandomN.getRandomInt(100)));
+				if (c > 0)     grid.addEdge(new EdgeDirect(v, v - 1, 1.0 + 0.01 * RandomN.getRandomInt(100)));
+				if (r + 1 < n) grid.addEdge(new EdgeDirect(v, v + n, 1.0 + 0.01 * RandomN.getRandomInt(100)));
+				if (r > 0)     grid.addEdge(new EdgeDirect(v, v - n, 1.0 + 0.01 * RandomN.getRandomInt(100)));
+			}
+		}
+		start = System.nanoTime();
+		ch = new ContractionHierarchy(grid);
+		chBuild = System.nanoTime() - start;
+		File file = File.createTempFile("grid", ".ch");
+		file.deleteOnExit();
+		ch.save(file.getPath());
+		start = System.nanoTime();
+		ContractionHierarchy loaded = ContractionHierarchy.load(file.getPath());
+		long load = System.nanoTime() - start;
+		int queries = 50;
+		int[] from = new int[queries];
+		int[] to = new int[queries];
+		for (int q = 0; q < queries; q++) {
+			from[q] = RandomN.getRandomInt(n * n);
+			to[q] = RandomN.getRandomInt(n * n);
+		}
+		expected = new double[queries];
+		start = System.nanoTime();
+		for (int q = 0; q < queries; q++) {
+			expected[q] = new SPDijkstra(grid, from[q]).distTo(to[q]);
+		}
+		long dijkstra = System.nanoTime() - start;
+		same = true;
+		long settled = 0;
+		start = System.nanoTime();
+		for (int q = 0; q < queries; q++) {
+			if (Math.abs(loaded.dist(from[q], to[q]) - expected[q]) > 1e-9) same = false;
+			settled += loaded.settled();
+		}
+		long chTime = System.nanoTime() - start;
+		System.out.printf("grid V=%d E=%d, %d shortcuts, %d queries:%n", grid.V(), grid.E(), ch.shortcuts(), queries);
+		System.out.printf("  SPDijkstra: query %8.2f us%n", dijkstra / 1000.0 / queries);
+		System.out.printf("  ContractionHierarchy: build %5d ms, load %d ms, query %8.2f us, %d settled per query, same dist: %b%n",
+				chBuild / 1_000_000, load / 1_000_000, chTime / 1000.0 / queries, settled / queries, same);
+
+		System.out.println("Test : load of a truncated file, and of a shortcut with a child out of range");
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		File corrupted = File.createTempFile("corrupted", ".ch");
+		corrupted.deleteOnExit();
+		Files.write(corrupted.toPath(), Arrays.copyOf(bytes, bytes.length - 1));
+		System.out.println("  " + loadError(corrupted.getPath()));
+		ByteBuffer buffer = ByteBuffer.wrap(bytes); // big endian, as DataOutputStream
+		int V = buffer.getInt(4), m = buffer.getInt(8);
+		for (int e = 0; e < m; e++) {
+			int at = 12 + 4 * V + 24 * e + 16; // child1 of edge e
+			if (buffer.getInt(at) != -1) {
+				buffer.putInt(at, m);
+				break;
+			}
+		}
+		Files.write(corrupted.toPath(), bytes);
+		System.out.println("  " + loadError(corrupted.getPath()));
+	}
+
+	private static String loadError(String filename) {
+		try {
+			ContractionHierarchy.load(filename);
+		}
+		catch (IOException e) {
+			return e.getMessage().substring(e.getMessage().indexOf(" is ") + 1);
+		}
+		throw new IllegalStateException("corrupted file loaded");
+	}
+}
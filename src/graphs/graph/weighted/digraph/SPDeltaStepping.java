@@ -0,0 +1,320 @@
+package graphs.graph.weighted.digraph;
+
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import fundamentals.Stack;
+import graphs.graph.CSRGraph;
+
+/**
+ * Delta-stepping algorithm for solving the single-source Shortest Paths problem in Weighted Digraphs,
+ *  where the edge weights are nonnegative, relaxing the edges in parallel with fork-join workers.
+ *
+ * Vertices are kept in buckets of width delta by tentative distance (bucket i has distances in [i*delta, (i+1)*delta)).
+ *  While bucket i is emptied every tentative distance is less than (i+1)*delta + maximum weight, so only
+ *  ceil(maximum weight / delta) + 1 buckets are in use at once: they are a cyclic array where bucket i is slot
+ *  i % slots, and finding the next bucket is a scan of the slots (no tree of buckets, no boxing).
+ *  The smallest bucket is emptied in phases: all its vertices relax their light edges (weight <= delta) in parallel,
+ *  which can refill the same bucket, and once it stays empty the removed vertices relax their heavy edges.
+ *  A small delta behaves like Dijkstra (little wasted work, little parallelism), a big delta like Bellman-Ford.
+ *  Tentative distances are updated with compare-and-set of the double bits (a nonnegative double orders like its bits).
+ *
+ * Extra space: O(V + E + maximum weight / delta) (the digraph is copied to a CSRGraph).
+ *
+ * Initialization: O(E + V + max distance / delta) work plus the re-relaxations inside a bucket.
+ * Operations:
+ *     hasPathTo, distTo: O(1)
+ *     pathTo: O(length of path * log V)
+ *
+ * NOTE: the shortest paths tree is built after the distances are final, with a BFS from s over the tight edges
+ *  (distTo[v] + weight == distTo[w]), so racing workers never leave an edgeTo that disagrees with distTo.
+ */
+public class SPDeltaStepping
+{
+	private static final int GRAIN = 256; // frontier vertices that a task relaxes without splitting
+	private static final int MAX_SLOTS = 1 << 24; // buckets in use at once, maximum weight / delta
+
+	private final CSRGraph csr;
+	private final double delta;
+	private final AtomicLongArray dist;  // bits of the tentative distances
+	private final int[] inBucket;        // last bucket where each vertex was added, -1 for none
+	private final Bag[] buckets;         // bucket i in slot i % buckets.length
+	private long pending;                // vertices in the buckets, with the stale ones
+	private double[] distTo;
+	private int[] edgeIndexTo;           // entry in csr of the last edge on the shortest path, -1 for none.
+
+	// growable int array for the vertices of a bucket, or the vertices improved by a task.
+	private static class Bag {
+		private int[] items = new int[4];
+		private int n;
+		private void add(int v) {
+			if (n == items.length) items = Arrays.copyOf(items, 2 * n);
+			items[n++] = v;
+		}
+		private void addAll(Bag that) {
+			for (int i = 0; i < that.n; i++) add(that.items[i]);
+		}
+	}
+
+	public SPDeltaStepping(WeightedDigraph wDigraph, int s) {
+		this(new CSRGraph(wDigraph), s);
+	}
+
+	public SPDeltaStepping(WeightedDigraph wDigraph, int s, double delta) {
+		this(new CSRGraph(wDigraph), s, delta);
+	}
+
+	/**
+	 * Uses delta = maximum weight / average outdegree, that is a good choice for random weights.
+	 */
+	public SPDeltaStepping(CSRGraph csr, int s) {
+		this(csr, s, defaultDelta(csr));
+	}
+
+	public SPDeltaStepping(CSRGraph csr, int s, double delta) {
+		if (!csr.isDirected() || !csr.isWeighted()) throw new IllegalArgumentException("CSRGraph must be directed and weighted");
+		if (!(delta > 0) || Double.isInfinite(delta)) throw new IllegalArgumentException("delta must be positive and finite: " + delta);
+		double maxWeight = 0.0;
+		for (int v = 0; v < csr.V(); v++) {
+			for (int i = csr.begin(v); i < csr.end(v); i++) {
+				if (csr.weight(i) < 0) throw new IllegalArgumentException("edge " + v + "->" + csr.target(i) + " has negative weight");
+				maxWeight = Math.max(maxWeight, csr.weight(i));
+			}
+		}
+		double slots = Math.ceil(maxWeight / delta) + 1;
+		if (slots > MAX_SLOTS) throw new IllegalArgumentException("delta " + delta + " is too small for the maximum weight " + maxWeight);
+		this.csr = csr;
+		this.delta = delta;
+		int V = csr.V();
+		dist = new AtomicLongArray(V);
+		inBucket = new int[V];
+		for (int v = 0; v < V; v++) {
+			dist.set(v, Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+			inBucket[v] = -1;
+		}
+		buckets = new Bag[(int) slots];
+		validateVertex(s);
+		dist.set(s, Double.doubleToRawLongBits(0.0));
+		addToBucket(s);
+		deltaStepping();
+		distTo = new double[V];
+		for (int v = 0; v < V; v++) {
+			distTo[v] = Double.longBitsToDouble(dist.get(v));
+		}
+		shortestPathsTree(s);
+	}
+
+	private static double defaultDelta(CSRGraph csr) {
+		double max = 0.0;
+		for (int v = 0; v < csr.V(); v++) {
+			for (int i = csr.begin(v); i < csr.end(v); i++) {
+				max = Math.max(max, csr.weight(i));
+			}
+		}
+		if (max == 0.0 || csr.E() == 0) return 1.0;
+		return max / Math.max(1.0, (double) csr.E() / csr.V());
+	}
+
+	private int bucketOf(int v) {
+		return (int) Math.min(Integer.MAX_VALUE, Double.longBitsToDouble(dist.get(v)) / delta);
+	}
+
+	private void addToBucket(int v) {
+		int b = bucketOf(v);
+		if (inBucket[v] == b) return;
+		inBucket[v] = b;
+		int slot = b % buckets.length;
+		if (buckets[slot] == null) buckets[slot] = new Bag();
+		buckets[slot].add(v);
+		pending++;
+	}
+
+	private void deltaStepping() {
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		for (int i = 0; pending > 0; i++) {
+			int slot = i % buckets.length;
+			if (buckets[slot] == null || buckets[slot].n == 0) continue;
+			Bag removed = new Bag();
+			while (buckets[slot] != null && buckets[slot].n > 0) {
+				Bag bag = buckets[slot];
+				buckets[slot] = null;
+				pending -= bag.n;
+				Bag frontier = new Bag();
+				for (int k = 0; k < bag.n; k++) {
+					int v = bag.items[k];
+					if (inBucket[v] != i) continue; // stale, v moved to a smaller bucket
+					inBucket[v] = -1;
+					frontier.add(v);
+				}
+				removed.addAll(frontier);
+				relax(pool, frontier, true);
+			}
+			relax(pool, removed, false);
+		}
+	}
+
+	// relaxes the light (or heavy) edges of the vertices, in this thread if there are few, and buckets the improved.
+	private void relax(ForkJoinPool pool, Bag vertices, boolean light) {
+		Relax task = new Relax(vertices.items, 0, vertices.n, light);
+		if (vertices.n <= GRAIN) task.compute();
+		else                     pool.invoke(task);
+		addToBuckets(task);
+	}
+
+	private void addToBuckets(Relax task) { // the improved vertices of the leaves of the task
+		if (task.left != null) {
+			addToBuckets(task.left);
+			addToBuckets(task.right);
+			return;
+		}
+		for (int k = 0; k < task.improved.n; k++) {
+			addToBucket(task.improved.items[k]);
+		}
+	}
+
+	/**
+	 * Relaxes the light (or heavy) edges of the vertices from lo to hi-1, collecting the vertices improved
+	 *  in the leaf tasks (a split task keeps its two halves, so the improved are never copied up the tree).
+	 */
+	private final class Relax extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int[] vertices;
+		private final int lo;
+		private final int hi;
+		private final boolean light;
+		private final Bag improved = new Bag();
+		private Relax left, right;
+
+		Relax(int[] vertices, int lo, int hi, boolean light) {
+			this.vertices = vertices;
+			this.lo = lo;
+			this.hi = hi;
+			this.light = light;
+		}
+
+		protected void compute() {
+			if (hi - lo > GRAIN) {
+				int mid = (lo + hi) >>> 1;
+				left = new Relax(vertices, lo, mid, light);
+				right = new Relax(vertices, mid, hi, light);
+				invokeAll(left, right);
+				return;
+			}
+			for (int k = lo; k < hi; k++) {
+				int v = vertices[k];
+				double d = Double.longBitsToDouble(dist.get(v));
+				for (int i = csr.begin(v); i < csr.end(v); i++) {
+					double weight = csr.weight(i);
+					if ((weight <= delta) != light) continue;
+					int w = csr.target(i);
+					if (relax(w, d + weight)) improved.add(w);
+				}
+			}
+		}
+	}
+
+	// compare-and-set minimum of the distance of w, returns true if it was improved.
+	private boolean relax(int w, double d) {
+		long bits = Double.doubleToRawLongBits(d);
+		while (true) {
+			long current = dist.get(w);
+			if (bits >= current) return false;
+			if (dist.compareAndSet(w, current, bits)) return true;
+		}
+	}
+
+	private void shortestPathsTree(int s) {
+		int V = csr.V();
+		edgeIndexTo = new int[V];
+		boolean[] visited = new boolean[V];
+		for (int v = 0; v < V; v++) {
+			edgeIndexTo[v] = -1;
+		}
+		int[] queue = new int[V]; // every vertex is enqueued at most once
+		int head = 0, tail = 0;
+		visited[s] = true;
+		queue[tail++] = s;
+		while (head < tail) {
+			int v = queue[head++];
+			for (int i = csr.begin(v); i < csr.end(v); i++) {
+				int w = csr.target(i);
+				if (!visited[w] && distTo[v] + csr.weight(i) == distTo[w]) {
+					visited[w] = true;
+					edgeIndexTo[w] = i;
+					queue[tail++] = w;
+				}
+			}
+		}
+	}
+
+	public double delta() {
+		return delta;
+	}
+
+	public double distTo(int v) {
+		validateVertex(v);
+		return distTo[v];
+	}
+
+	public boolean hasPathTo(int v) {
+		validateVertex(v);
+		return distTo[v] < Double.POSITIVE_INFINITY;
+	}
+
+	public Iterable<EdgeDirect> pathTo(int v) {
+		validateVertex(v);
+		if (!hasPathTo(v)) return null;
+		Stack<EdgeDirect> path = new Stack<EdgeDirect>();
+		for (int i = edgeIndexTo[v]; i != -1; ) {
+			int from = csr.source(i);
+			path.push(new EdgeDirect(from, csr.target(i), csr.weight(i)));
+			i = edgeIndexTo[from];
+		}
+		return path;
+	}
+
+	private void validateVertex(int v) {
+		int V = csr.V();
+		if (v < 0 || v >= V) throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+	}
+
+	public static void main(String[] args) throws FileNotFoundException {
+		WeightedDigraph wDigraph = new WeightedDigraph(new Scanner(new FileReader("resources/graph/tinyEWD.txt")));
+		int s = 0;
+		SPDeltaStepping sp = new SPDeltaStepping(wDigraph, s, 0.25);
+		for (int v = 0; v < wDigraph.V(); v++) {
+			if (sp.hasPathTo(v)) {
+				System.out.printf("%d to %d (%.2f)  ", s, v, sp.distTo(v));
+				for (EdgeDirect e : sp.pathTo(v)) {
+					System.out.print(e + "   ");
+				}
+				System.out.println();
+			}
+			else {
+				System.out.printf("%d to %d         no path\n", s, v);
+			}
+		}
+		System.out.println();
+
+		WeightedDigraph random = new WeightedDigraph(200_000, 2_000_000);
+		CSRGraph csr = new CSRGraph(random);
+		for (int round = 0; round < 3; round++) { // the first round warms up
+			long start = System.nanoTime();
+			SPDijkstra dijkstra = new SPDijkstra(csr, 0);
+			long middle = System.nanoTime();
+			SPDeltaStepping deltaStepping = new SPDeltaStepping(csr, 0);
+			long end = System.nanoTime();
+			boolean same = true;
+			for (int v = 0; v < csr.V(); v++) {
+				if (dijkstra.distTo(v) != deltaStepping.distTo(v)) same = false;
+			}
+			if (round > 0) System.out.printf("random digraph V=%d E=%d: SPDijkstra %d ms, SPDeltaStepping (delta %.3f, cores %d) %d ms, same distTo: %b%n",
+					csr.V(), csr.E(), (middle - start) / 1_000_000, deltaStepping.delta(), Runtime.getRuntime().availableProcessors(), (end - middle) / 1_000_000, same);
+		}
+	}
+}
@@ -5,7 +5,8 @@ import java.io.FileReader;
 import java.util.Scanner;
 
 import fundamentals.Stack;
-import sorting.IndexMinPQ;
+import graphs.graph.CSRGraph;
+import sorting.DoubleIndexMinPQ;
 
 /**
  * Dijsktra algorithm for solving the single-source Shortest Paths problem in Weighted Digraphs,
@@ -22,7 +23,9 @@ public class SPDijkstra
 {
 	private double[] distTo;
 	private EdgeDirect[] edgeTo;
-	private IndexMinPQ<Double> pq;
+	private DoubleIndexMinPQ pq;
+	private CSRGraph csr;        // only when built from a CSRGraph
+	private int[] edgeIndexTo;   // entry in csr of the last edge on the shortest path, -1 for none.
 
 	public SPDijkstra(WeightedDigraph wDigraph, int s) {
 		for(EdgeDirect e: wDigraph.edges()) {
@@ -35,7 +38,7 @@ public class SPDijkstra
 		}
 		validateVertex(s);
 		distTo[s] = 0.0;
-		pq = new IndexMinPQ<Double>(wDigraph.V());
+		pq = new DoubleIndexMinPQ(wDigraph.V());
 		pq.insert(s, distTo[s]);
 		while(!pq.isEmpty()) {
 			int v = pq.delMin();
@@ -45,6 +48,32 @@ public class SPDijkstra
 		}
 	}
 
+	public SPDijkstra(CSRGraph csr, int s) {
+		if (!csr.isDirected() || !csr.isWeighted()) throw new IllegalArgumentException("CSRGraph must be directed and weighted");
+		for(int v = 0; v < csr.V(); v++) {
+			for(int i = csr.begin(v); i < csr.end(v); i++) {
+				if(csr.weight(i) < 0) throw new IllegalArgumentException("edge " + v + "->" + csr.target(i) + " has negative weight");
+			}
+		}
+		this.csr = csr;
+		distTo = new double[csr.V()];
+		edgeIndexTo = new int[csr.V()];
+		for(int i = 0; i < csr.V(); i++) {
+			distTo[i] = Double.POSITIVE_INFINITY;
+			edgeIndexTo[i] = -1;
+		}
+		validateVertex(s);
+		distTo[s] = 0.0;
+		pq = new DoubleIndexMinPQ(csr.V());
+		pq.insert(s, distTo[s]);
+		while(!pq.isEmpty()) {
+			int v = pq.delMin();
+			for(int i = csr.begin(v); i < csr.end(v); i++) {
+				relax(v, i);
+			}
+		}
+	}
+
 	private void relax(EdgeDirect e) {
 		int v = e.from();
 		int w = e.to();
@@ -56,6 +85,16 @@ public class SPDijkstra
 		}
 	}
 
+	private void relax(int v, int i) {
+		int w = csr.target(i);
+		if(distTo[v] + csr.weight(i) < distTo[w]) {
+			distTo[w] = distTo[v] + csr.weight(i);
+			edgeIndexTo[w] = i;
+			if(pq.contains(w)) pq.decreaseKey(w, distTo[w]);
+			else               pq.insert(w, distTo[w]);
+		}
+	}
+
 	public double distTo(int v) {
 		validateVertex(v);
 		return distTo[v];
@@ -70,6 +109,14 @@ public class SPDijkstra
 		validateVertex(v);
 		if(!hasPathTo(v)) return null;
 		Stack<EdgeDirect> path = new Stack<EdgeDirect>();
+		if(csr != null) {
+			for(int i = edgeIndexTo[v]; i != -1; ) {
+				int from = csr.source(i);
+				path.push(new EdgeDirect(from, csr.target(i), csr.weight(i)));
+				i = edgeIndexTo[from];
+			}
+			return path;
+		}
 		for(EdgeDirect e = edgeTo[v]; e != null; e = edgeTo[e.from()]) {
 			path.push(e);
 		}
@@ -0,0 +1,304 @@
+package graphs.graph.weighted.digraph;
+
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.util.Scanner;
+
+import fundamentals.Stack;
+import graphs.graph.CSRGraph;
+import sorting.DoubleIndexMinPQ;
+import util.RandomN;
+
+/**
+ * Point-to-point Shortest Path queries in a Weighted Digraph with nonnegative weights, for when only the
+ *  path from s to one target t is needed (instead of the whole shortest-paths tree of SPDijkstra).
+ *
+ * Modes:
+ *     DIJKSTRA:      Dijkstra from s that stops as soon as t is removed from the priority queue.
+ *     BIDIRECTIONAL: Dijkstra from s in the digraph and from t in the reverse digraph, taking turns with the
+ *                    smallest queue, until minimum forward + minimum backward >= best path found (mu).
+ *     ASTAR:         Dijkstra from s with priority distTo[v] + h(v, t), that stops when t is removed.
+ *                    The Heuristic must be consistent: h(v, t) <= weight(v->w) + h(w, t) and h(t, t) = 0.
+ *
+ * The digraph and its reverse are copied to CSRGraph once. Each thread keeps its own scratch arrays, that
+ *  are not cleared between queries: a stamp per vertex tells if its distTo belongs to the current query,
+ *  so a query only touches the vertices it reaches, and does not allocate O(V) arrays.
+ *
+ * Extra space: O(V + E) plus O(V) per thread that makes queries.
+ *
+ * Initialization: O(V + E)
+ * Operations:
+ *     dist, path, settled: O(E log V) in the worst case, usually much less (it depends on the mode).
+ */
+public class SPPointToPoint
+{
+	public enum Mode { DIJKSTRA, BIDIRECTIONAL, ASTAR }
+
+	/**
+	 * Lower bound of the distance from v to t.
+	 */
+	public interface Heuristic {
+		double estimate(int v, int t);
+	}
+
+	private final CSRGraph forward;
+	private final CSRGraph backward;
+	private final Heuristic heuristic;
+	private final ThreadLocal<Scratch> scratch;
+
+	// per-thread arrays for one search direction.
+	private static class Side {
+		private final double[] distTo;
+		private final int[] edgeIndexTo; // entry in the csr of the last edge, -1 for none.
+		private final int[] stamp;       // distTo[v] and edgeIndexTo[v] are valid only if stamp[v] == query
+		private final DoubleIndexMinPQ pq;
+
+		private Side(int V) {
+			distTo = new double[V];
+			edgeIndexTo = new int[V];
+			stamp = new int[V];
+			pq = new DoubleIndexMinPQ(V);
+		}
+
+		private double dist(int v, int query) {
+			return stamp[v] == query ? distTo[v] : Double.POSITIVE_INFINITY;
+		}
+	}
+
+	private static class Scratch {
+		private final Side f;
+		private final Side b;
+		private int query;     // stamp of the current query
+		private int settled;   // vertices removed from the queues by the last query
+		private int meet;      // vertex where the best path goes through (bidirectional)
+
+		private Scratch(int V) {
+			f = new Side(V);
+			b = new Side(V);
+		}
+
+		private void next() {
+			if (query == Integer.MAX_VALUE) {
+				for (int v = 0; v < f.stamp.length; v++) {
+					f.stamp[v] = 0;
+					b.stamp[v] = 0;
+				}
+				query = 0;
+			}
+			query++;
+			settled = 0;
+			meet = -1;
+			f.pq.clear();
+			b.pq.clear();
+		}
+	}
+
+	/**
+	 * Without heuristic, ASTAR is the same than DIJKSTRA.
+	 */
+	public SPPointToPoint(WeightedDigraph wDigraph) {
+		this(wDigraph, null);
+	}
+
+	public SPPointToPoint(WeightedDigraph wDigraph, Heuristic heuristic) {
+		for (EdgeDirect e : wDigraph.edges()) {
+			if (e.weight() < 0) throw new IllegalArgumentException("edge " + e + " has negative weight");
+		}
+		forward = new CSRGraph(wDigraph);
+		backward = new CSRGraph(wDigraph.reverse());
+		this.heuristic = heuristic;
+		final int V = wDigraph.V();
+		scratch = ThreadLocal.withInitial(() -> new Scratch(V));
+	}
+
+	public double dist(int s, int t) {
+		return dist(s, t, Mode.BIDIRECTIONAL);
+	}
+
+	public double dist(int s, int t, Mode mode) {
+		Scratch sc = search(s, t, mode);
+		if (mode == Mode.BIDIRECTIONAL) {
+			return sc.meet == -1 ? Double.POSITIVE_INFINITY : sc.f.distTo[sc.meet] + sc.b.distTo[sc.meet];
+		}
+		return sc.f.dist(t, sc.query);
+	}
+
+	public boolean hasPath(int s, int t) {
+		return dist(s, t, Mode.BIDIRECTIONAL) < Double.POSITIVE_INFINITY;
+	}
+
+	public Iterable<EdgeDirect> path(int s, int t) {
+		return path(s, t, Mode.BIDIRECTIONAL);
+	}
+
+	public Iterable<EdgeDirect> path(int s, int t, Mode mode) {
+		Scratch sc = search(s, t, mode);
+		int middle = mode == Mode.BIDIRECTIONAL ? sc.meet : t;
+		if (middle == -1 || sc.f.stamp[middle] != sc.query) return null;
+		Stack<EdgeDirect> path = new Stack<EdgeDirect>();
+		if (mode == Mode.BIDIRECTIONAL) {
+			// edges from middle to t, pushed in reverse order of the path
+			Stack<EdgeDirect> tail = new Stack<EdgeDirect>();
+			for (int x = middle; sc.b.edgeIndexTo[x] != -1; ) {
+				int i = sc.b.edgeIndexTo[x];
+				int next = backward.source(i);
+				tail.push(new EdgeDirect(x, next, backward.weight(i)));
+				x = next;
+			}
+			for (EdgeDirect e : tail) {
+				path.push(e);
+			}
+		}
+		for (int i = sc.f.edgeIndexTo[middle]; i != -1; ) {
+			int from = forward.source(i);
+			path.push(new EdgeDirect(from, forward.target(i), forward.weight(i)));
+			i = sc.f.edgeIndexTo[from];
+		}
+		return path;
+	}
+
+	/**
+	 * Number of vertices removed from the priority queues by the last query of this thread.
+	 */
+	public int settled() {
+		return scratch.get().settled;
+	}
+
+	private Scratch search(int s, int t, Mode mode) {
+		validateVertex(s);
+		validateVertex(t);
+		Scratch sc = scratch.get();
+		sc.next();
+		if (mode == Mode.BIDIRECTIONAL) bidirectional(sc, s, t);
+		else                            unidirectional(sc, s, t, mode == Mode.ASTAR ? heuristic : null);
+		return sc;
+	}
+
+	private void unidirectional(Scratch sc, int s, int t, Heuristic h) {
+		Side f = sc.f;
+		int query = sc.query;
+		reach(f, s, 0.0, -1, query);
+		f.pq.insert(s, h == null ? 0.0 : h.estimate(s, t));
+		while (!f.pq.isEmpty()) {
+			int v = f.pq.delMin();
+			sc.settled++;
+			if (v == t) return;
+			double d = f.distTo[v];
+			for (int i = forward.begin(v); i < forward.end(v); i++) {
+				int w = forward.target(i);
+				double dw = d + forward.weight(i);
+				if (dw < f.dist(w, query)) {
+					reach(f, w, dw, i, query);
+					double key = h == null ? dw : dw + h.estimate(w, t);
+					if (f.pq.contains(w)) f.pq.changeKey(w, key);
+					else                  f.pq.insert(w, key);
+				}
+			}
+		}
+	}
+
+	private void bidirectional(Scratch sc, int s, int t) {
+		Side f = sc.f;
+		Side b = sc.b;
+		int query = sc.query;
+		reach(f, s, 0.0, -1, query);
+		reach(b, t, 0.0, -1, query);
+		f.pq.insert(s, 0.0);
+		b.pq.insert(t, 0.0);
+		double mu = Double.POSITIVE_INFINITY;
+		if (s == t) {
+			sc.meet = s;
+			return;
+		}
+		while (!f.pq.isEmpty() && !b.pq.isEmpty()) {
+			if (f.pq.minKey() + b.pq.minKey() >= mu) break;
+			boolean isForward = f.pq.size() <= b.pq.size();
+			Side side = isForward ? f : b;
+			Side other = isForward ? b : f;
+			CSRGraph csr = isForward ? forward : backward;
+			int v = side.pq.delMin();
+			sc.settled++;
+			double d = side.distTo[v];
+			for (int i = csr.begin(v); i < csr.end(v); i++) {
+				int w = csr.target(i);
+				double dw = d + csr.weight(i);
+				if (dw < side.dist(w, query)) {
+					reach(side, w, dw, i, query);
+					if (side.pq.contains(w)) side.pq.decreaseKey(w, dw);
+					else                     side.pq.insert(w, dw);
+				}
+				double through = side.dist(w, query) + other.dist(w, query);
+				if (through < mu) {
+					mu = through;
+					sc.meet = w;
+				}
+			}
+		}
+	}
+
+	private static void reach(Side side, int v, double dist, int edgeIndex, int query) {
+		side.distTo[v] = dist;
+		side.edgeIndexTo[v] = edgeIndex;
+		side.stamp[v] = query;
+	}
+
+	private void validateVertex(int v) {
+		int V = forward.V();
+		if (v < 0 || v >= V) throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+	}
+
+	public static void main(String[] args) throws FileNotFoundException {
+		WeightedDigraph wDigraph = new WeightedDigraph(new Scanner(new FileReader("resources/graph/tinyEWD.txt")));
+		SPPointToPoint sp = new SPPointToPoint(wDigraph);
+		int s = 0;
+		int t = 6;
+		for (Mode mode : Mode.values()) {
+			System.out.printf("%s %d to %d (%.2f)  ", mode, s, t, sp.dist(s, t, mode));
+			for (EdgeDirect e : sp.path(s, t, mode)) {
+				System.out.print(e + "   ");
+			}
+			System.out.println();
+		}
+		System.out.println();
+
+		// grid of n*n points with edges to the 4 neighbours, weights at least the euclidean distance
+		final int n = 200;
+		WeightedDigraph grid = new WeightedDigraph(n * n);
+		for (int r = 0; r < n; r++) {
+			for (int c = 0; c < n; c++) {
+				int v = r * n + c;
+				if (c + 1 < n) grid.addEdge(new EdgeDirect(v, v + 1, 1.0 + 0.01 * RandomN.getRandomInt(100)));
+				if (c > 0)     grid.addEdge(new EdgeDirect(v, v - 1, 1.0 + 0.01 * RandomN.getRandomInt(100)));
+				if (r + 1 < n) grid.addEdge(new EdgeDirect(v, v + n, 1.0 + 0.01 * RandomN.getRandomInt(100)));
+				if (r > 0)     grid.addEdge(new EdgeDirect(v, v - n, 1.0 + 0.01 * RandomN.getRandomInt(100)));
+			}
+		}
+		Heuristic euclidean = (v, target) -> Math.hypot(v / n - target / n, v % n - target % n);
+		sp = new SPPointToPoint(grid, euclidean);
+		int queries = 100;
+		int[] from = new int[queries];
+		int[] to = new int[queries];
+		for (int q = 0; q < queries; q++) {
+			from[q] = RandomN.getRandomInt(n * n);
+			to[q] = RandomN.getRandomInt(n * n);
+		}
+		double[] expected = new double[queries];
+		long start = System.nanoTime();
+		for (int q = 0; q < queries; q++) {
+			expected[q] = new SPDijkstra(grid, from[q]).distTo(to[q]);
+		}
+		System.out.printf("grid V=%d E=%d, %d queries:%n", grid.V(), grid.E(), queries);
+		System.out.printf("  %-14s %6d ms%n", "SPDijkstra", (System.nanoTime() - start) / 1_000_000);
+		for (Mode mode : Mode.values()) {
+			boolean same = true;
+			long settled = 0;
+			start = System.nanoTime();
+			for (int q = 0; q < queries; q++) {
+				if (Math.abs(sp.dist(from[q], to[q], mode) - expected[q]) > 1e-9) same = false;
+				settled += sp.settled();
+			}
+			System.out.printf("  %-14s %6d ms, %8d settled per query, same dist: %b%n",
+					mode, (System.nanoTime() - start) / 1_000_000, settled / queries, same);
+		}
+	}
+}
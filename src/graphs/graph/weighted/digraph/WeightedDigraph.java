@@ -6,6 +6,7 @@ import java.util.Scanner;
 
 import fundamentals.Queue;
 import fundamentals.Stack;
+import graphs.graph.GraphReader;
 import util.RandomN;
 
 /**
@@ -77,6 +78,23 @@ public class WeightedDigraph
 		}
 	}
 
+	/**
+	 * Same than WeightedDigraph(Scanner) but with the byte-level GraphReader, that is much faster for big files.
+	 */
+	public WeightedDigraph(GraphReader in) {
+		this(in.nextInt());
+		int E = in.nextInt();
+		if (E < 0) throw new IllegalArgumentException("Number of edges must be nonnegative");
+		for (int i = 0; i < E; i++) {
+			int v = in.nextInt();
+			int w = in.nextInt();
+			validateVertex(v);
+			validateVertex(w);
+			double weight = in.nextDouble();
+			addEdge(new EdgeDirect(v, w, weight));
+		}
+	}
+
 	public int V() {
 		return V;
 	}
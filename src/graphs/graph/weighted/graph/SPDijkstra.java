@@ -5,7 +5,7 @@ import java.io.FileReader;
 import java.util.Scanner;
 
 import fundamentals.Stack;
-import sorting.IndexMinPQ;
+import sorting.DoubleIndexMinPQ;
 
 /**
  * Dijsktra algorithm for solving the single-source Shortest Paths problem in Weighted Graphs,
@@ -21,7 +21,7 @@ public class SPDijkstra
 {
 	private double[] distTo;
 	private Edge[] edgeTo;
-	private IndexMinPQ<Double> pq;
+	private DoubleIndexMinPQ pq;
 
 	public SPDijkstra(WeightedGraph wGraph, int s) {
 		for(Edge e: wGraph.edges()) {
@@ -34,7 +34,7 @@ public class SPDijkstra
 		}
 		validateVertex(s);
 		distTo[s] = 0.0;
-		pq = new IndexMinPQ<Double>(wGraph.V());
+		pq = new DoubleIndexMinPQ(wGraph.V());
 		pq.insert(s, distTo[s]);
 		while(!pq.isEmpty()) {
 			int v = pq.delMin();
@@ -49,7 +49,7 @@ public class SPDijkstra
 		if(distTo[v] + e.weight() < distTo[w]) {
 			distTo[w] = distTo[v] + e.weight();
 			edgeTo[w] = e;
-			if(pq.contains(v)) pq.decreaseKey(w, distTo[w]);
+			if(pq.contains(w)) pq.decreaseKey(w, distTo[w]);
 			else               pq.insert(w, distTo[w]);
 		}
 	}
@@ -5,6 +5,7 @@ import java.io.FileReader;
 import java.util.Scanner;
 
 import fundamentals.Stack;
+import graphs.graph.GraphReader;
 import util.RandomN;
 
 /**
@@ -73,6 +74,24 @@ public class WeightedGraph
 		}
 	}
 
+	/**
+	 * Same than WeightedGraph(Scanner) but with the byte-level GraphReader, that is much faster for big files.
+	 */
+	public WeightedGraph(GraphReader in) {
+		this(in.nextInt());
+		int E = in.nextInt();
+		if (E < 0) throw new IllegalArgumentException("Number of edges must be nonnegative");
+		for (int i = 0; i < E; i++) {
+			int v = in.nextInt();
+			int w = in.nextInt();
+			validateVertex(v);
+			validateVertex(w);
+			double weight = in.nextDouble();
+			Edge e = new Edge(v, w, weight);
+			addEdge(e);
+		}
+	}
+
 	public int V() {
 		return V;
 	}
@@ -0,0 +1,648 @@
+package searching;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import fundamentals.Queue;
+
+/**
+ * B+ tree of generic key-value pairs, an ordered symbol table with the same API as RedBlackBST.
+ *
+ * Every node has up to order children (internal nodes) or order key-value pairs (leaves), and at least half
+ *  of that except the root. All the pairs are in the leaves, in order, and the leaves are linked in both
+ *  directions, so a range is one search and then a scan of consecutive arrays. Internal nodes keep the
+ *  separator keys (a key equal to a separator goes to the right) and the number of keys below each child,
+ *  for rank and select.
+ * With a fan-out of 32 to 128 a tree of millions of keys has 3 or 4 levels and a search reads a few arrays,
+ *  instead of about 20 nodes scattered in the heap.
+ * A full node splits in two halves. A node with less than half is filled with a key of a sibling, or merged
+ *  with it when the sibling has no key to spare.
+ *
+ * Extra space: O(n)
+ * Initialization: O(1), O(n) from sorted keys.
+ * Operations:
+ *     get, put, contains, delete, min, max, floor, ceiling, select, rank: O(log n) worst case
+ *         (log of base order/2 nodes, and a binary search of O(log order) in each one).
+ *     keys(lo, hi): O(log n + number of keys in range)
+ *     size, isEmpty. O(1)
+ */
+public class BPlusTreeST<K extends Comparable<K>, V>
+{
+	private static final int DEFAULT_ORDER = 64;
+
+	private final int order;
+	private Node root;
+	private int n;
+	private int height;
+
+	private K splitKey;        // separator of the node returned by a split in put
+	private boolean changed;   // put added a key, or delete removed one
+
+	private abstract static class Node {
+		protected Object[] keys;
+		protected int count;   // number of keys of a leaf, number of children of an internal node
+	}
+
+	private static class Leaf extends Node {
+		private Object[] values;
+		private Leaf prev, next;
+		public Leaf(int order) {
+			keys = new Object[order + 1];
+			values = new Object[order + 1];
+		}
+	}
+
+	private static class Internal extends Node {
+		private Node[] children;
+		private int[] sizes;   // number of keys below each child
+		public Internal(int order) {
+			keys = new Object[order];
+			children = new Node[order + 1];
+			sizes = new int[order + 1];
+		}
+	}
+
+	public BPlusTreeST() {
+		this(DEFAULT_ORDER);
+	}
+
+	public BPlusTreeST(int order) {
+		if (order < 3) throw new IllegalArgumentException("order must be at least 3.");
+		this.order = order;
+		root = new Leaf(order);
+	}
+
+	/**
+	 * Bulk load of keys in strictly increasing order, with the values in the same order.
+	 * The keys are spread evenly in as few leaves as possible, and each level above is built the same way.
+	 */
+	@SuppressWarnings("unchecked")
+	public BPlusTreeST(K[] keys, V[] values, int order) {
+		this(order);
+		if (keys.length != values.length) throw new IllegalArgumentException("keys and values must have the same length.");
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] == null || values[i] == null) throw new IllegalArgumentException("null key or value at " + i);
+			if (i > 0 && keys[i - 1].compareTo(keys[i]) >= 0) throw new IllegalArgumentException("keys are not in strictly increasing order at " + i);
+		}
+		n = keys.length;
+		if (n == 0) return;
+		int leaves = (n + order - 1) / order;
+		Node[] level = new Node[leaves];
+		Object[] firstKeys = new Object[leaves]; // smallest key below each node of the level
+		int[] sizes = new int[leaves];
+		Leaf prev = null;
+		for (int i = 0, from = 0; i < leaves; i++) {
+			int to = (int) ((long) n * (i + 1) / leaves);
+			Leaf leaf = new Leaf(order);
+			leaf.count = to - from;
+			System.arraycopy(keys, from, leaf.keys, 0, leaf.count);
+			System.arraycopy(values, from, leaf.values, 0, leaf.count);
+			leaf.prev = prev;
+			if (prev != null) prev.next = leaf;
+			prev = leaf;
+			level[i] = leaf;
+			firstKeys[i] = keys[from];
+			sizes[i] = leaf.count;
+			from = to;
+		}
+		while (level.length > 1) {
+			int parents = (level.length + order - 1) / order;
+			Node[] up = new Node[parents];
+			Object[] upKeys = new Object[parents];
+			int[] upSizes = new int[parents];
+			for (int i = 0, from = 0; i < parents; i++) {
+				int to = (int) ((long) level.length * (i + 1) / parents);
+				Internal x = new Internal(order);
+				x.count = to - from;
+				System.arraycopy(level, from, x.children, 0, x.count);
+				System.arraycopy(sizes, from, x.sizes, 0, x.count);
+				System.arraycopy(firstKeys, from + 1, x.keys, 0, x.count - 1);
+				for (int j = from; j < to; j++) upSizes[i] += sizes[j];
+				up[i] = x;
+				upKeys[i] = firstKeys[from];
+				from = to;
+			}
+			level = up;
+			firstKeys = upKeys;
+			sizes = upSizes;
+			height++;
+		}
+		root = level[0];
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public int size() {
+		return n;
+	}
+
+	public int height() {
+		return height;
+	}
+
+	@SuppressWarnings("unchecked")
+	private int compare(K key, Object other) {
+		return key.compareTo((K) other);
+	}
+
+	/**
+	 * Index of the first key of x[0..count) greater than key (the child to follow in an internal node).
+	 */
+	private int upper(Object[] keys, int count, K key) {
+		int lo = 0, hi = count;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (compare(key, keys[mid]) < 0) hi = mid;
+			else                             lo = mid + 1;
+		}
+		return lo;
+	}
+
+	/**
+	 * Index of the first key of x[0..count) greater than or equal to key (the position of key in a leaf).
+	 */
+	private int lower(Object[] keys, int count, K key) {
+		int lo = 0, hi = count;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (compare(key, keys[mid]) <= 0) hi = mid;
+			else                              lo = mid + 1;
+		}
+		return lo;
+	}
+
+	private Leaf leaf(K key) {
+		Node x = root;
+		while (x instanceof Internal) {
+			Internal y = (Internal) x;
+			x = y.children[upper(y.keys, y.count - 1, key)];
+		}
+		return (Leaf) x;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(K key) {
+		if (key == null) throw new IllegalArgumentException("Argument to get() is null.");
+		Leaf leaf = leaf(key);
+		int i = lower(leaf.keys, leaf.count, key);
+		if (i < leaf.count && compare(key, leaf.keys[i]) == 0) return (V) leaf.values[i];
+		return null;
+	}
+
+	public boolean contains(K key) {
+		return get(key) != null;
+	}
+
+	public void put(K key, V value) {
+		if (key == null) throw new IllegalArgumentException("First argument to put() is null.");
+		if (value == null) {
+			delete(key);
+			return;
+		}
+		changed = false;
+		Node split = put(root, key, value);
+		if (changed) n++;
+		if (split != null) {
+			Internal x = new Internal(order);
+			x.count = 2;
+			x.children[0] = root;
+			x.children[1] = split;
+			x.keys[0] = splitKey;
+			x.sizes[0] = size(root);
+			x.sizes[1] = size(split);
+			root = x;
+			height++;
+		}
+	}
+	private Node put(Node x, K key, V value) {
+		if (x instanceof Leaf) {
+			Leaf leaf = (Leaf) x;
+			int i = lower(leaf.keys, leaf.count, key);
+			if (i < leaf.count && compare(key, leaf.keys[i]) == 0) {
+				leaf.values[i] = value;
+				return null;
+			}
+			System.arraycopy(leaf.keys, i, leaf.keys, i + 1, leaf.count - i);
+			System.arraycopy(leaf.values, i, leaf.values, i + 1, leaf.count - i);
+			leaf.keys[i] = key;
+			leaf.values[i] = value;
+			leaf.count++;
+			changed = true;
+			return leaf.count > order ? split(leaf) : null;
+		}
+		Internal y = (Internal) x;
+		int i = upper(y.keys, y.count - 1, key);
+		Node split = put(y.children[i], key, value);
+		if (changed) y.sizes[i]++;
+		if (split == null) return null;
+		System.arraycopy(y.children, i + 1, y.children, i + 2, y.count - i - 1);
+		System.arraycopy(y.sizes, i + 1, y.sizes, i + 2, y.count - i - 1);
+		System.arraycopy(y.keys, i, y.keys, i + 1, y.count - i - 1);
+		y.children[i + 1] = split;
+		y.keys[i] = splitKey;
+		y.sizes[i] = size(y.children[i]);
+		y.sizes[i + 1] = size(split);
+		y.count++;
+		return y.count > order ? split(y) : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Leaf split(Leaf leaf) {
+		Leaf right = new Leaf(order);
+		int half = leaf.count / 2;
+		right.count = leaf.count - half;
+		System.arraycopy(leaf.keys, half, right.keys, 0, right.count);
+		System.arraycopy(leaf.values, half, right.values, 0, right.count);
+		Arrays.fill(leaf.keys, half, leaf.count, null);
+		Arrays.fill(leaf.values, half, leaf.count, null);
+		leaf.count = half;
+		right.next = leaf.next;
+		right.prev = leaf;
+		if (leaf.next != null) leaf.next.prev = right;
+		leaf.next = right;
+		splitKey = (K) right.keys[0];
+		return right;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Internal split(Internal x) {
+		Internal right = new Internal(order);
+		int half = x.count / 2;
+		right.count = x.count - half;
+		System.arraycopy(x.children, half, right.children, 0, right.count);
+		System.arraycopy(x.sizes, half, right.sizes, 0, right.count);
+		System.arraycopy(x.keys, half, right.keys, 0, right.count - 1);
+		splitKey = (K) x.keys[half - 1];
+		Arrays.fill(x.children, half, x.count, null);
+		Arrays.fill(x.keys, half - 1, x.count - 1, null);
+		x.count = half;
+		return right;
+	}
+
+	private int size(Node x) { // O(order), only used after a split or a merge
+		if (x instanceof Leaf) return x.count;
+		Internal y = (Internal) x;
+		int size = 0;
+		for (int i = 0; i < y.count; i++) size += y.sizes[i];
+		return size;
+	}
+
+	public void delete(K key) {
+		if (key == null) throw new IllegalArgumentException("Argument to delete() is null.");
+		changed = false;
+		delete(root, key);
+		if (!changed) return;
+		n--;
+		if (root instanceof Internal && root.count == 1) {
+			root = ((Internal) root).children[0];
+			height--;
+		}
+	}
+	private void delete(Node x, K key) {
+		if (x instanceof Leaf) {
+			Leaf leaf = (Leaf) x;
+			int i = lower(leaf.keys, leaf.count, key);
+			if (i == leaf.count || compare(key, leaf.keys[i]) != 0) return;
+			System.arraycopy(leaf.keys, i + 1, leaf.keys, i, leaf.count - i - 1);
+			System.arraycopy(leaf.values, i + 1, leaf.values, i, leaf.count - i - 1);
+			leaf.count--;
+			leaf.keys[leaf.count] = null;
+			leaf.values[leaf.count] = null;
+			changed = true;
+			return;
+		}
+		Internal y = (Internal) x;
+		int i = upper(y.keys, y.count - 1, key);
+		delete(y.children[i], key);
+		if (!changed) return;
+		y.sizes[i]--;
+		if (y.children[i].count < (order + 1) / 2) fix(y, i);
+	}
+
+	/**
+	 * Child i of x has less than half of order, take a key (child) of a sibling or merge them.
+	 */
+	private void fix(Internal x, int i) {
+		int min = (order + 1) / 2;
+		if (i > 0 && x.children[i - 1].count > min)                borrowLeft(x, i);
+		else if (i + 1 < x.count && x.children[i + 1].count > min) borrowRight(x, i);
+		else if (i > 0)                                           merge(x, i - 1);
+		else                                                      merge(x, i);
+	}
+
+	private void borrowLeft(Internal x, int i) {
+		Node left = x.children[i - 1];
+		Node c = x.children[i];
+		if (c instanceof Leaf) {
+			Leaf l = (Leaf) left, r = (Leaf) c;
+			System.arraycopy(r.keys, 0, r.keys, 1, r.count);
+			System.arraycopy(r.values, 0, r.values, 1, r.count);
+			r.keys[0] = l.keys[l.count - 1];
+			r.values[0] = l.values[l.count - 1];
+			l.keys[l.count - 1] = null;
+			l.values[l.count - 1] = null;
+			l.count--;
+			r.count++;
+			x.keys[i - 1] = r.keys[0];
+			x.sizes[i - 1]--;
+			x.sizes[i]++;
+			return;
+		}
+		Internal l = (Internal) left, r = (Internal) c;
+		System.arraycopy(r.children, 0, r.children, 1, r.count);
+		System.arraycopy(r.sizes, 0, r.sizes, 1, r.count);
+		System.arraycopy(r.keys, 0, r.keys, 1, r.count - 1);
+		r.children[0] = l.children[l.count - 1];
+		r.sizes[0] = l.sizes[l.count - 1];
+		r.keys[0] = x.keys[i - 1];
+		x.keys[i - 1] = l.keys[l.count - 2];
+		l.children[l.count - 1] = null;
+		l.keys[l.count - 2] = null;
+		l.count--;
+		r.count++;
+		x.sizes[i - 1] -= r.sizes[0];
+		x.sizes[i] += r.sizes[0];
+	}
+
+	private void borrowRight(Internal x, int i) {
+		Node c = x.children[i];
+		Node right = x.children[i + 1];
+		if (c instanceof Leaf) {
+			Leaf l = (Leaf) c, r = (Leaf) right;
+			l.keys[l.count] = r.keys[0];
+			l.values[l.count] = r.values[0];
+			l.count++;
+			r.count--;
+			System.arraycopy(r.keys, 1, r.keys, 0, r.count);
+			System.arraycopy(r.values, 1, r.values, 0, r.count);
+			r.keys[r.count] = null;
+			r.values[r.count] = null;
+			x.keys[i] = r.keys[0];
+			x.sizes[i]++;
+			x.sizes[i + 1]--;
+			return;
+		}
+		Internal l = (Internal) c, r = (Internal) right;
+		l.children[l.count] = r.children[0];
+		l.sizes[l.count] = r.sizes[0];
+		l.keys[l.count - 1] = x.keys[i];
+		x.keys[i] = r.keys[0];
+		l.count++;
+		int moved = r.sizes[0];
+		r.count--;
+		System.arraycopy(r.children, 1, r.children, 0, r.count);
+		System.arraycopy(r.sizes, 1, r.sizes, 0, r.count);
+		System.arraycopy(r.keys, 1, r.keys, 0, r.count - 1);
+		r.children[r.count] = null;
+		r.keys[r.count - 1] = null;
+		x.sizes[i] += moved;
+		x.sizes[i + 1] -= moved;
+	}
+
+	/**
+	 * Merge child i + 1 of x into child i.
+	 */
+	private void merge(Internal x, int i) {
+		Node c = x.children[i];
+		Node right = x.children[i + 1];
+		if (c instanceof Leaf) {
+			Leaf l = (Leaf) c, r = (Leaf) right;
+			System.arraycopy(r.keys, 0, l.keys, l.count, r.count);
+			System.arraycopy(r.values, 0, l.values, l.count, r.count);
+			l.count += r.count;
+			l.next = r.next;
+			if (r.next != null) r.next.prev = l;
+		}
+		else {
+			Internal l = (Internal) c, r = (Internal) right;
+			l.keys[l.count - 1] = x.keys[i];
+			System.arraycopy(r.children, 0, l.children, l.count, r.count);
+			System.arraycopy(r.sizes, 0, l.sizes, l.count, r.count);
+			System.arraycopy(r.keys, 0, l.keys, l.count, r.count - 1);
+			l.count += r.count;
+		}
+		x.sizes[i] += x.sizes[i + 1];
+		System.arraycopy(x.children, i + 2, x.children, i + 1, x.count - i - 2);
+		System.arraycopy(x.sizes, i + 2, x.sizes, i + 1, x.count - i - 2);
+		System.arraycopy(x.keys, i + 1, x.keys, i, x.count - i - 2);
+		x.count--;
+		x.children[x.count] = null;
+		x.keys[x.count - 1] = null;
+	}
+
+	private Leaf firstLeaf() {
+		Node x = root;
+		while (x instanceof Internal) x = ((Internal) x).children[0];
+		return (Leaf) x;
+	}
+
+	@SuppressWarnings("unchecked")
+	public K min() {
+		if (isEmpty()) throw new NoSuchElementException("Calls min() with empty BPlusTreeST.");
+		return (K) firstLeaf().keys[0];
+	}
+
+	@SuppressWarnings("unchecked")
+	public K max() {
+		if (isEmpty()) throw new NoSuchElementException("Calls max() with empty BPlusTreeST.");
+		Node x = root;
+		while (x instanceof Internal) x = ((Internal) x).children[x.count - 1];
+		return (K) x.keys[x.count - 1];
+	}
+
+	public void deleteMin() {
+		if (isEmpty()) throw new NoSuchElementException("BPlusTreeST underflow.");
+		delete(min());
+	}
+
+	public void deleteMax() {
+		if (isEmpty()) throw new NoSuchElementException("BPlusTreeST underflow.");
+		delete(max());
+	}
+
+	@SuppressWarnings("unchecked")
+	public K floor(K key) {
+		if (key == null) throw new IllegalArgumentException("Argument to floor() is null.");
+		if (isEmpty()) throw new NoSuchElementException("Calls floor() with empty BPlusTreeST.");
+		Leaf leaf = leaf(key);
+		int i = upper(leaf.keys, leaf.count, key) - 1;
+		if (i >= 0) return (K) leaf.keys[i];
+		if (leaf.prev == null) return null;
+		return (K) leaf.prev.keys[leaf.prev.count - 1];
+	}
+
+	@SuppressWarnings("unchecked")
+	public K ceiling(K key) {
+		if (key == null) throw new IllegalArgumentException("Argument to ceiling() is null.");
+		if (isEmpty()) throw new NoSuchElementException("Calls ceiling() with empty BPlusTreeST.");
+		Leaf leaf = leaf(key);
+		int i = lower(leaf.keys, leaf.count, key);
+		if (i < leaf.count) return (K) leaf.keys[i];
+		if (leaf.next == null) return null;
+		return (K) leaf.next.keys[0];
+	}
+
+	public int rank(K key) {
+		if (key == null) throw new IllegalArgumentException("Argument to rank() is null.");
+		int rank = 0;
+		Node x = root;
+		while (x instanceof Internal) {
+			Internal y = (Internal) x;
+			int i = upper(y.keys, y.count - 1, key);
+			for (int j = 0; j < i; j++) rank += y.sizes[j];
+			x = y.children[i];
+		}
+		return rank + lower(x.keys, x.count, key);
+	}
+
+	@SuppressWarnings("unchecked")
+	public K select(int r) {
+		if (r < 0 || r >= size()) throw new IllegalArgumentException("Argument to select() is invalid: " + r);
+		Node x = root;
+		while (x instanceof Internal) {
+			Internal y = (Internal) x;
+			int i = 0;
+			while (r >= y.sizes[i]) r -= y.sizes[i++];
+			x = y.children[i];
+		}
+		return (K) x.keys[r];
+	}
+
+	public int countRange(K lo, K hi) {
+		if (lo == null) throw new IllegalArgumentException("First argument to keys() is null.");
+		if (hi == null) throw new IllegalArgumentException("Second argument to keys() is null.");
+		if (lo.compareTo(hi) > 0) return 0;
+		if (contains(hi)) return rank(hi) - rank(lo) + 1;
+		else              return rank(hi) - rank(lo);
+	}
+
+	public Iterable<K> keys() {
+		if (isEmpty()) return new Queue<K>();
+		return keys(min(), max());
+	}
+
+	@SuppressWarnings("unchecked")
+	public Iterable<K> keys(K lo, K hi) {
+		if (lo == null) throw new IllegalArgumentException("First argument to keys() is null.");
+		if (hi == null) throw new IllegalArgumentException("Second argument to keys() is null.");
+		Queue<K> queue = new Queue<K>();
+		Leaf leaf = leaf(lo);
+		for (int i = lower(leaf.keys, leaf.count, lo); leaf != null; leaf = leaf.next, i = 0) {
+			for (; i < leaf.count; i++) {
+				if (compare(hi, leaf.keys[i]) < 0) return queue;
+				queue.enqueue((K) leaf.keys[i]);
+			}
+		}
+		return queue;
+	}
+
+	private boolean check() { // same depth of all leaves, node sizes, sizes of subtrees and order of keys
+		return check(root, 0, null, null) == n;
+	}
+	@SuppressWarnings("unchecked")
+	private int check(Node x, int depth, K lo, K hi) {
+		if (x != root && x.count < (order + 1) / 2) return -1;
+		if (x instanceof Leaf) {
+			if (depth != height) return -1;
+			for (int i = 0; i < x.count; i++) {
+				K key = (K) x.keys[i];
+				if (i > 0 && compare(key, x.keys[i - 1]) <= 0) return -1;
+				if ((lo != null && key.compareTo(lo) < 0) || (hi != null && key.compareTo(hi) >= 0)) return -1;
+			}
+			return x.count;
+		}
+		Internal y = (Internal) x;
+		int size = 0;
+		for (int i = 0; i < y.count; i++) {
+			K childLo = i == 0 ? lo : (K) y.keys[i - 1];
+			K childHi = i == y.count - 1 ? hi : (K) y.keys[i];
+			int childSize = check(y.children[i], depth + 1, childLo, childHi);
+			if (childSize != y.sizes[i]) return -1;
+			size += childSize;
+		}
+		return size;
+	}
+
+	// TESTS ========================================================
+	public static void main(String[] args) {
+		BPlusTreeST<Integer, Integer> st = new BPlusTreeST<Integer, Integer>(4);
+		new OrderedSTCheck() {
+			Number get(long key)                              { return st.get((int) key); }
+			void put(long key, long value)                    { st.put((int) key, (int) value); }
+			void delete(long key)                             { st.delete((int) key); }
+			void deleteMin()                                  { st.deleteMin(); }
+			void deleteMax()                                  { st.deleteMax(); }
+			int size()                                        { return st.size(); }
+			int height()                                      { return st.height(); }
+			Number min()                                      { return st.min(); }
+			Number max()                                      { return st.max(); }
+			Number floor(long key)                            { return st.floor((int) key); }
+			Number ceiling(long key)                          { return st.ceiling((int) key); }
+			int rank(long key)                                { return st.rank((int) key); }
+			Number select(int r)                              { return st.select(r); }
+			int countRange(long lo, long hi)                  { return st.countRange((int) lo, (int) hi); }
+			Iterable<? extends Number> keys(long lo, long hi) { return st.keys((int) lo, (int) hi); }
+			void step(int i, TreeMap<Long, Long> map) {
+				if (i % 10000 == 0 && !st.check()) throw new IllegalStateException("invalid tree");
+			}
+		}.run(300000, 5000);
+		if (!st.check()) throw new IllegalStateException("invalid tree");
+
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int N = 2000000;
+		Integer[] keys = new Integer[N];
+		for (int i = 0; i < N; i++) keys[i] = random.nextInt();
+		Integer[] sorted = keys.clone();
+		Arrays.sort(sorted);
+		int distinct = 0;
+		for (int i = 0; i < N; i++) {
+			if (i == 0 || !sorted[i].equals(sorted[distinct - 1])) sorted[distinct++] = sorted[i];
+		}
+		sorted = Arrays.copyOf(sorted, distinct);
+		System.out.println("Test : " + N + " random keys, times in ms");
+		for (int round = 0; round < 2; round++) {
+			long time = System.nanoTime();
+			RedBlackBST<Integer, Integer> rb = new RedBlackBST<Integer, Integer>();
+			for (int i = 0; i < N; i++) rb.put(keys[i], i);
+			long rbPut = System.nanoTime() - time;
+			time = System.nanoTime();
+			BPlusTreeST<Integer, Integer> bt = new BPlusTreeST<Integer, Integer>();
+			for (int i = 0; i < N; i++) bt.put(keys[i], i);
+			long btPut = System.nanoTime() - time;
+			time = System.nanoTime();
+			BPlusTreeST<Integer, Integer> bulk = new BPlusTreeST<Integer, Integer>(sorted, sorted, DEFAULT_ORDER);
+			long btBulk = System.nanoTime() - time;
+			if (bulk.size() != bt.size() || !bulk.check()) throw new IllegalStateException("bulk load");
+
+			long sum = 0;
+			time = System.nanoTime();
+			for (int i = 0; i < N; i++) sum += rb.get(keys[i]);
+			long rbGet = System.nanoTime() - time;
+			time = System.nanoTime();
+			for (int i = 0; i < N; i++) sum -= bt.get(keys[i]);
+			long btGet = System.nanoTime() - time;
+
+			int ranges = 2000;
+			time = System.nanoTime();
+			for (int i = 0; i < ranges; i++) {
+				int lo = sorted[i * (distinct / ranges)];
+				for (int key : rb.keys(lo, sorted[i * (distinct / ranges) + 999])) sum += key;
+			}
+			long rbRange = System.nanoTime() - time;
+			time = System.nanoTime();
+			for (int i = 0; i < ranges; i++) {
+				int lo = sorted[i * (distinct / ranges)];
+				for (int key : bt.keys(lo, sorted[i * (distinct / ranges) + 999])) sum -= key;
+			}
+			long btRange = System.nanoTime() - time;
+			if (sum != 0) throw new IllegalStateException("different results");
+			System.out.printf("put: RedBlackBST %5d, BPlusTreeST %5d (bulk load %4d) | get: RedBlackBST %5d, BPlusTreeST %5d | "
+					+ "%d ranges of 1000 keys: RedBlackBST %4d, BPlusTreeST %4d%n",
+					rbPut / 1000000, btPut / 1000000, btBulk / 1000000, rbGet / 1000000, btGet / 1000000, ranges, rbRange / 1000000, btRange / 1000000);
+		}
+	}
+}
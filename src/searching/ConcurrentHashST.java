@@ -0,0 +1,226 @@
+package searching;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import fundamentals.Queue;
+
+/**
+ * HashST for generic key-value pairs that can be used by many threads at the same time (lock striping).
+ *
+ * The keys are split among a fixed number of stripes by their hash, each stripe is a HashST with its own
+ *  read-write lock: any number of threads can get from a stripe at once, and threads that update different
+ *  stripes do not wait for each other. The stripe uses the high bits of the hash, the HashST of the stripe
+ *  uses the low ones.
+ *
+ * keys() is weakly consistent: it locks one stripe at a time, so it returns every key that was in the table
+ *  during the whole call, and maybe some of the keys put or deleted while it ran. size() is the sum of the
+ *  sizes of the stripes in the same way.
+ *
+ * Extra space: O(n + stripes)
+ * Initialization: O(stripes)
+ * Operations:
+ *     get, contains, put, delete: O(1) subject to uniform hashing assumption.
+ *     size, isEmpty: O(stripes)
+ */
+public class ConcurrentHashST<K, V>
+{
+	private static final int DEFAULT_STRIPES = 64;
+
+	private final Stripe<K, V>[] stripes;
+	private final int shift;
+
+	private static class Stripe<K, V> {
+		private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+		private final HashST<K, V> st = new HashST<K, V>();
+	}
+
+	public ConcurrentHashST() {
+		this(DEFAULT_STRIPES);
+	}
+
+	@SuppressWarnings("unchecked")
+	public ConcurrentHashST(int stripes) {
+		if (stripes < 1 || stripes > (1 << 16)) throw new IllegalArgumentException("stripes must be between 1 and 65536.");
+		int size = Integer.highestOneBit(stripes);
+		if (size < stripes) size *= 2;
+		this.stripes = (Stripe<K, V>[]) new Stripe<?, ?>[size];
+		for (int i = 0; i < size; i++) {
+			this.stripes[i] = new Stripe<K, V>();
+		}
+		shift = 32 - Integer.numberOfTrailingZeros(size);
+	}
+
+	private Stripe<K, V> stripe(Object key) {
+		if (shift == 32) return stripes[0];
+		int h = key.hashCode() * 0x9e3779b9; // fibonacci hashing, the top bits depend on all the bits of the hash
+		return stripes[h >>> shift];
+	}
+
+	public int size() {
+		int n = 0;
+		for (Stripe<K, V> stripe : stripes) {
+			stripe.lock.readLock().lock();
+			try {
+				n += stripe.st.size();
+			}
+			finally {
+				stripe.lock.readLock().unlock();
+			}
+		}
+		return n;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public boolean contains(K key) {
+		if (key == null) throw new IllegalArgumentException("Argument to contains() is null.");
+		return get(key) != null;
+	}
+
+	public V get(K key) {
+		if (key == null) throw new IllegalArgumentException("Argument to get() is null.");
+		Stripe<K, V> stripe = stripe(key);
+		stripe.lock.readLock().lock();
+		try {
+			return stripe.st.get(key);
+		}
+		finally {
+			stripe.lock.readLock().unlock();
+		}
+	}
+
+	public void put(K key, V value) {
+		if (key == null) throw new IllegalArgumentException("first Argument to put() is null.");
+		Stripe<K, V> stripe = stripe(key);
+		stripe.lock.writeLock().lock();
+		try {
+			stripe.st.put(key, value);
+		}
+		finally {
+			stripe.lock.writeLock().unlock();
+		}
+	}
+
+	public void delete(K key) {
+		if (key == null) throw new IllegalArgumentException("Argument to delete() is null.");
+		Stripe<K, V> stripe = stripe(key);
+		stripe.lock.writeLock().lock();
+		try {
+			stripe.st.delete(key);
+		}
+		finally {
+			stripe.lock.writeLock().unlock();
+		}
+	}
+
+	public Iterable<K> keys() {
+		Queue<K> queue = new Queue<K>();
+		for (Stripe<K, V> stripe : stripes) {
+			stripe.lock.readLock().lock();
+			try {
+				for (K key : stripe.st.keys()) {
+					queue.enqueue(key);
+				}
+			}
+			finally {
+				stripe.lock.readLock().unlock();
+			}
+		}
+		return queue;
+	}
+
+	// TESTS ========================================================
+	private static class SynchronizedHashST<K, V> { // the baseline, one lock for the whole table
+		private final HashST<K, V> st = new HashST<K, V>();
+		public synchronized V get(K key) { return st.get(key); }
+		public synchronized void put(K key, V value) { st.put(key, value); }
+	}
+
+	private static final int KEYS = 1 << 18;
+	private static final int OPS = 1000000; // per thread
+
+	private static long run(int threads, int writePercent, boolean concurrent) throws InterruptedException {
+		ConcurrentHashST<Integer, Integer> cst = new ConcurrentHashST<Integer, Integer>();
+		SynchronizedHashST<Integer, Integer> sst = new SynchronizedHashST<Integer, Integer>();
+		for (int key = 0; key < KEYS; key += 2) {
+			if (concurrent) cst.put(key, key);
+			else            sst.put(key, key);
+		}
+		CountDownLatch ready = new CountDownLatch(threads);
+		CountDownLatch go = new CountDownLatch(1);
+		AtomicLong found = new AtomicLong();
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			workers[t] = new Thread(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				long hits = 0;
+				ready.countDown();
+				try {
+					go.await();
+				}
+				catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < OPS; i++) {
+					int key = random.nextInt(KEYS);
+					if (random.nextInt(100) < writePercent) {
+						if (concurrent) cst.put(key, i);
+						else            sst.put(key, i);
+					}
+					else if ((concurrent ? cst.get(key) : sst.get(key)) != null) {
+						hits++;
+					}
+				}
+				found.addAndGet(hits);
+			});
+			workers[t].start();
+		}
+		ready.await();
+		long time = System.nanoTime();
+		go.countDown();
+		for (Thread worker : workers) worker.join();
+		time = System.nanoTime() - time;
+		return (long) threads * OPS * 1000000L / time; // operations per ms
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		System.out.println("Test : 4 threads put and delete disjoint keys, the others stay");
+		ConcurrentHashST<Integer, Integer> st = new ConcurrentHashST<Integer, Integer>();
+		for (int key = 0; key < 1000; key++) st.put(-key - 1, key);
+		Thread[] writers = new Thread[4];
+		for (int t = 0; t < writers.length; t++) {
+			int first = t;
+			writers[t] = new Thread(() -> {
+				for (int key = first; key < 400000; key += 4) st.put(key, key);
+				for (int key = first; key < 400000; key += 8) st.delete(key);
+			});
+			writers[t].start();
+		}
+		int n = 0;
+		for (int key : st.keys()) n++; // weakly consistent, at least the 1000 keys that stay
+		for (Thread writer : writers) writer.join();
+		if (n < 1000) throw new IllegalStateException("keys() missed keys");
+		for (int key = 0; key < 400000; key++) {
+			Integer value = st.get(key);
+			if ((key % 8 < 4) != (value == null) || (value != null && value != key)) throw new IllegalStateException("get " + key);
+		}
+		System.out.println("ok, size " + st.size() + ", keys() during the updates returned " + n);
+
+		System.out.println("Test : throughput in operations/ms, " + KEYS + " keys, half of them present");
+		int cores = Runtime.getRuntime().availableProcessors();
+		System.out.println("cores: " + cores);
+		for (int writePercent : new int[] { 10, 50 }) {
+			for (int threads = 1; threads <= Math.max(4, cores); threads *= 2) {
+				run(threads, writePercent, false); // warm up
+				run(threads, writePercent, true);
+				System.out.printf("%2d%% puts, %2d threads: synchronized HashST %6d, ConcurrentHashST %6d%n",
+						writePercent, threads, run(threads, writePercent, false), run(threads, writePercent, true));
+			}
+		}
+	}
+}
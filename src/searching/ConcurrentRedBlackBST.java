@@ -0,0 +1,236 @@
+package searching;
+
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Red Black BST (balanced) of generic key-value pairs that can be used by many threads at the same time.
+ *
+ * Copy on write over a PersistentRedBlackBST: the current version of the tree is in a volatile field, an
+ *  update builds the next version (copying only the nodes on the path to the key) and publishes it with a
+ *  single volatile write. So reads take no lock and never wait, each call works on the version that was the
+ *  last one published when it started (countRange or keys(lo, hi) see a consistent tree too), and readers
+ *  scale with the cores. snapshot() returns that version in O(1), a view of the tree that never changes.
+ * Updates are serialized by a lock, so no update is lost.
+ *
+ * Extra space: O(log n) new nodes per update, the old ones are garbage when no reader uses them.
+ * Initialization: O(1)
+ * Operations:
+ *     get, contains, min, max, floor, ceiling, select, rank: O(log n) worst case, no lock.
+ *     put, delete, deleteMin, deleteMax: O(log n) worst case, one writer at a time.
+ *     size, isEmpty, snapshot. O(1)
+ */
+public class ConcurrentRedBlackBST<K extends Comparable<K>, V>
+{
+	private volatile PersistentRedBlackBST<K, V> tree = new PersistentRedBlackBST<K, V>();
+	private final ReentrantLock writeLock = new ReentrantLock();
+
+	public PersistentRedBlackBST<K, V> snapshot() {
+		return tree;
+	}
+
+	public boolean isEmpty() {
+		return tree.isEmpty();
+	}
+
+	public int size() {
+		return tree.size();
+	}
+
+	public V get(K key) {
+		return tree.get(key);
+	}
+
+	public boolean contains(K key) {
+		return tree.contains(key);
+	}
+
+	public void put(K key, V value) {
+		if (key == null) throw new IllegalArgumentException("First argument to put() is null.");
+		writeLock.lock();
+		try {
+			tree = tree.put(key, value);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+
+	public void deleteMin() {
+		writeLock.lock();
+		try {
+			tree = tree.deleteMin();
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+
+	public void deleteMax() {
+		writeLock.lock();
+		try {
+			tree = tree.deleteMax();
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+
+	public void delete(K key) {
+		if (key == null) throw new IllegalArgumentException("Argument to delete() is null.");
+		writeLock.lock();
+		try {
+			tree = tree.delete(key);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+
+	public int height() {
+		return tree.height();
+	}
+
+	public K min() {
+		return tree.min();
+	}
+
+	public K max() {
+		return tree.max();
+	}
+
+	public K floor(K key) {
+		return tree.floor(key);
+	}
+
+	public K ceiling(K key) {
+		return tree.ceiling(key);
+	}
+
+	public K select(int rank) {
+		return tree.select(rank);
+	}
+
+	public int rank(K key) {
+		return tree.rank(key);
+	}
+
+	public int countRange(K lo, K hi) {
+		return tree.countRange(lo, hi);
+	}
+
+	public Iterable<K> keys() {
+		return tree.keys();
+	}
+
+	public Iterable<K> keys(K lo, K hi) {
+		return tree.keys(lo, hi);
+	}
+
+	// TESTS ========================================================
+	private static final int KEYS = 1 << 20;
+
+	private static long readers(int threads, int millis, boolean concurrent) throws InterruptedException {
+		ConcurrentRedBlackBST<Integer, Integer> cst = new ConcurrentRedBlackBST<Integer, Integer>();
+		RedBlackBST<Integer, Integer> st = new RedBlackBST<Integer, Integer>();
+		for (int key = 0; key < KEYS; key += 2) {
+			if (concurrent) cst.put(key, key);
+			else            st.put(key, key);
+		}
+		AtomicBoolean stop = new AtomicBoolean();
+		AtomicLong reads = new AtomicLong();
+		Thread[] workers = new Thread[threads + 1];
+		workers[0] = new Thread(() -> { // one writer
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			while (!stop.get()) {
+				int key = random.nextInt(KEYS);
+				if (concurrent) cst.put(key, key);
+				else synchronized (st) { st.put(key, key); }
+			}
+		});
+		for (int t = 1; t <= threads; t++) {
+			workers[t] = new Thread(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				long count = 0;
+				while (!stop.get()) {
+					int key = random.nextInt(KEYS);
+					if (concurrent) {
+						cst.get(key);
+						cst.floor(key);
+						cst.rank(key);
+					}
+					else synchronized (st) {
+						st.get(key);
+						st.floor(key);
+						st.rank(key);
+					}
+					count++;
+				}
+				reads.addAndGet(count);
+			});
+		}
+		for (Thread worker : workers) worker.start();
+		Thread.sleep(millis);
+		stop.set(true);
+		for (Thread worker : workers) worker.join();
+		return reads.get() / millis;
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		ConcurrentRedBlackBST<Integer, Integer> st = new ConcurrentRedBlackBST<Integer, Integer>();
+		new OrderedSTCheck() {
+			Number get(long key)                              { return st.get((int) key); }
+			void put(long key, long value)                    { st.put((int) key, (int) value); }
+			void delete(long key)                             { st.delete((int) key); }
+			void deleteMin()                                  { st.deleteMin(); }
+			void deleteMax()                                  { st.deleteMax(); }
+			int size()                                        { return st.size(); }
+			int height()                                      { return st.height(); }
+			Number min()                                      { return st.min(); }
+			Number max()                                      { return st.max(); }
+			Number floor(long key)                            { return st.floor((int) key); }
+			Number ceiling(long key)                          { return st.ceiling((int) key); }
+			int rank(long key)                                { return st.rank((int) key); }
+			Number select(int r)                              { return st.select(r); }
+			int countRange(long lo, long hi)                  { return st.countRange((int) lo, (int) hi); }
+			Iterable<? extends Number> keys(long lo, long hi) { return st.keys((int) lo, (int) hi); }
+			void step(int i, TreeMap<Long, Long> map) {
+				if (i % 20000 == 0 && !st.snapshot().check()) throw new IllegalStateException("not balanced");
+			}
+		}.run(200000, 10000);
+
+		System.out.println("Test : a tree read while updated keeps its keys");
+		ConcurrentRedBlackBST<Integer, Integer> shared = new ConcurrentRedBlackBST<Integer, Integer>();
+		for (int key = 0; key < 100000; key += 2) shared.put(key, key);
+		Thread writer = new Thread(() -> {
+			for (int key = 1; key < 100000; key += 2) shared.put(key, key);
+			for (int key = 1; key < 100000; key += 2) shared.delete(key);
+		});
+		writer.start();
+		long ranges = 0;
+		while (writer.isAlive()) {
+			int n = shared.countRange(0, 99999);
+			if (n < 50000 || n > 100000) throw new IllegalStateException("countRange " + n);
+			for (int key = 0; key < 100000; key += 1000) {
+				if (shared.get(key) == null) throw new IllegalStateException("lost key " + key);
+			}
+			ranges++;
+		}
+		writer.join();
+		if (shared.size() != 50000 || !shared.snapshot().check()) throw new IllegalStateException("final tree");
+		System.out.println("ok, " + ranges + " reads during the updates");
+
+		System.out.println("Test : reads/ms (get + floor + rank) with one writer, " + KEYS + " keys, half of them present");
+		int cores = Runtime.getRuntime().availableProcessors();
+		System.out.println("cores: " + cores);
+		for (int threads = 1; threads <= Math.max(4, cores); threads *= 2) {
+			readers(threads, 500, false); // warm up
+			readers(threads, 500, true);
+			System.out.printf("%2d readers: synchronized RedBlackBST %6d, ConcurrentRedBlackBST %6d%n",
+					threads, readers(threads, 1000, false), readers(threads, 1000, true));
+		}
+	}
+}
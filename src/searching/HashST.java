@@ -1,11 +1,22 @@
 package searching;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Random;
 import java.util.Scanner;
 
 import fundamentals.Queue;
 
 /**
  * HashST Separate Chaining for generic key-value pairs.
+ *
+ * The table grows when the chains have 10 keys on average and shrinks when they have 1, so a sequence of
+ *  puts and deletes near a limit does not resize again and again.
+ * With incremental resizing the chains are not copied at once: the old table stays live next to the new one
+ *  and every put or delete moves a few chains of it, so no single operation pays for the whole rehash.
+ *  Searches look at the old chain of the key while it has not been moved.
  * 
  * Initialization: O(1)
  * Operations:
@@ -15,23 +26,38 @@ import fundamentals.Queue;
 public class HashST<K, V> 
 {
 	private static final int INIT_CAPACITY = 4;
+	private static final int MIGRATE = 2; // chains moved from the old table in each put or delete
 
 	private int n;
 	private int m;
 	private LinkedListST<K, V>[] st;
+	private final boolean incremental;
+	private LinkedListST<K, V>[] old; // table being moved to st, or null
+	private int oldM;
+	private int migrated;             // chains of old already moved
 
 	public HashST() {
 		this(INIT_CAPACITY);
 	} 
 
-	@SuppressWarnings("unchecked")
 	public HashST(int m) {
+		this(m, false);
+	} 
+
+	public HashST(int m, boolean incremental) {
 		this.m = m;
-		st = (LinkedListST<K, V>[]) new LinkedListST[m];
-		for (int i = 0; i < m; i++) {			
+		this.incremental = incremental;
+		st = chains(m);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V> LinkedListST<K, V>[] chains(int m) {
+		LinkedListST<K, V>[] st = (LinkedListST<K, V>[]) new LinkedListST<?, ?>[m];
+		for (int i = 0; i < m; i++) {
 			st[i] = new LinkedListST<K, V>();
 		}
-	} 
+		return st;
+	}
 	
 	public int size() {
 		return n;
@@ -42,6 +68,15 @@ public class HashST<K, V>
 	}
 
 	private void resize(int chains) {
+		if (incremental) {
+			if (old != null) migrate(oldM); // only if the table grew or shrank faster than it was moved
+			old = st;
+			oldM = m;
+			migrated = 0;
+			st = chains(chains);
+			m = chains;
+			return;
+		}
 		HashST<K, V> tmp = new HashST<K, V>(chains);
 		for (int i = 0; i < m; i++) {
 			for (K key : st[i].keys()) {
@@ -53,7 +88,27 @@ public class HashST<K, V>
 		this.st = tmp.st;
 	}
 
+	private void migrate(int chains) {
+		for (int count = 0; count < chains && migrated < oldM; count++, migrated++) {
+			for (K key : old[migrated].keys()) {
+				st[hash(key)].put(key, old[migrated].get(key));
+			}
+			old[migrated] = null;
+		}
+		if (migrated == oldM) old = null;
+	}
+
+	private LinkedListST<K, V> oldChain(K key) { // chain of key in the old table if not moved yet, or null
+		if (old == null) return null;
+		int i = hash(key, oldM);
+		return i < migrated ? null : old[i];
+	}
+
 	private int hash(K key) {
+		return hash(key, m);
+	} 
+
+	private static int hash(Object key, int m) {
 		return (key.hashCode() & 0x7fffffff) % m; // hash value between 0 and m-1
 	} 
 
@@ -64,6 +119,8 @@ public class HashST<K, V>
 
 	public V get(K key) {
 		if (key == null) throw new IllegalArgumentException("Argument to get() is null.");
+		LinkedListST<K, V> chain = oldChain(key);
+		if (chain != null && chain.contains(key)) return chain.get(key);
 		int i = hash(key);
 		return st[i].get(key);
 	} 
@@ -74,7 +131,13 @@ public class HashST<K, V>
 			delete(key);
 			return;
 		}
+		if (old != null) migrate(MIGRATE);
 		if (n >= 10*m) resize(2*m);
+		LinkedListST<K, V> chain = oldChain(key);
+		if (chain != null && chain.contains(key)) {
+			chain.put(key, value);
+			return;
+		}
 		int i = hash(key);
 		if (!st[i].contains(key)) n++;
 		st[i].put(key, value);
@@ -82,14 +145,27 @@ public class HashST<K, V>
 
 	public void delete(K key) {
 		if (key == null) throw new IllegalArgumentException("Argument to delete() is null.");
-		int i = hash(key);
-		if (st[i].contains(key)) n--;
-		st[i].delete(key);
-		if (m > INIT_CAPACITY && n <= 2*m) resize(m/2);
+		if (old != null) migrate(MIGRATE);
+		LinkedListST<K, V> chain = oldChain(key);
+		if (chain != null && chain.contains(key)) {
+			n--;
+			chain.delete(key);
+		}
+		else {
+			int i = hash(key);
+			if (st[i].contains(key)) n--;
+			st[i].delete(key);
+		}
+		if (m > INIT_CAPACITY && n <= m) resize(m/2);
 	} 
 
 	public Iterable<K> keys() {
 		Queue<K> queue = new Queue<K>();
+		for (int i = migrated; old != null && i < oldM; i++) {
+			for (K key : old[i].keys()) {
+				queue.enqueue(key);
+			}
+		}
 		for (int i = 0; i < m; i++) {
 			for (K key : st[i].keys()) {				
 				queue.enqueue(key);
@@ -99,6 +175,14 @@ public class HashST<K, V>
 	} 
 
 	// TESTS ========================================================
+	private static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += gc.getCollectionCount();
+		}
+		return count;
+	}
+
 	public static void main(String[] args) { 
 		System.out.println("Test : S E A R C H E X A M P L E");
 		HashST<String, Integer> st = new HashST<String, Integer>();
@@ -110,5 +194,50 @@ public class HashST<K, V>
 		for (String s : st.keys())
 			System.out.println(s + " " + st.get(s));
 		sc.close();
+
+		System.out.println("Test : incremental resizing, random puts, gets and deletes against java.util.HashMap");
+		HashST<Integer, Integer> ist = new HashST<Integer, Integer>(INIT_CAPACITY, true);
+		HashMap<Integer, Integer> map = new HashMap<Integer, Integer>();
+		Random random = new Random(1);
+		for (int i = 0; i < 1000000; i++) {
+			int key = random.nextInt(100000);
+			int op = i < 500000 ? random.nextInt(3) : random.nextInt(3) == 2 ? 0 : random.nextInt(2); // the second half, gets and deletes, shrinks the table
+			if (op == 0) {
+				ist.delete(key);
+				map.remove(key);
+			}
+			else if (op == 1) {
+				if (!Objects.equals(ist.get(key), map.get(key))) throw new IllegalStateException("get " + key);
+			}
+			else {
+				ist.put(key, i);
+				map.put(key, i);
+			}
+			if (ist.size() != map.size()) throw new IllegalStateException("size " + ist.size() + " " + map.size());
+		}
+		int count = 0;
+		for (int key : ist.keys()) {
+			if (!ist.get(key).equals(map.get(key))) throw new IllegalStateException("keys " + key);
+			count++;
+		}
+		System.out.println("ok, " + count + " keys");
+
+		int N = 2000000;
+		System.out.println("Test : put of " + N + " keys (slowest single put without a gc)");
+		for (int round = 0; round < 2; round++) {
+			for (boolean incremental : new boolean[] { false, true }) {
+				System.gc();
+				HashST<Integer, Integer> hst = new HashST<Integer, Integer>(INIT_CAPACITY, incremental);
+				long maxPut = 0;
+				for (int i = 0; i < N; i++) {
+					long gcs = gcCount();
+					long t = System.nanoTime();
+					hst.put(i, i);
+					t = System.nanoTime() - t;
+					if (gcCount() == gcs) maxPut = Math.max(maxPut, t); // the pauses of the garbage collector are not counted
+				}
+				System.out.printf("%-12s %7.2f ms%n", incremental ? "incremental" : "at once", maxPut / 1e6);
+			}
+		}
 	}
 }
@@ -0,0 +1,253 @@
+package searching;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import fundamentals.Queue;
+
+/**
+ * HashST Open Addressing for int keys and int values, without boxing.
+ *
+ * Robin Hood linear probing: a key being inserted takes the slot of any key that is closer to its own home
+ *  slot, so all probe sequences stay short and a search for a missing key stops as soon as it reaches a key
+ *  closer to its home than the probe so far. Delete shifts back the following keys of the cluster
+ *  (no tombstones).
+ *
+ * Incremental resizing: when the table is 3/4 full a table twice as big is created and every put or delete
+ *  migrates a few slots of the old table to it (whole clusters, so the keys that remain in the old table can
+ *  still be found), so no single put pays for a full rehash. While migrating both tables are searched.
+ *  The table never shrinks.
+ *
+ * Extra space: O(n), 9 bytes per slot.
+ * Initialization: O(1)
+ * Operations:
+ *     get, contains, put, delete: O(1) subject to uniform hashing assumption.
+ *     size, isEmpty. O(1)
+ */
+public class IntIntHashST
+{
+	private static final int INIT_CAPACITY = 16;
+	private static final int MIGRATE = 8;   // minimum number of slots of the old table migrated in each update
+
+	private int n;           // number of key-value pairs in both tables
+	private Table table;     // table where new keys are inserted
+	private Table old;       // table being migrated to table, or null
+	private int start;       // empty slot of the old table where the migration starts
+	private int migrated;    // number of slots of the old table migrated, counting from start
+
+	private static class Table {
+		private final int[] keys;
+		private final int[] vals;
+		private final boolean[] used;
+		private final int mask;
+
+		public Table(int capacity) {
+			keys = new int[capacity];
+			vals = new int[capacity];
+			used = new boolean[capacity];
+			mask = capacity - 1;
+		}
+
+		private int distance(int i) { // from the home slot of the key in slot i
+			return (i - hash(keys[i])) & mask;
+		}
+
+		public int find(int key) {
+			int i = hash(key) & mask;
+			for (int d = 0; used[i]; d++, i = (i + 1) & mask) {
+				if (keys[i] == key) return i;
+				if (distance(i) < d) return -1;
+			}
+			return -1;
+		}
+
+		public void insert(int key, int val) { // key must not be in the table
+			int i = hash(key) & mask;
+			for (int d = 0; used[i]; d++, i = (i + 1) & mask) {
+				int dist = distance(i);
+				if (dist < d) { // take the slot and carry on with the displaced key
+					int k = keys[i];
+					int v = vals[i];
+					keys[i] = key;
+					vals[i] = val;
+					key = k;
+					val = v;
+					d = dist;
+				}
+			}
+			used[i] = true;
+			keys[i] = key;
+			vals[i] = val;
+		}
+
+		public void remove(int i) {
+			int j = (i + 1) & mask;
+			while (used[j] && distance(j) != 0) {
+				keys[i] = keys[j];
+				vals[i] = vals[j];
+				i = j;
+				j = (j + 1) & mask;
+			}
+			used[i] = false;
+		}
+	}
+
+	public IntIntHashST() {
+		this(INIT_CAPACITY);
+	}
+
+	public IntIntHashST(int capacity) {
+		if (capacity < 0) throw new IllegalArgumentException("capacity must be non-negative.");
+		table = new Table(tableSize(capacity));
+	}
+
+	private static int tableSize(int capacity) { // power of two with room for capacity keys
+		int size = INIT_CAPACITY;
+		while (size / 4 * 3 < capacity) size *= 2;
+		return size;
+	}
+
+	private static int hash(int key) { // murmur3 finalizer, spreads all bits of the key to the low bits
+		key ^= key >>> 16;
+		key *= 0x85ebca6b;
+		key ^= key >>> 13;
+		key *= 0xc2b2ae35;
+		key ^= key >>> 16;
+		return key;
+	}
+
+	public int size() {
+		return n;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public boolean contains(int key) {
+		if (table.find(key) >= 0) return true;
+		return old != null && old.find(key) >= 0;
+	}
+
+	public int get(int key) {
+		int i = table.find(key);
+		if (i >= 0) return table.vals[i];
+		if (old != null && (i = old.find(key)) >= 0) return old.vals[i];
+		throw new NoSuchElementException("key is not in the symbol table.");
+	}
+
+	public int getOrDefault(int key, int defaultValue) {
+		int i = table.find(key);
+		if (i >= 0) return table.vals[i];
+		if (old != null && (i = old.find(key)) >= 0) return old.vals[i];
+		return defaultValue;
+	}
+
+	public void put(int key, int value) {
+		int i = table.find(key);
+		if (i >= 0) {
+			table.vals[i] = value;
+			return;
+		}
+		if (old != null && (i = old.find(key)) >= 0) {
+			old.vals[i] = value;
+			return;
+		}
+		if (n + 1 > (table.mask + 1) / 4 * 3) resize();
+		table.insert(key, value);
+		n++;
+		if (old != null) migrate(MIGRATE);
+	}
+
+	public void delete(int key) {
+		int i = table.find(key);
+		if (i >= 0) {
+			table.remove(i);
+			n--;
+		}
+		else if (old != null && (i = old.find(key)) >= 0) {
+			old.remove(i);
+			n--;
+		}
+		if (old != null) migrate(MIGRATE);
+	}
+
+	private void resize() {
+		if (old != null) migrate(Integer.MAX_VALUE); // only if the keys were inserted faster than migrated
+		old = table;
+		table = new Table(2 * (old.mask + 1));
+		start = 0;
+		while (old.used[start]) start++; // there is always an empty slot, the table is at most 3/4 full
+		migrated = 0;
+	}
+
+	private void migrate(int slots) {
+		int capacity = old.mask + 1;
+		int i = (start + migrated) & old.mask;
+		for (int count = 0; migrated < capacity && (count < slots || old.used[i]); count++) { // never stop inside a cluster
+			if (old.used[i]) {
+				table.insert(old.keys[i], old.vals[i]);
+				old.used[i] = false;
+			}
+			migrated++;
+			i = (i + 1) & old.mask;
+		}
+		if (migrated == capacity) old = null;
+	}
+
+	public Iterable<Integer> keys() {
+		Queue<Integer> queue = new Queue<Integer>();
+		if (old != null) {
+			for (int i = 0; i <= old.mask; i++) {
+				if (old.used[i]) queue.enqueue(old.keys[i]);
+			}
+		}
+		for (int i = 0; i <= table.mask; i++) {
+			if (table.used[i]) queue.enqueue(table.keys[i]);
+		}
+		return queue;
+	}
+
+	// TESTS ========================================================
+	public static void main(String[] args) {
+		IntIntHashST st = new IntIntHashST();
+		new PrimitiveHashSTCheck() {
+			boolean contains(long key)        { return st.contains((int) key); }
+			long get(long key)                { return st.getOrDefault((int) key, -1); }
+			void put(long key, long value)    { st.put((int) key, (int) value); }
+			void delete(long key)             { st.delete((int) key); }
+			int size()                        { return st.size(); }
+			Iterable<? extends Number> keys() { return st.keys(); }
+		}.run(0);
+
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int N = 2000000;
+		int[] keys = new int[N];
+		for (int i = 0; i < N; i++) keys[i] = random.nextInt();
+		System.out.println("Test : put of " + N + " random keys (time of all puts / slowest single put)");
+		for (int round = 0; round < 3; round++) {
+			System.gc();
+			long maxPut = 0;
+			long time = System.nanoTime();
+			IntIntHashST ist = new IntIntHashST();
+			for (int i = 0; i < N; i++) {
+				long t = System.nanoTime();
+				ist.put(keys[i], i);
+				maxPut = Math.max(maxPut, System.nanoTime() - t);
+			}
+			long intTime = System.nanoTime() - time;
+			System.gc();
+			long maxPutHashST = 0;
+			time = System.nanoTime();
+			HashST<Integer, Integer> hst = new HashST<Integer, Integer>();
+			for (int i = 0; i < N; i++) {
+				long t = System.nanoTime();
+				hst.put(keys[i], i);
+				maxPutHashST = Math.max(maxPutHashST, System.nanoTime() - t);
+			}
+			long hashSTTime = System.nanoTime() - time;
+			System.out.printf("IntIntHashST %5d ms / %6.2f ms, HashST<Integer, Integer> %5d ms / %6.2f ms%n",
+					intTime / 1000000, maxPut / 1e6, hashSTTime / 1000000, maxPutHashST / 1e6);
+		}
+	}
+}
@@ -0,0 +1,633 @@
+package searching;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Red Black BST (balanced) of long keys and long values with the nodes outside of the java heap.
+ *
+ * The same left-leaning Red Black BST as RedBlackBST, but a node is not an object: it is a slot of 32 bytes
+ *  (key, value, left, right, size, color) in direct ByteBuffers of 65536 nodes each, and a link is the int
+ *  number of the slot (0 is the null link). So a tree of hundreds of millions of keys is a few thousand
+ *  objects for the garbage collector, instead of three objects per key that every full collection has to
+ *  trace. The slots of deleted nodes are kept in a free list and used again by the next puts.
+ *
+ * close() frees the memory of the buffers at once (with the cleaner of each buffer, through
+ *  sun.misc.Unsafe.invokeCleaner of the jdk.unsupported module, as Java 17 has no public API for it), after
+ *  it every operation throws IllegalStateException. A tree that is not closed is freed when the garbage
+ *  collector collects its buffers, that can be long after the tree is unreachable.
+ * The direct memory of the JVM is limited to the maximum heap size (-Xmx) unless -XX:MaxDirectMemorySize
+ *  is given: a tree of 200 million keys takes 6.4 GB, so it needs -XX:MaxDirectMemorySize=7g or more
+ *  (allocating a buffer past the limit throws OutOfMemoryError: Cannot reserve direct buffer memory).
+ * keys(lo, hi) and iterator(lo, hi) walk the range in order without copying it, an update to the tree while
+ *  iterating makes the iterator throw ConcurrentModificationException.
+ *
+ * Extra space: 32 bytes per key outside of the heap (in blocks of 2 MB), O(1) objects in the heap.
+ * Initialization: O(1)
+ * Operations:
+ *     get, put, contains, deleteMin, deleteMax, delete, min, max ceiling, floor, select, rank: O(log n) worst case.
+ *     size, isEmpty. O(1)
+ */
+public class OffHeapRedBlackBST implements AutoCloseable
+{
+	private static final byte RED = 1;
+	private static final byte BLACK = 0;
+
+	private static final int NODE = 32;      // bytes per node
+	private static final int KEY = 0;        // offsets of the fields in a node
+	private static final int VALUE = 8;
+	private static final int LEFT = 16;
+	private static final int RIGHT = 20;
+	private static final int SIZE = 24;
+	private static final int COLOR = 28;
+	private static final int CHUNK_BITS = 16; // 65536 nodes, 2 MB per buffer
+	private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+	private static final MethodHandle INVOKE_CLEANER = invokeCleaner(); // frees a direct buffer, or null
+
+	private ByteBuffer[] chunks = new ByteBuffer[16];
+	private int root;          // 0 is the null link
+	private int next = 1;      // first slot never used
+	private int free;          // first slot of the list of deleted nodes, linked by their left links
+	private int modCount;      // number of updates, for the iterators
+
+	public OffHeapRedBlackBST() {
+	}
+
+	// NODES ========================================================
+	private ByteBuffer chunk(int x) {
+		return chunks[x >>> CHUNK_BITS];
+	}
+	private static int offset(int x) {
+		return (x & CHUNK_MASK) * NODE;
+	}
+
+	private long key(int x)   { return chunk(x).getLong(offset(x) + KEY); }
+	private long value(int x) { return chunk(x).getLong(offset(x) + VALUE); }
+	private int left(int x)   { return chunk(x).getInt(offset(x) + LEFT); }
+	private int right(int x)  { return chunk(x).getInt(offset(x) + RIGHT); }
+	private byte color(int x) { return chunk(x).get(offset(x) + COLOR); }
+
+	private void setKey(int x, long key)     { chunk(x).putLong(offset(x) + KEY, key); }
+	private void setValue(int x, long value) { chunk(x).putLong(offset(x) + VALUE, value); }
+	private void setLeft(int x, int y)       { chunk(x).putInt(offset(x) + LEFT, y); }
+	private void setRight(int x, int y)      { chunk(x).putInt(offset(x) + RIGHT, y); }
+	private void setSize(int x, int size)    { chunk(x).putInt(offset(x) + SIZE, size); }
+	private void setColor(int x, byte color) { chunk(x).put(offset(x) + COLOR, color); }
+
+	private int newNode(long key, long value) {
+		int x;
+		if (free != 0) {
+			x = free;
+			free = left(x);
+		}
+		else {
+			if (next == Integer.MAX_VALUE) throw new IllegalStateException("OffHeapRedBlackBST is full.");
+			x = next++;
+			int c = x >>> CHUNK_BITS;
+			if (c == chunks.length) chunks = Arrays.copyOf(chunks, 2 * chunks.length);
+			if (chunks[c] == null) chunks[c] = ByteBuffer.allocateDirect(NODE << CHUNK_BITS).order(ByteOrder.nativeOrder());
+		}
+		setKey(x, key);
+		setValue(x, value);
+		setLeft(x, 0);
+		setRight(x, 0);
+		setSize(x, 1);
+		setColor(x, RED); // new node with red link
+		return x;
+	}
+
+	private void freeNode(int x) {
+		setLeft(x, free);
+		free = x;
+	}
+
+	private void ensureOpen() {
+		if (chunks == null) throw new IllegalStateException("OffHeapRedBlackBST is closed.");
+	}
+
+	/**
+	 * Frees the buffers of the nodes at once. If sun.misc.Unsafe is not available (jdk.unsupported not in
+	 *  the module graph) their memory goes back to the system when the garbage collector collects them.
+	 */
+	@Override
+	public void close() {
+		ByteBuffer[] buffers = chunks;
+		chunks = null;
+		root = 0;
+		free = 0;
+		modCount++;
+		if (buffers == null || INVOKE_CLEANER == null) return;
+		for (ByteBuffer buffer : buffers) {
+			if (buffer == null) continue;
+			try {
+				INVOKE_CLEANER.invokeExact(buffer);
+			}
+			catch (Throwable e) {
+				throw new IllegalStateException("cannot free a buffer of OffHeapRedBlackBST", e);
+			}
+		}
+	}
+
+	private static MethodHandle invokeCleaner() { // sun.misc.Unsafe.theUnsafe.invokeCleaner(ByteBuffer)
+		try {
+			Class<?> unsafe = Class.forName("sun.misc.Unsafe");
+			Field theUnsafe = unsafe.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			return MethodHandles.lookup()
+					.findVirtual(unsafe, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+					.bindTo(theUnsafe.get(null));
+		}
+		catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	// SYMBOL TABLE =================================================
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public int size() {
+		ensureOpen();
+		return size(root);
+	}
+	private int size(int x) {
+		if(x == 0) return 0;
+		return chunk(x).getInt(offset(x) + SIZE);
+	}
+
+	private boolean isRed(int x) {
+		if(x == 0) return false; // null links are black
+		return color(x) == RED;
+	}
+
+	private int rotateLeft(int x) {
+		int c = right(x);
+		setRight(x, left(c));
+		setLeft(c, x);
+		setColor(c, color(x));
+		setColor(x, RED);
+		setSize(c, size(x));
+		setSize(x, size(left(x)) + size(right(x)) + 1);
+		return c;
+	}
+
+	private int rotateRight(int x) {
+		int c = left(x);
+		setLeft(x, right(c));
+		setRight(c, x);
+		setColor(c, color(x));
+		setColor(x, RED);
+		setSize(c, size(x));
+		setSize(x, size(left(x)) + size(right(x)) + 1);
+		return c;
+	}
+
+	private void flipColors(int x) {
+		setColor(x, (byte) (1 - color(x)));
+		setColor(left(x), (byte) (1 - color(left(x))));
+		setColor(right(x), (byte) (1 - color(right(x))));
+	}
+
+	private int find(long key) {
+		int x = root;
+		while(x != 0) {
+			long k = key(x);
+			if     (key < k) x = left(x);
+			else if(key > k) x = right(x);
+			else             return x;
+		}
+		return 0;
+	}
+
+	public long get(long key) {
+		ensureOpen();
+		int x = find(key);
+		if (x == 0) throw new NoSuchElementException("key is not in the symbol table.");
+		return value(x);
+	}
+
+	public long getOrDefault(long key, long defaultValue) {
+		ensureOpen();
+		int x = find(key);
+		if (x == 0) return defaultValue;
+		return value(x);
+	}
+
+	public boolean contains(long key) {
+		ensureOpen();
+		return find(key) != 0;
+	}
+
+	public void put(long key, long value) {
+		ensureOpen();
+		int n = size(root);
+		root = put(root, key, value);
+		setColor(root, BLACK);
+		if (size(root) != n) modCount++; // a new node, a value change alone does not move any node
+	}
+	private int put(int x, long key, long value) {
+		if(x == 0) return newNode(key, value);
+		long k = key(x);
+		if     (key < k) setLeft(x, put(left(x), key, value));
+		else if(key > k) setRight(x, put(right(x), key, value));
+		else             setValue(x, value);
+		if(isRed(right(x)) && !isRed(left(x)))       x = rotateLeft(x);
+		if(isRed(left(x)) && isRed(left(left(x))))   x = rotateRight(x);
+		if(isRed(left(x)) && isRed(right(x)))        flipColors(x);
+		setSize(x, 1 + size(left(x)) + size(right(x)));
+		return x;
+	}
+
+	public long min() {
+		if(isEmpty()) throw new NoSuchElementException("Calls min() with empty OffHeapRedBlackBST.");
+		return key(min(root));
+	}
+	private int min(int x) {
+		while(left(x) != 0) x = left(x);
+		return x;
+	}
+
+	public long max() {
+		if(isEmpty()) throw new NoSuchElementException("Calls max() with empty OffHeapRedBlackBST.");
+		int x = root;
+		while(right(x) != 0) x = right(x);
+		return key(x);
+	}
+
+	private int moveRedLeft(int x) {
+		flipColors(x);
+		if (isRed(left(right(x)))) {
+			setRight(x, rotateRight(right(x)));
+			x = rotateLeft(x);
+			flipColors(x);
+		}
+		return x;
+	}
+
+	private int moveRedRight(int x) {
+		flipColors(x);
+		if (isRed(left(left(x)))) {
+			x = rotateRight(x);
+			flipColors(x);
+		}
+		return x;
+	}
+
+	private int balance(int x) {
+		if (isRed(right(x)))                     x = rotateLeft(x);
+		if (isRed(left(x)) && isRed(left(left(x)))) x = rotateRight(x);
+		if (isRed(left(x)) && isRed(right(x)))   flipColors(x);
+		setSize(x, size(left(x)) + size(right(x)) + 1);
+		return x;
+	}
+
+	public void deleteMin() {
+		if (isEmpty()) throw new NoSuchElementException("OffHeapRedBlackBST underflow.");
+		modCount++;
+		if (!isRed(left(root)) && !isRed(right(root))) setColor(root, RED);
+		root = deleteMin(root);
+		if (root != 0) setColor(root, BLACK);
+	}
+	private int deleteMin(int x) {
+		if (left(x) == 0) {
+			freeNode(x);
+			return 0;
+		}
+		if (!isRed(left(x)) && !isRed(left(left(x)))) x = moveRedLeft(x);
+		setLeft(x, deleteMin(left(x)));
+		return balance(x);
+	}
+
+	public void deleteMax() {
+		if (isEmpty()) throw new NoSuchElementException("OffHeapRedBlackBST underflow.");
+		modCount++;
+		if (!isRed(left(root)) && !isRed(right(root))) setColor(root, RED);
+		root = deleteMax(root);
+		if (root != 0) setColor(root, BLACK);
+	}
+	private int deleteMax(int x) {
+		if (isRed(left(x))) x = rotateRight(x);
+		if (right(x) == 0) {
+			freeNode(x);
+			return 0;
+		}
+		if (!isRed(right(x)) && !isRed(left(right(x)))) x = moveRedRight(x);
+		setRight(x, deleteMax(right(x)));
+		return balance(x);
+	}
+
+	public void delete(long key) {
+		if (!contains(key)) return;
+		modCount++;
+		if (!isRed(left(root)) && !isRed(right(root))) setColor(root, RED);
+		root = delete(root, key);
+		if (root != 0) setColor(root, BLACK);
+	}
+	private int delete(int x, long key) {
+		if (key < key(x))  {
+			if (!isRed(left(x)) && !isRed(left(left(x)))) x = moveRedLeft(x);
+			setLeft(x, delete(left(x), key));
+		}
+		else {
+			if (isRed(left(x))) x = rotateRight(x);
+			if (key == key(x) && right(x) == 0) {
+				freeNode(x);
+				return 0;
+			}
+			if (!isRed(right(x)) && !isRed(left(right(x)))) x = moveRedRight(x);
+			if (key == key(x)) {
+				int tmp = min(right(x));
+				setKey(x, key(tmp));
+				setValue(x, value(tmp));
+				setRight(x, deleteMin(right(x)));
+			}
+			else setRight(x, delete(right(x), key));
+		}
+		return balance(x);
+	}
+
+	public int height() {
+		ensureOpen();
+		return height(root);
+	}
+	private int height(int x) {
+		if(x == 0) return -1;
+		return 1 + Math.max(height(left(x)), height(right(x)));
+	}
+
+	/**
+	 * Largest key less than or equal to key, NoSuchElementException if there is none.
+	 */
+	public long floor(long key) {
+		if (isEmpty()) throw new NoSuchElementException("Calls floor() with empty OffHeapRedBlackBST.");
+		int x = root, floor = 0;
+		while(x != 0) {
+			long k = key(x);
+			if(key < k) x = left(x);
+			else if(key > k) {
+				floor = x;
+				x = right(x);
+			}
+			else return k;
+		}
+		if(floor == 0) throw new NoSuchElementException("No key is less than or equal to " + key);
+		return key(floor);
+	}
+
+	/**
+	 * Smallest key greater than or equal to key, NoSuchElementException if there is none.
+	 */
+	public long ceiling(long key) {
+		if (isEmpty()) throw new NoSuchElementException("Calls ceiling() with empty OffHeapRedBlackBST.");
+		int x = root, ceiling = 0;
+		while(x != 0) {
+			long k = key(x);
+			if(key > k) x = right(x);
+			else if(key < k) {
+				ceiling = x;
+				x = left(x);
+			}
+			else return k;
+		}
+		if(ceiling == 0) throw new NoSuchElementException("No key is greater than or equal to " + key);
+		return key(ceiling);
+	}
+
+	public int rank(long key) {
+		ensureOpen();
+		int x = root, rank = 0;
+		while(x != 0) {
+			long k = key(x);
+			if(key < k) x = left(x);
+			else if(key > k) {
+				rank += 1 + size(left(x));
+				x = right(x);
+			}
+			else return rank + size(left(x));
+		}
+		return rank;
+	}
+
+	public long select(int r) {
+		if(r < 0 || r >= size()) throw new IllegalArgumentException("Argument to select() is invalid: " + r);
+		int x = root;
+		while(true) {
+			int sizeL = size(left(x));
+			if(r < sizeL) x = left(x);
+			else if(r > sizeL) {
+				r -= sizeL + 1;
+				x = right(x);
+			}
+			else return key(x);
+		}
+	}
+
+	public int countRange(long lo, long hi) {
+		if(lo > hi) return 0;
+		if(contains(hi)) return rank(hi) - rank(lo) + 1;
+		else             return rank(hi) - rank(lo);
+	}
+
+	// RANGES =======================================================
+	/**
+	 * Keys from lo to hi (both included) in order, walking the tree with a stack of the nodes to visit.
+	 * value() is the value of the last key returned by nextLong().
+	 */
+	public class RangeIterator implements PrimitiveIterator.OfLong {
+		private final int[] stack = new int[64]; // the height of the tree is at most 2 lg n < 64
+		private int top;
+		private final long hi;
+		private final int expectedModCount = modCount;
+		private int last;
+
+		private RangeIterator(long lo, long hi) {
+			this.hi = hi;
+			for (int x = root; x != 0; ) { // the path to lo, with the nodes where it goes left
+				if (key(x) >= lo) {
+					stack[top++] = x;
+					x = left(x);
+				}
+				else x = right(x);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (modCount != expectedModCount) throw new ConcurrentModificationException();
+			return top > 0 && key(stack[top - 1]) <= hi;
+		}
+
+		@Override
+		public long nextLong() {
+			if (!hasNext()) throw new NoSuchElementException();
+			last = stack[--top];
+			for (int x = right(last); x != 0; x = left(x)) stack[top++] = x;
+			return key(last);
+		}
+
+		public long value() {
+			if (last == 0) throw new IllegalStateException("nextLong() was not called.");
+			if (modCount != expectedModCount) throw new ConcurrentModificationException();
+			return OffHeapRedBlackBST.this.value(last);
+		}
+	}
+
+	public RangeIterator iterator(long lo, long hi) {
+		ensureOpen();
+		return new RangeIterator(lo, hi);
+	}
+
+	public Iterable<Long> keys() {
+		return keys(Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+	public Iterable<Long> keys(long lo, long hi) {
+		ensureOpen();
+		return () -> iterator(lo, hi);
+	}
+
+	private boolean isBalanced() { // same number of black links on every path, red links lean left, sizes, order
+		int black = 0;
+		for (int x = root; x != 0; x = left(x)) {
+			if (!isRed(x)) black++;
+		}
+		return !isRed(root) && isBalanced(root, black, Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+	private boolean isBalanced(int x, int black, long lo, long hi) {
+		if (x == 0) return black == 0;
+		if (key(x) < lo || key(x) > hi) return false;
+		if (isRed(right(x)) || (isRed(x) && isRed(left(x)))) return false;
+		if (size(x) != 1 + size(left(x)) + size(right(x))) return false;
+		if (!isRed(x)) black--;
+		return isBalanced(left(x), black, lo, key(x) - 1) && isBalanced(right(x), black, key(x) + 1, hi);
+	}
+
+	// TESTS ========================================================
+	private static long gcTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += gc.getCollectionTime();
+		}
+		return time;
+	}
+
+	private static long directMemory() { // bytes of the direct buffers of the JVM
+		for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+			if (pool.getName().equals("direct")) return pool.getMemoryUsed();
+		}
+		return 0;
+	}
+
+	private static long fullGC() { // ms of a full collection with what is reachable now
+		long time = System.nanoTime();
+		System.gc();
+		return (System.nanoTime() - time) / 1000000;
+	}
+
+	public static void main(String[] args) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		try (OffHeapRedBlackBST st = new OffHeapRedBlackBST()) {
+			new OrderedSTCheck() {
+				Number get(long key)                              { return st.contains(key) ? (Number) st.get(key) : null; }
+				void put(long key, long value)                    { st.put(key, value); }
+				void delete(long key)                             { st.delete(key); }
+				void deleteMin()                                  { st.deleteMin(); }
+				void deleteMax()                                  { st.deleteMax(); }
+				int size()                                        { return st.size(); }
+				int height()                                      { return st.height(); }
+				Number min()                                      { return st.min(); }
+				Number max()                                      { return st.max(); }
+				Number floor(long key)                            { return key < st.min() ? null : (Number) st.floor(key); }
+				Number ceiling(long key)                          { return key > st.max() ? null : (Number) st.ceiling(key); }
+				int rank(long key)                                { return st.rank(key); }
+				Number select(int r)                              { return st.select(r); }
+				int countRange(long lo, long hi)                  { return st.countRange(lo, hi); }
+				Iterable<? extends Number> keys(long lo, long hi) { return st.keys(lo, hi); }
+				void step(int i, TreeMap<Long, Long> map) {
+					if (i % 10000 != 0) return;
+					if (!st.isBalanced()) throw new IllegalStateException("not balanced");
+					long lo = random.nextLong(20000) - 10000, hi = lo + random.nextLong(2000);
+					RangeIterator it = st.iterator(lo, hi);
+					for (Map.Entry<Long, Long> e : map.subMap(lo, true, hi, true).entrySet()) {
+						if (it.nextLong() != e.getKey() || it.value() != e.getValue()) throw new IllegalStateException("range " + lo);
+					}
+					if (it.hasNext()) throw new IllegalStateException("range end " + lo);
+				}
+			}.run(400000, 20000);
+			System.out.println((st.next - 1) + " nodes allocated");
+			Iterator<Long> keys = st.keys().iterator();
+			keys.next();
+			st.put(st.max(), -1); // only a value changes, the iterator goes on
+			keys.next();
+			st.put(Long.MAX_VALUE, 0);
+			try {
+				keys.next();
+				throw new IllegalStateException("iterator not failing");
+			}
+			catch (ConcurrentModificationException e) {
+				System.out.println("ok, put while iterating: ConcurrentModificationException");
+			}
+		}
+		OffHeapRedBlackBST closed = new OffHeapRedBlackBST();
+		closed.put(0, 0);
+		long direct = directMemory();
+		closed.close();
+		if (INVOKE_CLEANER != null && direct - directMemory() < NODE << CHUNK_BITS) throw new IllegalStateException("close() did not free");
+		System.out.println("ok, close() freed " + ((direct - directMemory()) >> 20) + " MB of direct memory at once");
+		String message = null;
+		try {
+			closed.get(0);
+		}
+		catch (IllegalStateException e) {
+			message = e.getMessage();
+		}
+		if (message == null) throw new IllegalStateException("closed tree used");
+		System.out.println("ok, get after close(): " + message);
+
+		int n = 4000000;
+		System.out.println("Test : " + n + " random puts, then time of a full garbage collection with the tree alive");
+		Runtime runtime = Runtime.getRuntime();
+		long[] keys = new long[n];
+		for (int i = 0; i < n; i++) keys[i] = random.nextLong();
+		fullGC();
+		long used = runtime.totalMemory() - runtime.freeMemory();
+		long gc = gcTime();
+		long time = System.nanoTime();
+		RedBlackBST<Long, Long> heap = new RedBlackBST<Long, Long>();
+		for (int i = 0; i < n; i++) heap.put(keys[i], (long) i);
+		time = (System.nanoTime() - time) / 1000000;
+		gc = gcTime() - gc;
+		long full = fullGC();
+		System.out.printf("RedBlackBST<Long, Long> puts %5d ms (gc %5d ms), heap +%4d MB, full gc %4d ms, size %d%n",
+				time, gc, (runtime.totalMemory() - runtime.freeMemory() - used) >> 20, full, heap.size());
+		heap = null;
+		fullGC();
+		used = runtime.totalMemory() - runtime.freeMemory();
+		gc = gcTime();
+		time = System.nanoTime();
+		try (OffHeapRedBlackBST st = new OffHeapRedBlackBST()) {
+			for (int i = 0; i < n; i++) st.put(keys[i], i);
+			time = (System.nanoTime() - time) / 1000000;
+			gc = gcTime() - gc;
+			full = fullGC();
+			System.out.printf("OffHeapRedBlackBST       puts %5d ms (gc %5d ms), heap +%4d MB, full gc %4d ms, size %d, %d MB off the heap%n",
+					time, gc, (runtime.totalMemory() - runtime.freeMemory() - used) >> 20, full, st.size(), ((long) st.next * NODE) >> 20);
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package searching;
+
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Test of the mains of the ordered symbol tables (PersistentRedBlackBST, ConcurrentRedBlackBST, BPlusTreeST,
+ *  OffHeapRedBlackBST): random puts and deletes against java.util.TreeMap, checking the ordered operations
+ *  after each one. Each table is seen through long keys and long values, that the subclass narrows to the
+ *  types of the table; a missing key, floor or ceiling reads as null.
+ */
+abstract class OrderedSTCheck
+{
+	abstract Number get(long key);               // null if the key is not in the table
+	abstract void put(long key, long value);
+	abstract void delete(long key);
+	abstract void deleteMin();
+	abstract void deleteMax();
+	abstract int size();
+	abstract int height();
+	abstract Number min();
+	abstract Number max();
+	abstract Number floor(long key);             // null if there is none
+	abstract Number ceiling(long key);           // null if there is none
+	abstract int rank(long key);
+	abstract Number select(int r);
+	abstract int countRange(long lo, long hi);
+	abstract Iterable<? extends Number> keys(long lo, long hi);
+
+	/**
+	 * Called after operation i, for what only the table can check (invariants, old versions).
+	 */
+	void step(int i, TreeMap<Long, Long> map) {
+	}
+
+	private static boolean same(Number key, Long expected) {
+		return key == null ? expected == null : expected != null && key.longValue() == expected;
+	}
+
+	/**
+	 * Keys are drawn among the keys values from -keys/2.
+	 */
+	public void run(int operations, int keys) {
+		System.out.println("Test : random puts and deletes against java.util.TreeMap");
+		TreeMap<Long, Long> map = new TreeMap<Long, Long>();
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int i = 0; i < operations; i++) {
+			long key = random.nextInt(keys) - keys / 2;
+			int op = random.nextInt(8);
+			if (op == 0) {
+				delete(key);
+				map.remove(key);
+			}
+			else if (op == 1 && !map.isEmpty()) {
+				deleteMin();
+				map.pollFirstEntry();
+			}
+			else if (op == 2 && !map.isEmpty()) {
+				deleteMax();
+				map.pollLastEntry();
+			}
+			else {
+				put(key, i);
+				map.put(key, (long) i);
+			}
+			if (size() != map.size()) throw new IllegalStateException("size " + size() + " " + map.size());
+			if (!same(get(key), map.get(key))) throw new IllegalStateException("get " + key);
+			if (!map.isEmpty()) {
+				if (!same(min(), map.firstKey()) || !same(max(), map.lastKey())) throw new IllegalStateException("min max");
+				if (!same(floor(key), map.floorKey(key))) throw new IllegalStateException("floor " + key);
+				if (!same(ceiling(key), map.ceilingKey(key))) throw new IllegalStateException("ceiling " + key);
+				if (rank(key) != map.headMap(key).size()) throw new IllegalStateException("rank " + key);
+				int r = random.nextInt(map.size());
+				if (rank(select(r).longValue()) != r) throw new IllegalStateException("select " + r);
+			}
+			step(i, map);
+		}
+		long lo = -keys / 10, hi = keys / 10;
+		int count = 0;
+		for (Number key : keys(lo, hi)) {
+			if (!same(get(key.longValue()), map.get(key.longValue()))) throw new IllegalStateException("keys " + key);
+			count++;
+		}
+		int expected = map.subMap(lo, true, hi, true).size();
+		if (count != expected || countRange(lo, hi) != expected) throw new IllegalStateException("range " + count + " " + expected);
+		System.out.println("ok, size " + size() + ", height " + height());
+	}
+}
@@ -0,0 +1,475 @@
+package searching;
+
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import fundamentals.Queue;
+
+/**
+ * Persistent (immutable) Red Black BST of generic key-value pairs.
+ *
+ * put and delete do not change the tree, they return a new version of it: the nodes on the path from the
+ *  root to the key (the ones RedBlackBST would change) are copied, and all the other nodes are shared with
+ *  the old version. So every version stays valid and the same forever, a snapshot is just a reference to a
+ *  version (O(1)), and any number of threads can read any version without locks.
+ * An update marks the nodes it copies as its own, and changes in place only those, so the rotations and
+ *  color flips on the path do not copy a node twice.
+ *
+ * Extra space: O(log n) new nodes per update, the nodes of old versions are garbage when no one uses them.
+ * Initialization: O(1)
+ * Operations:
+ *     get, contains, min, max, floor, ceiling, select, rank: O(log n) worst case.
+ *     put, delete, deleteMin, deleteMax: O(log n) worst case, returning the new version.
+ *     size, isEmpty. O(1)
+ */
+public final class PersistentRedBlackBST<K extends Comparable<K>, V>
+{
+	private static final boolean RED = true;
+	private static final boolean BLACK = false;
+
+	private final Node<K, V> root;
+
+	private static class Node<K, V> {
+		private K key;
+		private V value;
+		private Node<K, V> left, right;
+		private boolean color; // color of parent link
+		private int size;
+		private final Object owner; // update that created the node, the only one that can change it
+		public Node(K key, V value, boolean color, int size, Object owner) {
+			this.key = key;
+			this.value = value;
+			this.color = color;
+			this.size = size;
+			this.owner = owner;
+		}
+	}
+
+	public PersistentRedBlackBST() {
+		this(null);
+	}
+
+	private PersistentRedBlackBST(Node<K, V> root) {
+		this.root = root;
+	}
+
+	private static <K, V> int size(Node<K, V> x) {
+		if(x == null) return 0;
+		return x.size;
+	}
+
+	private static <K, V> boolean isRed(Node<K, V> x) {
+		if(x == null) return false; // null links are black
+		return x.color == RED;
+	}
+
+	/**
+	 * One put or delete: the same code as RedBlackBST, but a node is changed only after mutable() gives a
+	 *  copy of it owned by this update.
+	 */
+	private static class Update<K extends Comparable<K>, V> {
+		private Node<K, V> mutable(Node<K, V> x) {
+			if (x.owner == this) return x;
+			Node<K, V> copy = new Node<K, V>(x.key, x.value, x.color, x.size, this);
+			copy.left = x.left;
+			copy.right = x.right;
+			return copy;
+		}
+
+		private Node<K, V> rotateLeft(Node<K, V> x) {
+			x = mutable(x);
+			Node<K, V> c = mutable(x.right);
+			x.right = c.left;
+			c.left = x;
+			c.color = c.left.color;
+			c.left.color = RED;
+			c.size = x.size;
+			x.size = size(x.left) + size(x.right) + 1;
+			return c;
+		}
+
+		private Node<K, V> rotateRight(Node<K, V> x) {
+			x = mutable(x);
+			Node<K, V> c = mutable(x.left);
+			x.left = c.right;
+			c.right = x;
+			c.color = c.right.color;
+			c.right.color = RED;
+			c.size = x.size;
+			x.size = size(x.left) + size(x.right) + 1;
+			return c;
+		}
+
+		private void flipColors(Node<K, V> x) { // x must be mutable
+			x.left = mutable(x.left);
+			x.right = mutable(x.right);
+			x.color = !x.color;
+			x.left.color = !x.left.color;
+			x.right.color = !x.right.color;
+		}
+
+		private Node<K, V> put(Node<K, V> x, K key, V value) {
+			if(x == null) return new Node<K, V>(key, value, RED, 1, this); // new node with red link
+			x = mutable(x);
+			int cmp = key.compareTo(x.key);
+			if     (cmp < 0) x.left = put(x.left, key, value);
+			else if(cmp > 0) x.right = put(x.right, key, value);
+			else             x.value = value;
+			if(isRed(x.right) && !isRed(x.left))    x = rotateLeft(x);
+			if(isRed(x.left) && isRed(x.left.left)) x = rotateRight(x);
+			if(isRed(x.left) && isRed(x.right))     flipColors(x);
+			x.size = 1 + size(x.left) + size(x.right);
+			return x;
+		}
+
+		private Node<K, V> moveRedLeft(Node<K, V> x) {
+			flipColors(x);
+			if (isRed(x.right.left)) {
+				x.right = rotateRight(x.right);
+				x = rotateLeft(x);
+				flipColors(x);
+			}
+			return x;
+		}
+
+		private Node<K, V> moveRedRight(Node<K, V> x) {
+			flipColors(x);
+			if (isRed(x.left.left)) {
+				x = rotateRight(x);
+				flipColors(x);
+			}
+			return x;
+		}
+
+		private Node<K, V> balance(Node<K, V> x) {
+			if (isRed(x.right))                      x = rotateLeft(x);
+			if (isRed(x.left) && isRed(x.left.left)) x = rotateRight(x);
+			if (isRed(x.left) && isRed(x.right))     flipColors(x);
+			x.size = size(x.left) + size(x.right) + 1;
+			return x;
+		}
+
+		/**
+		 * Root of the tree without the node given by delete, with the root link black.
+		 */
+		private Node<K, V> root(Node<K, V> root, int op, K key) {
+			Node<K, V> x = mutable(root);
+			if (!isRed(x.left) && !isRed(x.right)) x.color = RED;
+			if      (op < 0) x = deleteMin(x);
+			else if (op > 0) x = deleteMax(x);
+			else             x = delete(x, key);
+			if (x != null) x.color = BLACK;
+			return x;
+		}
+
+		private Node<K, V> deleteMin(Node<K, V> x) { // x must be mutable
+			if (x.left == null) return null;
+			if (!isRed(x.left) && !isRed(x.left.left)) x = moveRedLeft(x);
+			x.left = deleteMin(mutable(x.left));
+			return balance(x);
+		}
+
+		private Node<K, V> deleteMax(Node<K, V> x) { // x must be mutable
+			if (isRed(x.left)) x = rotateRight(x);
+			if (x.right == null) return null;
+			if (!isRed(x.right) && !isRed(x.right.left)) x = moveRedRight(x);
+			x.right = deleteMax(mutable(x.right));
+			return balance(x);
+		}
+
+		private Node<K, V> delete(Node<K, V> x, K key) { // x must be mutable
+			if (key.compareTo(x.key) < 0)  {
+				if (!isRed(x.left) && !isRed(x.left.left)) x = moveRedLeft(x);
+				x.left = delete(mutable(x.left), key);
+			}
+			else {
+				if (isRed(x.left)) x = rotateRight(x);
+				if (key.compareTo(x.key) == 0 && (x.right == null)) return null;
+				if (!isRed(x.right) && !isRed(x.right.left)) x = moveRedRight(x);
+				if (key.compareTo(x.key) == 0) {
+					Node<K, V> tmp = min(x.right);
+					x.key = tmp.key;
+					x.value = tmp.value;
+					x.right = deleteMin(mutable(x.right));
+				}
+				else x.right = delete(mutable(x.right), key);
+			}
+			return balance(x);
+		}
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public int size() {
+		return size(root);
+	}
+
+	public V get(K key) {
+		if(key == null) throw new IllegalArgumentException("Argument to get() is null.");
+		Node<K, V> x = root;
+		while(x != null) {
+			int cmp = key.compareTo(x.key);
+			if     (cmp < 0) x = x.left;
+			else if(cmp > 0) x = x.right;
+			else             return x.value;
+		}
+		return null;
+	}
+
+	public boolean contains(K key) {
+		return get(key) != null;
+	}
+
+	public PersistentRedBlackBST<K, V> put(K key, V value) {
+		if(key == null) throw new IllegalArgumentException("First argument to put() is null.");
+		if(value == null) return delete(key);
+		Node<K, V> x = new Update<K, V>().put(root, key, value);
+		x.color = BLACK;
+		return new PersistentRedBlackBST<K, V>(x);
+	}
+
+	public PersistentRedBlackBST<K, V> deleteMin() {
+		if (isEmpty()) throw new NoSuchElementException("PersistentRedBlackBST underflow.");
+		return new PersistentRedBlackBST<K, V>(new Update<K, V>().root(root, -1, null));
+	}
+
+	public PersistentRedBlackBST<K, V> deleteMax() {
+		if (isEmpty()) throw new NoSuchElementException("PersistentRedBlackBST underflow.");
+		return new PersistentRedBlackBST<K, V>(new Update<K, V>().root(root, 1, null));
+	}
+
+	public PersistentRedBlackBST<K, V> delete(K key) {
+		if (key == null) throw new IllegalArgumentException("Argument to delete() is null.");
+		if (!contains(key)) return this;
+		return new PersistentRedBlackBST<K, V>(new Update<K, V>().root(root, 0, key));
+	}
+
+	public K min() {
+		if(isEmpty()) throw new NoSuchElementException("Calls min() with empty PersistentRedBlackBST.");
+		return min(root).key;
+	}
+	private static <K, V> Node<K, V> min(Node<K, V> x) {
+		while(x.left != null) x = x.left;
+		return x;
+	}
+
+	public K max() {
+		if(isEmpty()) throw new NoSuchElementException("Calls max() with empty PersistentRedBlackBST.");
+		Node<K, V> x = root;
+		while(x.right != null) x = x.right;
+		return x.key;
+	}
+
+	public int height() {
+		return height(root);
+	}
+	private int height(Node<K, V> x) {
+		if(x == null) return -1;
+		return 1 + Math.max(height(x.left), height(x.right));
+	}
+
+	public K floor(K key) {
+		if (key == null) throw new IllegalArgumentException("Argument to floor() is null.");
+		if (isEmpty()) throw new NoSuchElementException("Calls floor() with empty PersistentRedBlackBST.");
+		Node<K, V> floor = null;
+		for (Node<K, V> x = root; x != null; ) {
+			int cmp = key.compareTo(x.key);
+			if(cmp == 0) return x.key;
+			if(cmp < 0) x = x.left;
+			else {
+				floor = x;
+				x = x.right;
+			}
+		}
+		return floor == null ? null : floor.key;
+	}
+
+	public K ceiling(K key) {
+		if (key == null) throw new IllegalArgumentException("Argument to ceiling() is null.");
+		if (isEmpty()) throw new NoSuchElementException("Calls ceiling() with empty PersistentRedBlackBST.");
+		Node<K, V> ceiling = null;
+		for (Node<K, V> x = root; x != null; ) {
+			int cmp = key.compareTo(x.key);
+			if(cmp == 0) return x.key;
+			if(cmp > 0) x = x.right;
+			else {
+				ceiling = x;
+				x = x.left;
+			}
+		}
+		return ceiling == null ? null : ceiling.key;
+	}
+
+	public int rank(K key) {
+		if (key == null) throw new IllegalArgumentException("Argument to rank() is null.");
+		int rank = 0;
+		for (Node<K, V> x = root; x != null; ) {
+			int cmp = key.compareTo(x.key);
+			if(cmp < 0) x = x.left;
+			else if(cmp > 0) {
+				rank += 1 + size(x.left);
+				x = x.right;
+			}
+			else return rank + size(x.left);
+		}
+		return rank;
+	}
+
+	public K select(int r) {
+		if(r < 0 || r >= size()) throw new IllegalArgumentException("Argument to select() is invalid: " + r);
+		Node<K, V> x = root;
+		while(true) {
+			int sizeL = size(x.left);
+			if(r < sizeL) x = x.left;
+			else if(r > sizeL) {
+				r = r - sizeL - 1;
+				x = x.right;
+			}
+			else return x.key;
+		}
+	}
+
+	public int countRange(K lo, K hi) {
+		if(lo == null) throw new IllegalArgumentException("First argument to keys() is null.");
+		if(hi == null) throw new IllegalArgumentException("Second argument to keys() is null.");
+		if(lo.compareTo(hi) > 0) return 0;
+		if(contains(hi)) return rank(hi) - rank(lo) + 1;
+		else             return rank(hi) - rank(lo);
+	}
+
+	public Iterable<K> keys() {
+		Queue<K> queue = new Queue<K>();
+		keys(root, queue);
+		return queue;
+	}
+	private void keys(Node<K, V> x, Queue<K> queue) {
+		if(x == null) return;
+		keys(x.left, queue);
+		queue.enqueue(x.key);
+		keys(x.right, queue);
+	}
+
+	public Iterable<K> keys(K lo, K hi) {
+		if(lo == null) throw new IllegalArgumentException("First argument to keys() is null.");
+		if(hi == null) throw new IllegalArgumentException("Second argument to keys() is null.");
+		Queue<K> queue = new Queue<K>();
+		keys(root, queue, lo, hi);
+		return queue;
+	}
+	private void keys(Node<K, V> x, Queue<K> queue, K lo, K hi) {
+		if(x == null) return;
+		int cmpLo = lo.compareTo(x.key);
+		int cmpHi = hi.compareTo(x.key);
+		if(cmpLo < 0) keys(x.left, queue, lo, hi);
+		if(cmpLo <= 0 && cmpHi >= 0) queue.enqueue(x.key);
+		if(cmpHi > 0) keys(x.right, queue, lo, hi);
+	}
+
+	/**
+	 * Order of the keys, sizes, same number of black links on every path and red links that lean left.
+	 */
+	boolean check() {
+		int black = 0;
+		for (Node<K, V> x = root; x != null; x = x.left) {
+			if (!isRed(x)) black++;
+		}
+		return !isRed(root) && check(root, black, null, null);
+	}
+	private boolean check(Node<K, V> x, int black, K lo, K hi) {
+		if (x == null) return black == 0;
+		if ((lo != null && x.key.compareTo(lo) <= 0) || (hi != null && x.key.compareTo(hi) >= 0)) return false;
+		if (isRed(x.right) || (isRed(x) && isRed(x.left))) return false;
+		if (x.size != 1 + size(x.left) + size(x.right)) return false;
+		if (!isRed(x)) black--;
+		return check(x.left, black, lo, x.key) && check(x.right, black, x.key, hi);
+	}
+
+	// TESTS ========================================================
+	public static void main(String[] args) {
+		System.out.println("Test : S E A R C H E X A M P L E, a version after each put");
+		PersistentRedBlackBST<String, Integer> st = new PersistentRedBlackBST<String, Integer>();
+		String[] keys = "S E A R C H E X A M P L E".split(" ");
+		@SuppressWarnings("unchecked")
+		PersistentRedBlackBST<String, Integer>[] versions = (PersistentRedBlackBST<String, Integer>[]) new PersistentRedBlackBST<?, ?>[keys.length + 1];
+		versions[0] = st;
+		for (int i = 0; i < keys.length; i++) {
+			versions[i + 1] = versions[i].put(keys[i], i);
+		}
+		for (int i = 0; i < versions.length; i += 4) {
+			System.out.print("version " + i + ":");
+			for (String s : versions[i].keys()) System.out.print(" " + s + "=" + versions[i].get(s));
+			System.out.println();
+		}
+		PersistentRedBlackBST<String, Integer> last = versions[keys.length];
+		PersistentRedBlackBST<String, Integer> deleted = last.delete("E").deleteMin().deleteMax();
+		System.out.println("without E, min and max: " + deleted.keys() + ", still in the version before: " + last.keys());
+
+		Queue<PersistentRedBlackBST<Integer, Integer>> snapshots = new Queue<PersistentRedBlackBST<Integer, Integer>>();
+		Queue<TreeMap<Long, Long>> expected = new Queue<TreeMap<Long, Long>>();
+		new OrderedSTCheck() {
+			PersistentRedBlackBST<Integer, Integer> tree = new PersistentRedBlackBST<Integer, Integer>();
+			Number get(long key)                              { return tree.get((int) key); }
+			void put(long key, long value)                    { tree = tree.put((int) key, (int) value); }
+			void delete(long key)                             { tree = tree.delete((int) key); }
+			void deleteMin()                                  { tree = tree.deleteMin(); }
+			void deleteMax()                                  { tree = tree.deleteMax(); }
+			int size()                                        { return tree.size(); }
+			int height()                                      { return tree.height(); }
+			Number min()                                      { return tree.min(); }
+			Number max()                                      { return tree.max(); }
+			Number floor(long key)                            { return tree.floor((int) key); }
+			Number ceiling(long key)                          { return tree.ceiling((int) key); }
+			int rank(long key)                                { return tree.rank((int) key); }
+			Number select(int r)                              { return tree.select(r); }
+			int countRange(long lo, long hi)                  { return tree.countRange((int) lo, (int) hi); }
+			Iterable<? extends Number> keys(long lo, long hi) { return tree.keys((int) lo, (int) hi); }
+			void step(int i, TreeMap<Long, Long> map) {
+				if (i % 20000 == 0) {
+					snapshots.enqueue(tree);
+					expected.enqueue(new TreeMap<Long, Long>(map));
+				}
+			}
+		}.run(200000, 10000);
+		System.out.println("Test : the old versions did not change");
+		while (!snapshots.isEmpty()) {
+			PersistentRedBlackBST<Integer, Integer> snapshot = snapshots.dequeue();
+			TreeMap<Long, Long> then = expected.dequeue();
+			if (snapshot.size() != then.size() || !snapshot.check()) throw new IllegalStateException("snapshot");
+			for (int key : snapshot.keys()) {
+				if (snapshot.get(key) != then.get((long) key).intValue()) throw new IllegalStateException("snapshot changed");
+			}
+		}
+		System.out.println("ok, " + (200000 / 20000) + " versions");
+
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int N = 1000000;
+		System.out.println("Test : " + N + " keys, a snapshot before each of 1000 puts, times in ms");
+		RedBlackBST<Integer, Integer> rb = new RedBlackBST<Integer, Integer>();
+		PersistentRedBlackBST<Integer, Integer> persistent = new PersistentRedBlackBST<Integer, Integer>();
+		for (int i = 0; i < N; i++) {
+			int key = random.nextInt();
+			rb.put(key, i);
+			persistent = persistent.put(key, i);
+		}
+		long time = System.nanoTime();
+		for (int i = 0; i < 10; i++) { // copying the whole tree, only 10 times
+			RedBlackBST<Integer, Integer> copy = new RedBlackBST<Integer, Integer>();
+			for (int key : rb.keys()) copy.put(key, rb.get(key));
+			copy.put(i, i);
+		}
+		long copies = (System.nanoTime() - time) * 100;
+		time = System.nanoTime();
+		PersistentRedBlackBST<Integer, Integer> snapshot = persistent;
+		for (int i = 0; i < 1000; i++) {
+			snapshot = persistent;
+			persistent = persistent.put(i, i);
+		}
+		long versions1000 = System.nanoTime() - time;
+		if (snapshot.size() + (snapshot.contains(999) ? 0 : 1) != persistent.size()) throw new IllegalStateException("sizes");
+		System.out.printf("RedBlackBST copy + put: %d (estimated from 10), PersistentRedBlackBST snapshot + put: %.2f%n",
+				copies / 1000000, versions1000 / 1e6);
+	}
+}
@@ -0,0 +1,52 @@
+package searching;
+
+import java.util.HashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Test of the mains of the primitive hash tables (IntHashST, IntIntHashST, LongDoubleHashST...): random puts,
+ *  gets and deletes against java.util.HashMap. Each table is seen through long keys and long values, that
+ *  the subclass narrows to the types of the table; a missing key reads as -1.
+ */
+abstract class PrimitiveHashSTCheck
+{
+	abstract boolean contains(long key);
+	abstract long get(long key);                 // -1 if the key is not in the table
+	abstract void put(long key, long value);
+	abstract void delete(long key);
+	abstract int size();
+	abstract Iterable<? extends Number> keys();
+
+	/**
+	 * Keys are 100000 values shifted left by shift bits (32 for long keys that differ only in the high bits).
+	 */
+	public void run(int shift) {
+		System.out.println("Test : random puts, gets and deletes against java.util.HashMap");
+		HashMap<Long, Long> map = new HashMap<Long, Long>();
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int i = 0; i < 1000000; i++) {
+			long key = (long) random.nextInt(100000) << shift;
+			int op = random.nextInt(4);
+			if (op == 0) {
+				delete(key);
+				map.remove(key);
+			}
+			else if (op == 1) {
+				if (contains(key) != map.containsKey(key)) throw new IllegalStateException("contains " + key);
+				if (get(key) != map.getOrDefault(key, -1L)) throw new IllegalStateException("get " + key);
+			}
+			else {
+				put(key, i);
+				map.put(key, (long) i);
+			}
+			if (size() != map.size()) throw new IllegalStateException("size " + size() + " " + map.size());
+		}
+		int count = 0;
+		for (Number key : keys()) {
+			if (get(key.longValue()) != map.get(key.longValue())) throw new IllegalStateException("keys " + key);
+			count++;
+		}
+		if (count != map.size()) throw new IllegalStateException("keys " + count + " " + map.size());
+		System.out.println("ok, " + count + " keys");
+	}
+}
@@ -1,17 +1,22 @@
 package searching;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
+import java.util.concurrent.ThreadLocalRandom;
 
 import fundamentals.Queue;
+import sorting.MergeSort;
 
 /**
  * Red Black BST (balanced) of and generic key-value pairs.
  * 
- * Initialization: O(1)
+ * Initialization: O(1), O(n) from sorted keys.
  * Operations:
  *     get, put, contains, deleteMin, deleteMax, delete, min, max ceiling, floor, select, rank: O(log n) worst case.
  *     size, isEmpty. O(1)
+ *     union: O(m + n)
  *  
  *  Notes: 
  *      Left-leaning Red Black BST, where all left nodes are less and all right nodes are equal or larger than root node.
@@ -47,6 +52,94 @@ public class RedBlackBST<K extends Comparable<K>, V>
 		}
 	}
 
+	public RedBlackBST() {
+	}
+
+	/**
+	 * Bulk load of keys in strictly increasing order, with the values in the same order, without rotations.
+	 * Builds the 2-3 tree with the smallest black height b that can hold the n keys (2^b - 1 <= n), using
+	 *  2-nodes while the subtrees below can hold the keys and 3-nodes (a black node with a red left child)
+	 *  only where needed, and then each subtree the same way.
+	 */
+	public RedBlackBST(K[] keys, V[] values) {
+		if (keys.length != values.length) throw new IllegalArgumentException("keys and values must have the same length.");
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] == null || values[i] == null) throw new IllegalArgumentException("null key or value at " + i);
+			if (i > 0 && keys[i - 1].compareTo(keys[i]) >= 0) throw new IllegalArgumentException("keys are not in strictly increasing order at " + i);
+		}
+		int black = 0;
+		while ((2L << black) - 1 <= keys.length) black++;
+		root = build(keys, values, 0, keys.length - 1, black);
+	}
+	private Node build(K[] keys, V[] values, int lo, int hi, int black) {
+		int n = hi - lo + 1;
+		if (n == 0) return null;
+		long max = maxKeys(black - 1); // most keys a subtree with one less black link can have
+		if (n <= 2 * max + 1) { // 2-node
+			int mid = lo + n / 2;
+			Node x = new Node(keys[mid], values[mid], BLACK, n);
+			x.left = build(keys, values, lo, mid - 1, black - 1);
+			x.right = build(keys, values, mid + 1, hi, black - 1);
+			return x;
+		}
+		int part = (n - 2) / 3; // 3-node, three subtrees of part or part + 1 keys
+		int a = lo + part + ((n - 2) % 3 > 0 ? 1 : 0);
+		int b = a + 1 + part + ((n - 2) % 3 > 1 ? 1 : 0);
+		Node x = new Node(keys[b], values[b], BLACK, n);
+		x.left = new Node(keys[a], values[a], RED, b - lo);
+		x.left.left = build(keys, values, lo, a - 1, black - 1);
+		x.left.right = build(keys, values, a + 1, b - 1, black - 1);
+		x.right = build(keys, values, b + 1, hi, black - 1);
+		return x;
+	}
+	private static long maxKeys(int black) { // of a 2-3 tree with only 3-nodes
+		long max = 1;
+		for (int i = 0; i < black; i++) max *= 3;
+		return max - 1;
+	}
+
+	/**
+	 * All the keys of both trees (the value of b for a key in both) in a new tree, merging their keys in order
+	 *  and loading them like the sorted keys.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K extends Comparable<K>, V> RedBlackBST<K, V> union(RedBlackBST<K, V> a, RedBlackBST<K, V> b) {
+		Object[] aKeys = new Object[a.size()], aValues = new Object[a.size()];
+		Object[] bKeys = new Object[b.size()], bValues = new Object[b.size()];
+		a.inorder(a.root, aKeys, aValues, 0);
+		b.inorder(b.root, bKeys, bValues, 0);
+		K[] keys = (K[]) new Comparable<?>[aKeys.length + bKeys.length];
+		V[] values = (V[]) new Object[aKeys.length + bKeys.length];
+		int n = 0;
+		for (int i = 0, j = 0; i < aKeys.length || j < bKeys.length; n++) {
+			int cmp;
+			if      (i == aKeys.length) cmp = 1;
+			else if (j == bKeys.length) cmp = -1;
+			else                        cmp = ((K) aKeys[i]).compareTo((K) bKeys[j]);
+			if (cmp < 0) {
+				keys[n] = (K) aKeys[i];
+				values[n] = (V) aValues[i++];
+			}
+			else {
+				if (cmp == 0) i++;
+				keys[n] = (K) bKeys[j];
+				values[n] = (V) bValues[j++];
+			}
+		}
+		if (n < keys.length) {
+			keys = Arrays.copyOf(keys, n);
+			values = Arrays.copyOf(values, n);
+		}
+		return new RedBlackBST<K, V>(keys, values);
+	}
+	private int inorder(Node x, Object[] keys, Object[] values, int i) {
+		if (x == null) return i;
+		i = inorder(x.left, keys, values, i);
+		keys[i] = x.key;
+		values[i++] = x.value;
+		return inorder(x.right, keys, values, i);
+	}
+
 	public boolean isEmpty() {
 		return size() == 0;
 	}
@@ -418,6 +511,21 @@ public class RedBlackBST<K extends Comparable<K>, V>
 		return isBST(x.left, lo, x.key) && isBST(x.right, x.key, hi);
 	}
 
+	private boolean isBalanced() { // same number of black links on every path, red links lean left, sizes
+		int black = 0;
+		for (Node x = root; x != null; x = x.left) {
+			if (!isRed(x)) black++;
+		}
+		return !isRed(root) && isBalanced(root, black);
+	}
+	private boolean isBalanced(Node x, int black) {
+		if (x == null) return black == 0;
+		if (isRed(x.right) || (isRed(x) && isRed(x.left))) return false;
+		if (x.size != 1 + size(x.left) + size(x.right)) return false;
+		if (!isRed(x)) black--;
+		return isBalanced(x.left, black) && isBalanced(x.right, black);
+	}
+
 	// TESTS ========================================================
 	public static void main(String[] args) {
 		RedBlackBST<String, Integer> rbBst = new RedBlackBST<>();
@@ -478,5 +586,52 @@ public class RedBlackBST<K extends Comparable<K>, V>
         for (String s : st.keys())
             System.out.println(s + " " + st.get(s));
         sc.close();
+
+		System.out.println("Test : bulk load of 0 to 1000 sorted keys and union");
+		for (int n = 0; n <= 1000; n++) {
+			Integer[] keys = new Integer[n];
+			for (int i = 0; i < n; i++) keys[i] = 2 * i;
+			RedBlackBST<Integer, Integer> bulk = new RedBlackBST<Integer, Integer>(keys, keys);
+			if (bulk.size() != n || !bulk.isBST() || !bulk.isBalanced()) throw new IllegalStateException("bulk load of " + n);
+			bulk.put(-1, -1);
+			bulk.delete(n > 0 ? 0 : -1);
+			if (bulk.size() != n || !bulk.isBalanced()) throw new IllegalStateException("update after bulk load of " + n);
+			RedBlackBST<Integer, Integer> odd = new RedBlackBST<Integer, Integer>();
+			for (int i = 0; i < n / 2; i++) odd.put(4 * i + 1, 0);
+			odd.put(-1, 1);
+			RedBlackBST<Integer, Integer> union = union(bulk, odd);
+			if (union.size() != bulk.size() + odd.size() - (bulk.contains(-1) ? 1 : 0) || !union.isBST() || !union.isBalanced() || union.get(-1) != 1)
+				throw new IllegalStateException("union of " + n);
+		}
+		System.out.println("ok");
+
+		int N = 1000000;
+		Integer[] keys = new Integer[N];
+		for (int i = 0; i < N; i++) keys[i] = ThreadLocalRandom.current().nextInt();
+		System.out.println("Test : " + N + " random keys, times in ms");
+		for (int round = 0; round < 3; round++) {
+			long time = System.nanoTime();
+			Integer[] sorted = keys.clone();
+			MergeSort.sort(sorted, new Integer[N], Comparator.naturalOrder(), 0, N - 1);
+			int n = 0;
+			for (int i = 0; i < N; i++) {
+				if (n == 0 || !sorted[i].equals(sorted[n - 1])) sorted[n++] = sorted[i];
+			}
+			sorted = Arrays.copyOf(sorted, n);
+			long sort = System.nanoTime() - time;
+			time = System.nanoTime();
+			RedBlackBST<Integer, Integer> bulk = new RedBlackBST<Integer, Integer>(sorted, sorted);
+			long load = System.nanoTime() - time;
+			time = System.nanoTime();
+			RedBlackBST<Integer, Integer> puts = new RedBlackBST<Integer, Integer>();
+			for (int i = 0; i < N; i++) puts.put(keys[i], keys[i]);
+			long put = System.nanoTime() - time;
+			time = System.nanoTime();
+			RedBlackBST<Integer, Integer> union = union(bulk, puts);
+			long merge = System.nanoTime() - time;
+			if (union.size() != puts.size() || bulk.height() > puts.height()) throw new IllegalStateException("different trees");
+			System.out.printf("MergeSort %4d + bulk load %4d (height %d) | %d puts %4d (height %d) | union %4d%n",
+					sort / 1000000, load / 1000000, bulk.height(), N, put / 1000000, puts.height(), merge / 1000000);
+		}
 	}
 }
@@ -0,0 +1,226 @@
+package sorting;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Index min priority queue of primitive double keys implemented with a d-ary heap (array).
+ *  Same contract than IndexMinPQ<Double>, but the keys are stored in a double[] so there is no boxing,
+ *  and insert, decreaseKey or delMin do not allocate anything.
+ *
+ * With arity d every node has d children: the heap is log_d(N) levels deep, so swim (insert, decreaseKey)
+ *  does less work, and sink (delMin) compares d children per level that are next to each other in memory.
+ *  A 4-ary heap is usually the fastest for Dijkstra, where there are many more decreaseKey than delMin.
+ *
+ *     heap (0-based, d = 4): children of k are 4k+1 to 4k+4, and the parent of k is (k-1)/4.
+ *
+ * Initialization: O(n) where n is the number of items (capacity).
+ * Operations:
+ *     insert, decreaseKey: O(log_d N)
+ *     delMin, delete, changeKey, increaseKey: O(d log_d N)
+ *     minIndex, minKey, size, isEmpty, contains, keyOf: O(1)
+ *     clear: O(N)
+ */
+public class DoubleIndexMinPQ implements Iterable<Integer> {
+	private final int maxN;    // maximum number of elements on PQ
+	private final int d;       // arity of the heap
+	private int n;             // number of elements on PQ
+	private final int[] pq;    // d-ary heap using 0-based indexing
+	private final int[] qp;    // inverse of pq - qp[pq[i]] = pq[qp[i]] = i
+	private final double[] keys; // keys[i] = priority of i
+
+	public DoubleIndexMinPQ(int maxN) {
+		this(maxN, 4);
+	}
+
+	public DoubleIndexMinPQ(int maxN, int d) {
+		if (maxN < 0) throw new IllegalArgumentException();
+		if (d < 2) throw new IllegalArgumentException("Arity must be at least 2.");
+		this.maxN = maxN;
+		this.d = d;
+		n = 0;
+		keys = new double[maxN];
+		pq   = new int[maxN];
+		qp   = new int[maxN];
+		for (int i = 0; i < maxN; i++)
+			qp[i] = -1;
+	}
+
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	public boolean contains(int i) {
+		if (i < 0 || i >= maxN) throw new IllegalArgumentException();
+		return qp[i] != -1;
+	}
+
+	public int size() {
+		return n;
+	}
+
+	public void insert(int i, double key) {
+		if (i < 0 || i >= maxN) throw new IllegalArgumentException();
+		if (contains(i)) throw new IllegalArgumentException("Index is already in the priority queue.");
+		if (Double.isNaN(key)) throw new IllegalArgumentException("Key is NaN.");
+		keys[i] = key;
+		swim(n++, i);
+	}
+
+	public int minIndex() {
+		if (n == 0) throw new NoSuchElementException("Priority queue underflow.");
+		return pq[0];
+	}
+
+	public double minKey() {
+		if (n == 0) throw new NoSuchElementException("Priority queue underflow.");
+		return keys[pq[0]];
+	}
+
+	public int delMin() {
+		if (n == 0) throw new NoSuchElementException("Priority queue underflow.");
+		int min = pq[0];
+		qp[min] = -1;        // delete
+		int last = pq[--n];
+		if (n > 0) sink(0, last);
+		return min;
+	}
+
+	public double keyOf(int i) {
+		if (i < 0 || i >= maxN) throw new IllegalArgumentException();
+		if (!contains(i)) throw new NoSuchElementException("Index is not in the priority queue.");
+		else return keys[i];
+	}
+
+	public void changeKey(int i, double key) {
+		if (i < 0 || i >= maxN) throw new IllegalArgumentException();
+		if (!contains(i)) throw new NoSuchElementException("Index is not in the priority queue.");
+		if (Double.isNaN(key)) throw new IllegalArgumentException("Key is NaN.");
+		double old = keys[i];
+		keys[i] = key;
+		if (key < old) swim(qp[i], i);
+		else           sink(qp[i], i);
+	}
+
+	public void decreaseKey(int i, double key) {
+		if (i < 0 || i >= maxN) throw new IllegalArgumentException();
+		if (!contains(i)) throw new NoSuchElementException("Index is not in the priority queue.");
+		if (!(key < keys[i]))
+			throw new IllegalArgumentException("Calling decreaseKey() with given argument would not strictly decrease the key.");
+		keys[i] = key;
+		swim(qp[i], i);
+	}
+
+	public void increaseKey(int i, double key) {
+		if (i < 0 || i >= maxN) throw new IllegalArgumentException();
+		if (!contains(i)) throw new NoSuchElementException("Index is not in the priority queue.");
+		if (!(key > keys[i]))
+			throw new IllegalArgumentException("Calling increaseKey() with given argument would not strictly increase the key.");
+		keys[i] = key;
+		sink(qp[i], i);
+	}
+
+	public void delete(int i) {
+		if (i < 0 || i >= maxN) throw new IllegalArgumentException();
+		if (!contains(i)) throw new NoSuchElementException("Index is not in the priority queue.");
+		int index = qp[i];
+		qp[i] = -1;
+		int last = pq[--n];
+		if (index == n) return;
+		if (keys[last] < keys[i]) swim(index, last);
+		else                      sink(index, last);
+	}
+
+	/**
+	 * Removes all the indices, so the same queue can be reused for another search.
+	 */
+	public void clear() {
+		for (int k = 0; k < n; k++)
+			qp[pq[k]] = -1;
+		n = 0;
+	}
+
+	// moves the hole at position k up until index i fits, then puts i there (no swaps).
+	private void swim(int k, int i) {
+		double key = keys[i];
+		while (k > 0) {
+			int parent = (k - 1) / d;
+			int p = pq[parent];
+			if (keys[p] <= key) break;
+			pq[k] = p;
+			qp[p] = k;
+			k = parent;
+		}
+		pq[k] = i;
+		qp[i] = k;
+	}
+
+	// moves the hole at position k down until index i fits, then puts i there (no swaps).
+	private void sink(int k, int i) {
+		double key = keys[i];
+		while (true) {
+			int first = d * k + 1;
+			if (first >= n) break;
+			int last = Math.min(first + d, n);
+			int min = first;
+			for (int j = first + 1; j < last; j++) {
+				if (keys[pq[j]] < keys[pq[min]]) min = j;
+			}
+			int c = pq[min];
+			if (keys[c] >= key) break;
+			pq[k] = c;
+			qp[c] = k;
+			k = min;
+		}
+		pq[k] = i;
+		qp[i] = k;
+	}
+
+	public Iterator<Integer> iterator() {
+		return new HeapIterator();
+	}
+
+	private class HeapIterator implements Iterator<Integer> {
+		private DoubleIndexMinPQ copy;
+		public HeapIterator() {
+			copy = new DoubleIndexMinPQ(maxN, d);
+			for (int i = 0; i < n; i++)
+				copy.insert(pq[i], keys[pq[i]]);
+		}
+		public boolean hasNext()  { return !copy.isEmpty();                     }
+		public Integer next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			return copy.delMin();
+		}
+		public void remove()      { throw new UnsupportedOperationException();  }
+	}
+
+	// TESTS ========================================================
+	public static void main(String[] args) {
+		double[] keys = { 0.5, 0.25, 0.75, 0.125, 1.0, 0.375, 0.625, 0.875, 0.0625, 0.9375 };
+		DoubleIndexMinPQ pq = new DoubleIndexMinPQ(keys.length);
+		for (int i = 0; i < keys.length; i++) {
+			pq.insert(i, keys[i]);
+		}
+		pq.decreaseKey(4, 0.01);
+		pq.increaseKey(8, 0.8);
+		pq.delete(2);
+		// delete and print each key
+		while (!pq.isEmpty()) {
+			double key = pq.minKey();
+			int i = pq.delMin();
+			System.out.println(i + " " + key);
+		}
+		System.out.println();
+		// reinsert the same keys with a binary heap and print each key using the iterator
+		pq = new DoubleIndexMinPQ(keys.length, 2);
+		for (int i = 0; i < keys.length; i++) {
+			pq.insert(i, keys[i]);
+		}
+		for (int i : pq) {
+			System.out.println(i + " " + keys[i]);
+		}
+		pq.clear();
+		System.out.println("size after clear: " + pq.size());
+	}
+}
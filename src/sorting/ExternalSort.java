@@ -0,0 +1,259 @@
+package sorting;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * External merge sort of the lines of a text file (UTF-8) that does not fit in memory, in String order.
+ * A line ends only at '\n' (LineReader): a '\r' is part of its line, so a CRLF file keeps its CRs and a
+ *  record with a lone '\r' is not split. Every line is written with a '\n', the only change to the text is
+ *  a '\n' added to the last line if it had none.
+ *
+ * 1) Runs: reads the input until the lines take runBytes of memory, sorts them with MergeSort.parallelSort and
+ *    writes them to a temp file, so the input becomes ceil(size / runBytes) sorted runs.
+ * 2) Merge: merges fanIn runs at a time with Multiway.merge (a LoserTree of the next line of each run)
+ *    into a new run, until fanIn or less runs remain, that are merged into the output. A last group of a
+ *    single run is not copied, it goes to the next pass as it is. Each run is read with a buffer of
+ *    MERGE_BYTES / fanIn, so the disk reads are sequential even with many runs.
+ * The temp files are deleted as soon as they are merged (and if the sort fails).
+ *
+ * Extra space: O(runBytes) memory, O(size of input) disk.
+ * Operations: where n is the number of lines, r the number of runs and k the fan-in.
+ *     sort: O(n log n) time, ceil(log_k r) merge passes, each reading and writing all the lines once.
+ */
+public class ExternalSort
+{
+	private static final long DEFAULT_RUN_BYTES = 64L << 20;
+	private static final int DEFAULT_FAN_IN = 64;
+	private static final int MERGE_BYTES = 16 << 20;   // memory for the buffers of the runs being merged
+	private static final int MIN_BUFFER = 1 << 13;
+
+	private final long runBytes;    // memory for the lines of a run
+	private final int fanIn;        // runs merged at once
+	private final Path tmpDir;      // where the runs are written
+
+	/**
+	 * What a sort did, and how long each phase took.
+	 */
+	public static class Stats {
+		private long lines;
+		private long bytes;        // size of the input file
+		private int runs;          // sorted runs written by the first phase
+		private int mergePasses;   // times every line was merged (0 if there was a single run)
+		private int mergedRuns;    // runs written by the merges before the last one
+		private long runMillis;
+		private long mergeMillis;
+
+		public long lines()       { return lines; }
+		public long bytes()       { return bytes; }
+		public int runs()         { return runs; }
+		public int mergePasses()  { return mergePasses; }
+		public int mergedRuns()   { return mergedRuns; }
+		public long runMillis()   { return runMillis; }
+		public long mergeMillis() { return mergeMillis; }
+
+		@Override
+		public String toString() {
+			return String.format("%d lines, %d MB, %d runs in %d ms, %d merge passes (%d intermediate runs) in %d ms",
+					lines, bytes >> 20, runs, runMillis, mergePasses, mergedRuns, mergeMillis);
+		}
+	}
+
+	public ExternalSort() {
+		this(DEFAULT_RUN_BYTES, DEFAULT_FAN_IN, null);
+	}
+
+	/**
+	 * tmpDir null is the default temp directory of the system.
+	 */
+	public ExternalSort(long runBytes, int fanIn, Path tmpDir) {
+		if (runBytes < 1) throw new IllegalArgumentException("runBytes must be positive.");
+		if (fanIn < 2) throw new IllegalArgumentException("fanIn must be at least 2.");
+		this.runBytes = runBytes;
+		this.fanIn = fanIn;
+		this.tmpDir = tmpDir;
+	}
+
+	public Stats sort(Path input, Path output) throws IOException {
+		if (input == null) throw new IllegalArgumentException("First argument to sort() is null.");
+		if (output == null) throw new IllegalArgumentException("Second argument to sort() is null.");
+		Stats stats = new Stats();
+		stats.bytes = Files.size(input);
+		List<Path> temps = new ArrayList<Path>(); // every temp file, to delete them if the sort fails
+		try {
+			long time = System.nanoTime();
+			List<Path> runs = splitRuns(input, temps, stats);
+			stats.runMillis = (System.nanoTime() - time) / 1000000;
+			time = System.nanoTime();
+			while (runs.size() > fanIn) { // one pass: every group of fanIn runs to a new run
+				List<Path> merged = new ArrayList<Path>();
+				for (int i = 0; i < runs.size(); i += fanIn) {
+					List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+					if (group.size() == 1) { // a last group of one run goes to the next pass as it is
+						merged.add(group.get(0));
+						continue;
+					}
+					Path run = newRun(temps);
+					merged.add(run);
+					merge(group, run);
+					for (Path path : group) Files.delete(path);
+					stats.mergedRuns++;
+				}
+				runs = merged;
+				stats.mergePasses++;
+			}
+			merge(runs, output);
+			if (runs.size() > 1) stats.mergePasses++;
+			stats.mergeMillis = (System.nanoTime() - time) / 1000000;
+		}
+		finally {
+			for (Path temp : temps) Files.deleteIfExists(temp);
+		}
+		return stats;
+	}
+
+	private List<Path> splitRuns(Path input, List<Path> temps, Stats stats) throws IOException {
+		List<Path> runs = new ArrayList<Path>();
+		try (LineReader reader = new LineReader(new InputStreamReader(Files.newInputStream(input), StandardCharsets.UTF_8), MIN_BUFFER << 4)) {
+			List<String> lines = new ArrayList<String>();
+			long memory = 0;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+				memory += 2L * line.length() + 64; // chars (or bytes if latin-1), String and array headers, the list slot
+				stats.lines++;
+				if (memory >= runBytes) {
+					runs.add(writeRun(lines, temps));
+					lines.clear();
+					memory = 0;
+				}
+			}
+			if (!lines.isEmpty() || runs.isEmpty()) runs.add(writeRun(lines, temps));
+		}
+		stats.runs = runs.size();
+		return runs;
+	}
+
+	private Path writeRun(List<String> lines, List<Path> temps) throws IOException {
+		String[] a = lines.toArray(new String[lines.size()]);
+		MergeSort.parallelSort(a, new String[a.length], Comparator.naturalOrder(), 0, a.length - 1);
+		Path run = newRun(temps);
+		try (BufferedWriter writer = writer(run, MIN_BUFFER << 4)) {
+			for (String line : a) {
+				writer.write(line);
+				writer.write('\n');
+			}
+		}
+		return run;
+	}
+
+	private Path newRun(List<Path> temps) throws IOException {
+		Path run = tmpDir == null ? Files.createTempFile("run", ".txt") : Files.createTempFile(tmpDir, "run", ".txt");
+		temps.add(run);
+		return run;
+	}
+
+	private void merge(List<Path> runs, Path output) throws IOException {
+		int buffer = Math.max(MIN_BUFFER, MERGE_BYTES / Math.max(1, runs.size()));
+		BufferedReader[] readers = new BufferedReader[runs.size()];
+		try (BufferedWriter writer = writer(output, MIN_BUFFER << 4)) {
+			for (int i = 0; i < readers.length; i++) readers[i] = reader(runs.get(i), buffer);
+			Multiway.merge(readers, writer);
+		}
+		finally {
+			for (BufferedReader reader : readers) {
+				if (reader != null) reader.close();
+			}
+		}
+	}
+
+	private static BufferedReader reader(Path path, int buffer) throws IOException {
+		return new BufferedReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8), buffer);
+	}
+
+	private static BufferedWriter writer(Path path, int buffer) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8), buffer);
+	}
+
+	// TESTS ========================================================
+	public static void main(String[] args) throws IOException {
+		int n = 1000000;
+		Path dir = Files.createTempDirectory("externalsort");
+		Path input = dir.resolve("input.txt"), output = dir.resolve("output.txt");
+		try {
+			System.out.println("Test : " + n + " random lines, runs of 4 MB, fan-in 8 (two merge passes), against Arrays.sort");
+			Random random = new Random(24);
+			String[] lines = new String[n];
+			try (BufferedWriter writer = writer(input, 1 << 16)) {
+				StringBuilder line = new StringBuilder();
+				for (int i = 0; i < n; i++) {
+					line.setLength(0);
+					int length = 1 + random.nextInt(30);
+					for (int j = 0; j < length; j++) line.append((char) (j == 0 && i % 1000 == 0 ? 'é' : 'a' + random.nextInt(26)));
+					lines[i] = line.toString();
+					writer.write(lines[i]);
+					writer.write('\n');
+				}
+			}
+			Stats stats = new ExternalSort(4L << 20, 8, dir).sort(input, output);
+			System.out.println(stats);
+			Arrays.sort(lines);
+			try (BufferedReader reader = reader(output, 1 << 16)) {
+				for (int i = 0; i < n; i++) {
+					if (!lines[i].equals(reader.readLine())) throw new IllegalStateException("line " + i);
+				}
+				if (reader.readLine() != null) throw new IllegalStateException("more lines");
+			}
+			long left;
+			try (Stream<Path> files = Files.list(dir)) {
+				left = files.count();
+			}
+			if (left != 2) throw new IllegalStateException("temp files left: " + (left - 2));
+			System.out.println("ok, sorted and no temp file left");
+
+			System.out.println("Test : fan-in of runs - 1, the last group of the first pass is a single run");
+			Stats single = new ExternalSort(4L << 20, stats.runs() - 1, dir).sort(input, output);
+			System.out.println(single);
+			if (single.mergePasses() != 2 || single.mergedRuns() != 1) throw new IllegalStateException("single run merged");
+			try (BufferedReader reader = reader(output, 1 << 16)) {
+				for (int i = 0; i < n; i++) {
+					if (!lines[i].equals(reader.readLine())) throw new IllegalStateException("line " + i);
+				}
+			}
+			System.out.println("ok");
+
+			System.out.println("Test : lines end only at '\\n', CRs are kept");
+			Files.write(input, "b\r\na\r\nc\rd\nc\n".getBytes(StandardCharsets.UTF_8));
+			new ExternalSort(4L << 20, 8, dir).sort(input, output);
+			String sorted = new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+			if (!sorted.equals("a\r\nb\r\nc\nc\rd\n")) throw new IllegalStateException("CRLF: " + sorted.replace("\r", "\\r"));
+			System.out.println("ok");
+
+			System.out.println("Test : default runs of 64 MB, and an empty file");
+			Files.write(input, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+			System.out.println(new ExternalSort().sort(input, output));
+			Files.write(input, new byte[0]);
+			Stats empty = new ExternalSort().sort(input, output);
+			if (empty.lines() != 0 || Files.size(output) != 0) throw new IllegalStateException("empty");
+			System.out.println(empty);
+		}
+		finally {
+			try (Stream<Path> files = Files.list(dir)) {
+				for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+			}
+			Files.delete(dir);
+		}
+	}
+}
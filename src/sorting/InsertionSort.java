@@ -26,6 +26,14 @@ public class InsertionSort
 			}
 		}
 	}
+	// subarray a[lo..hi], for the small subarrays of quickSort
+	public static void sort(int[] a, int lo, int hi) {
+		for(int i = lo; i <= hi; i++) {
+			for(int j = i; j > lo && a[j] < a[j-1]; j--) {
+				swap(a, j, j-1);
+			}
+		}
+	}
 	private static void swap(int[] a, int i, int j) {
 		int tmp = a[i];
 		a[i] = a[j];
@@ -0,0 +1,91 @@
+package sorting;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Buffered reader of the lines of a text for ExternalSort and Multiway, that ends a line only at '\n'.
+ *  BufferedReader.readLine also ends a line at a lone '\r' and drops a '\r' before '\n', so sorting the lines
+ *  it reads loses the CRs of CRLF text and splits a record with a '\r' in two. Here a '\r' is a char like any
+ *  other, and writing each line with '\n' gives back the same text (the last line of the text may have no
+ *  '\n', it is read the same).
+ *
+ * Extra space: O(buffer + longest line)
+ */
+class LineReader implements Closeable
+{
+	private final Reader in;
+	private final char[] buffer;
+	private int position;
+	private int end;
+
+	public LineReader(Reader in, int buffer) {
+		this.in = in;
+		this.buffer = new char[buffer];
+	}
+
+	/**
+	 * Next line without its '\n', or null at the end of the text.
+	 */
+	public String readLine() throws IOException {
+		StringBuilder line = null; // only for a line that goes past the end of the buffer
+		while (true) {
+			if (position == end) {
+				int n = in.read(buffer, 0, buffer.length);
+				position = 0;
+				end = Math.max(n, 0);
+				if (n < 0) return line == null ? null : line.toString();
+			}
+			int i = position;
+			while (i < end && buffer[i] != '\n') i++;
+			if (i < end) {
+				String s = line == null ? new String(buffer, position, i - position) : line.append(buffer, position, i - position).toString();
+				position = i + 1;
+				return s;
+			}
+			if (line == null) line = new StringBuilder();
+			line.append(buffer, position, end - position);
+			position = end;
+		}
+	}
+
+	/**
+	 * The lines not read yet, an IOException is thrown as an UncheckedIOException.
+	 */
+	public Iterator<String> lines() {
+		return new Iterator<String>() {
+			private String next = read();
+
+			private String read() {
+				try {
+					return readLine();
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public String next() {
+				if (next == null) throw new NoSuchElementException("No more lines.");
+				String line = next;
+				next = read();
+				return line;
+			}
+		};
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
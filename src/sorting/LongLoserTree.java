@@ -0,0 +1,168 @@
+package sorting;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+/**
+ * LoserTree for streams of long keys, without boxing: merges k sorted inputs of longs into one sorted
+ *  sequence with ceil(lg k) compares per key. Equal keys come out in the order of their inputs.
+ *
+ * Extra space: O(k)
+ * Initialization: O(k)
+ * Operations: where k is the number of inputs.
+ *     nextLong: O(log k)
+ *     hasNext, peek, peekIndex: O(1)
+ */
+public class LongLoserTree implements PrimitiveIterator.OfLong
+{
+	private final PrimitiveIterator.OfLong[] inputs; // null when merging arrays
+	private final long[][] runs;                     // null when merging iterators
+	private final int[] positions;                   // next index of each run
+	private final int k;
+	private final long[] heads;
+	private final boolean[] exhausted;
+	private final int[] losers;         // losers[node] for nodes 1 to k-1, the leaf of input i is node k + i
+	private int winner;
+
+	public LongLoserTree(PrimitiveIterator.OfLong[] inputs) {
+		this(inputs == null ? null : inputs.clone(), null, inputs == null ? 0 : inputs.length);
+	}
+
+	/**
+	 * Merges sorted arrays, reading them directly by index.
+	 */
+	public LongLoserTree(long[]... runs) {
+		this(null, runs == null ? null : runs.clone(), runs == null ? 0 : runs.length);
+	}
+
+	private LongLoserTree(PrimitiveIterator.OfLong[] inputs, long[][] runs, int k) {
+		if (inputs == null && runs == null) throw new IllegalArgumentException("Argument to LongLoserTree() is null.");
+		this.inputs = inputs;
+		this.runs = runs;
+		this.k = k;
+		positions = runs == null ? null : new int[k];
+		heads = new long[k];
+		exhausted = new boolean[k];
+		losers = new int[Math.max(1, k)];
+		for (int i = 0; i < k; i++) {
+			advance(i);
+		}
+		if (k > 0) winner = build(1);
+	}
+
+	private int build(int node) {
+		if (node >= k) return node - k;
+		int left = build(2 * node);
+		int right = build(2 * node + 1);
+		if (beats(left, right)) {
+			losers[node] = right;
+			return left;
+		}
+		losers[node] = left;
+		return right;
+	}
+
+	private boolean beats(int i, int j) { // the head of an exhausted input is Long.MAX_VALUE, the flag breaks ties
+		if (heads[i] != heads[j]) return heads[i] < heads[j];
+		if (exhausted[i] != exhausted[j]) return exhausted[j];
+		return i < j;
+	}
+
+	private void advance(int i) {
+		if (runs != null) {
+			if (positions[i] < runs[i].length) heads[i] = runs[i][positions[i]++];
+			else                               exhaust(i);
+		}
+		else if (inputs[i].hasNext()) heads[i] = inputs[i].nextLong();
+		else                          exhaust(i);
+	}
+
+	private void exhaust(int i) {
+		heads[i] = Long.MAX_VALUE;
+		exhausted[i] = true;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return k > 0 && !exhausted[winner];
+	}
+
+	public long peek() {
+		if (!hasNext()) throw new NoSuchElementException("LongLoserTree underflow.");
+		return heads[winner];
+	}
+
+	public int peekIndex() {
+		if (!hasNext()) throw new NoSuchElementException("LongLoserTree underflow.");
+		return winner;
+	}
+
+	@Override
+	public long nextLong() {
+		if (!hasNext()) throw new NoSuchElementException("LongLoserTree underflow.");
+		long min = heads[winner];
+		advance(winner);
+		int w = winner;
+		for (int node = (k + w) / 2; node > 0; node /= 2) {
+			if (beats(losers[node], w)) {
+				int tmp = losers[node];
+				losers[node] = w;
+				w = tmp;
+			}
+		}
+		winner = w;
+		return min;
+	}
+
+	// TESTS ========================================================
+	public static void main(String[] args) {
+		System.out.println("Test : merges of k sorted runs of longs are the same as Arrays.sort");
+		Random random = new Random(25);
+		for (int k : new int[] { 0, 1, 2, 5, 128, 513 }) {
+			long[][] runs = new long[k][];
+			long[] all = new long[0];
+			for (int i = 0; i < k; i++) {
+				runs[i] = random.longs(random.nextInt(500), -1000, 1000).sorted().toArray();
+				if (i % 3 == 0 && runs[i].length > 0) runs[i][runs[i].length - 1] = Long.MAX_VALUE; // ties with exhausted inputs
+				all = LongStream.concat(Arrays.stream(all), Arrays.stream(runs[i])).toArray();
+			}
+			Arrays.sort(all);
+			PrimitiveIterator.OfLong[] inputs = new PrimitiveIterator.OfLong[k];
+			for (int i = 0; i < k; i++) inputs[i] = Arrays.stream(runs[i]).iterator();
+			for (LongLoserTree tree : new LongLoserTree[] { new LongLoserTree(runs), new LongLoserTree(inputs) }) {
+				for (int n = 0; n < all.length; n++) {
+					if (tree.nextLong() != all[n]) throw new IllegalStateException("k " + k + ", key " + n);
+				}
+				if (tree.hasNext()) throw new IllegalStateException("k " + k + ", more keys");
+			}
+		}
+		System.out.println("ok");
+
+		int n = 10000000, k = 256;
+		System.out.println("Test : ms to merge " + n + " longs from " + k + " runs");
+		long[][] runs = new long[k][];
+		for (int i = 0; i < k; i++) runs[i] = random.longs(n / k).sorted().toArray();
+		for (int round = 0; round < 2; round++) { // the first round warms up
+			long time = System.nanoTime();
+			LongLoserTree tree = new LongLoserTree(runs);
+			long sum = 0;
+			while (tree.hasNext()) sum += tree.nextLong();
+			long treeTime = System.nanoTime() - time;
+			time = System.nanoTime();
+			IndexMinPQ<Long> pq = new IndexMinPQ<Long>(k);
+			int[] next = new int[k];
+			for (int i = 0; i < k; i++) pq.insert(i, runs[i][next[i]++]);
+			while (!pq.isEmpty()) {
+				sum -= pq.minKey();
+				int i = pq.delMin();
+				if (next[i] < runs[i].length) pq.insert(i, runs[i][next[i]++]);
+			}
+			long pqTime = System.nanoTime() - time;
+			if (sum != 0) throw new IllegalStateException("different keys");
+			if (round > 0) System.out.printf("LongLoserTree %4d ms, IndexMinPQ<Long> %4d ms%n", treeTime / 1000000, pqTime / 1000000);
+		}
+	}
+}
@@ -0,0 +1,201 @@
+package sorting;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Loser tree (tournament tree) that merges k sorted inputs into one sorted sequence, for Multiway merges.
+ *
+ * The inputs are the leaves of a complete binary tree and every internal node keeps the input that lost the
+ *  match played there, the winner goes up to play the next one, and the overall winner (the input with the
+ *  smallest head) is kept apart. After the winner is taken its input moves to its next element, which
+ *  replays only the matches on the path from its leaf to the root against the losers stored there: ceil(lg k)
+ *  compares per element, half of the ~2 lg k of a binary heap (IndexMinPQ), that has to compare both children
+ *  at each level of a sink. An input that is exhausted loses every match.
+ * Stable: equal elements come out in the order of their inputs (the input with the smaller index wins a tie).
+ *
+ * Extra space: O(k)
+ * Initialization: O(k)
+ * Operations: where k is the number of inputs.
+ *     next: O(log k), ceil(lg k) compares.
+ *     hasNext, peek, peekIndex: O(1)
+ */
+public class LoserTree<T> implements Iterator<T>
+{
+	private final Iterator<? extends T>[] inputs;
+	private final Comparator<? super T> comparator;
+	private final int k;
+	private final Object[] heads;       // next element of each input
+	private final boolean[] exhausted;
+	private final int[] losers;         // losers[node] for nodes 1 to k-1, the leaf of input i is node k + i
+	private int winner;
+
+	@SuppressWarnings("unchecked")
+	public LoserTree(Iterator<? extends T>[] inputs, Comparator<? super T> comparator) {
+		if (inputs == null) throw new IllegalArgumentException("First argument to LoserTree() is null.");
+		if (comparator == null) throw new IllegalArgumentException("Second argument to LoserTree() is null.");
+		this.inputs = inputs.clone();
+		this.comparator = comparator;
+		k = inputs.length;
+		heads = new Object[k];
+		exhausted = new boolean[k];
+		losers = new int[Math.max(1, k)];
+		for (int i = 0; i < k; i++) {
+			advance(i);
+		}
+		if (k > 0) winner = build(1);
+	}
+
+	private int build(int node) { // plays the matches of the subtree, returns its winner
+		if (node >= k) return node - k;
+		int left = build(2 * node);
+		int right = build(2 * node + 1);
+		if (beats(left, right)) {
+			losers[node] = right;
+			return left;
+		}
+		losers[node] = left;
+		return right;
+	}
+
+	@SuppressWarnings("unchecked")
+	private boolean beats(int i, int j) {
+		if (exhausted[i]) return exhausted[j] && i < j;
+		if (exhausted[j]) return true;
+		int cmp = comparator.compare((T) heads[i], (T) heads[j]);
+		return cmp < 0 || (cmp == 0 && i < j);
+	}
+
+	private void advance(int i) {
+		if (inputs[i].hasNext()) heads[i] = inputs[i].next();
+		else {
+			heads[i] = null;
+			exhausted[i] = true;
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		return k > 0 && !exhausted[winner];
+	}
+
+	/**
+	 * Smallest head, without taking it.
+	 */
+	@SuppressWarnings("unchecked")
+	public T peek() {
+		if (!hasNext()) throw new NoSuchElementException("LoserTree underflow.");
+		return (T) heads[winner];
+	}
+
+	/**
+	 * Input of the smallest head.
+	 */
+	public int peekIndex() {
+		if (!hasNext()) throw new NoSuchElementException("LoserTree underflow.");
+		return winner;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T next() {
+		if (!hasNext()) throw new NoSuchElementException("LoserTree underflow.");
+		T min = (T) heads[winner];
+		advance(winner);
+		int w = winner;
+		for (int node = (k + w) / 2; node > 0; node /= 2) { // replay the path of the winner
+			if (beats(losers[node], w)) {
+				int tmp = losers[node];
+				losers[node] = w;
+				w = tmp;
+			}
+		}
+		winner = w;
+		return min;
+	}
+
+	// TESTS ========================================================
+	private static long compares;
+
+	private static class Counted implements Comparable<Counted> { // for the compares of IndexMinPQ
+		private final int key;
+		public Counted(int key) { this.key = key; }
+		@Override
+		public int compareTo(Counted that) {
+			compares++;
+			return Integer.compare(key, that.key);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public static void main(String[] args) {
+		System.out.println("Test : merges of k sorted runs are the same as Arrays.sort, and stable");
+		Random random = new Random(25);
+		for (int k : new int[] { 0, 1, 2, 3, 7, 64, 300 }) {
+			int[][] runs = new int[k][];
+			int total = 0;
+			for (int i = 0; i < k; i++) {
+				runs[i] = new int[random.nextInt(200)];
+				for (int j = 0; j < runs[i].length; j++) runs[i][j] = random.nextInt(100);
+				Arrays.sort(runs[i]);
+				total += runs[i].length;
+			}
+			Iterator<int[]>[] inputs = (Iterator<int[]>[]) new Iterator<?>[k];
+			int[] expected = new int[total];
+			for (int i = 0, n = 0; i < k; i++) {
+				int[][] pairs = new int[runs[i].length][];
+				for (int j = 0; j < runs[i].length; j++) {
+					pairs[j] = new int[] { runs[i][j], i }; // key, input
+					expected[n++] = runs[i][j];
+				}
+				inputs[i] = Arrays.asList(pairs).iterator();
+			}
+			Arrays.sort(expected);
+			LoserTree<int[]> tree = new LoserTree<int[]>(inputs, (a, b) -> Integer.compare(a[0], b[0]));
+			int[] last = null;
+			for (int n = 0; n < total; n++) {
+				int[] pair = tree.next();
+				if (pair[0] != expected[n]) throw new IllegalStateException("k " + k + ", element " + n);
+				if (last != null && last[0] == pair[0] && last[1] > pair[1]) throw new IllegalStateException("not stable");
+				last = pair;
+			}
+			if (tree.hasNext()) throw new IllegalStateException("k " + k + ", more elements");
+		}
+		System.out.println("ok");
+
+		int n = 1000000;
+		System.out.println("Test : compares per element and ms to merge " + n + " elements");
+		for (int k : new int[] { 8, 64, 256, 1024 }) {
+			int[][] runs = new int[k][n / k];
+			for (int[] run : runs) {
+				for (int j = 0; j < run.length; j++) run[j] = random.nextInt();
+				Arrays.sort(run);
+			}
+			for (int round = 0; round < 2; round++) { // the first round warms up
+				Iterator<Counted>[] inputs = (Iterator<Counted>[]) new Iterator<?>[k];
+				for (int i = 0; i < k; i++) inputs[i] = Arrays.stream(runs[i]).mapToObj(Counted::new).iterator();
+				compares = 0;
+				long time = System.nanoTime();
+				LoserTree<Counted> tree = new LoserTree<Counted>(inputs, Comparator.naturalOrder());
+				while (tree.hasNext()) tree.next();
+				long treeTime = System.nanoTime() - time, treeCompares = compares;
+
+				for (int i = 0; i < k; i++) inputs[i] = Arrays.stream(runs[i]).mapToObj(Counted::new).iterator();
+				compares = 0;
+				time = System.nanoTime();
+				IndexMinPQ<Counted> pq = new IndexMinPQ<Counted>(k);
+				for (int i = 0; i < k; i++) pq.insert(i, inputs[i].next());
+				while (!pq.isEmpty()) {
+					int i = pq.delMin();
+					if (inputs[i].hasNext()) pq.insert(i, inputs[i].next());
+				}
+				long pqTime = System.nanoTime() - time, pqCompares = compares;
+				if (round > 0) System.out.printf("k %4d: LoserTree %5.2f compares %4d ms, IndexMinPQ %5.2f compares %4d ms%n",
+						k, (double) treeCompares / (k * (n / k)), treeTime / 1000000, (double) pqCompares / (k * (n / k)), pqTime / 1000000);
+			}
+		}
+	}
+}
@@ -4,6 +4,8 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import util.RandomN;
 import util.Student;
@@ -98,6 +100,212 @@ public class MergeSort
 		}
 	}
 	
+	// parallel merge sort (fork-join)
+	private static final int PARALLEL_CUTOFF = 1 << 13; // below it a subarray is sorted by one thread
+	private static final int MERGE_CUTOFF = 1 << 13;    // below it two runs are merged by one thread
+
+	/**
+	 * Parallel merge sort in the common ForkJoinPool, with the same result as sort(a).
+	 * The two halves are sorted at the same time into the other array (a or tmp, alternating at each level,
+	 *  so no level copies before merging), and the merge of two runs is split in two independent merges:
+	 *  the middle element of the longer run goes to its final position, found by binary search in the other
+	 *  run, and the elements before it and after it are merged in parallel. So the span is O(log^3 n) and
+	 *  not O(n) as with a sequential merge at the top. One tmp buffer for the whole sort.
+	 */
+	public static void parallelSort(int[] a) {
+		if(a.length <= PARALLEL_CUTOFF) {
+			sort(a);
+			return;
+		}
+		int[] tmp = new int[a.length];
+		ForkJoinPool.commonPool().invoke(new IntSortTask(a, tmp, 0, a.length - 1, false));
+	}
+
+	private static class IntSortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int[] a, tmp;
+		private final int lo, hi;
+		private final boolean toTmp; // the sorted subarray goes to tmp instead of a
+
+		public IntSortTask(int[] a, int[] tmp, int lo, int hi, boolean toTmp) {
+			this.a = a;
+			this.tmp = tmp;
+			this.lo = lo;
+			this.hi = hi;
+			this.toTmp = toTmp;
+		}
+
+		@Override
+		protected void compute() {
+			if(hi - lo < PARALLEL_CUTOFF) {
+				sort(a, tmp, lo, hi);
+				if(toTmp) System.arraycopy(a, lo, tmp, lo, hi - lo + 1);
+				return;
+			}
+			int mid = (lo + hi) >>> 1;
+			invokeAll(new IntSortTask(a, tmp, lo, mid, !toTmp), new IntSortTask(a, tmp, mid + 1, hi, !toTmp));
+			if(toTmp) new IntMergeTask(a, tmp, lo, mid, mid + 1, hi, lo).compute();
+			else      new IntMergeTask(tmp, a, lo, mid, mid + 1, hi, lo).compute();
+		}
+	}
+
+	private static class IntMergeTask extends RecursiveAction { // merges src[lo1..hi1] and src[lo2..hi2] into dst from k
+		private static final long serialVersionUID = 1L;
+		private final int[] src, dst;
+		private final int lo1, hi1, lo2, hi2, k;
+
+		public IntMergeTask(int[] src, int[] dst, int lo1, int hi1, int lo2, int hi2, int k) {
+			this.src = src;
+			this.dst = dst;
+			this.lo1 = lo1;
+			this.hi1 = hi1;
+			this.lo2 = lo2;
+			this.hi2 = hi2;
+			this.k = k;
+		}
+
+		@Override
+		protected void compute() {
+			int n1 = hi1 - lo1 + 1, n2 = hi2 - lo2 + 1;
+			if(n1 + n2 <= MERGE_CUTOFF) {
+				int i = lo1, j = lo2;
+				for(int m = k; m < k + n1 + n2; m++) {
+					if(i > hi1)              dst[m] = src[j++];
+					else if(j > hi2)         dst[m] = src[i++];
+					else if(src[j] < src[i]) dst[m] = src[j++];
+					else                     dst[m] = src[i++];
+				}
+				return;
+			}
+			int m1, m2; // the runs are split before m1 and m2, src[m1] or src[m2] goes between them
+			if(n1 >= n2) {
+				m1 = (lo1 + hi1) >>> 1;
+				m2 = lowerBound(src, lo2, hi2, src[m1]);
+			}
+			else {
+				m2 = (lo2 + hi2) >>> 1;
+				m1 = upperBound(src, lo1, hi1, src[m2]);
+			}
+			int mk = k + (m1 - lo1) + (m2 - lo2);
+			invokeAll(new IntMergeTask(src, dst, lo1, m1 - 1, lo2, m2 - 1, k), new IntMergeTask(src, dst, m1, hi1, m2, hi2, mk));
+		}
+	}
+	private static int lowerBound(int[] a, int lo, int hi, int key) { // first index in lo..hi with a[i] >= key, or hi + 1
+		hi++;
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if(a[mid] < key) lo = mid + 1;
+			else             hi = mid;
+		}
+		return lo;
+	}
+	private static int upperBound(int[] a, int lo, int hi, int key) { // first index in lo..hi with a[i] > key, or hi + 1
+		hi++;
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if(a[mid] <= key) lo = mid + 1;
+			else              hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Parallel version of sort(a, tmp, comparator, lo, hi), stable like it: a merge takes the element of the
+	 *  left run when two are equal, and the split of a merge keeps the equal elements of the left run before
+	 *  the ones of the right run (lower bound in the right run, upper bound in the left one).
+	 */
+	public static <T> void parallelSort(T[] a, T[] tmp, Comparator<T> comparator, int lo, int hi) {
+		if(hi - lo < PARALLEL_CUTOFF) {
+			sort(a, tmp, comparator, lo, hi);
+			return;
+		}
+		ForkJoinPool.commonPool().invoke(new SortTask<T>(a, tmp, comparator, lo, hi, false));
+	}
+
+	private static class SortTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final T[] a, tmp;
+		private final Comparator<T> comparator;
+		private final int lo, hi;
+		private final boolean toTmp;
+
+		public SortTask(T[] a, T[] tmp, Comparator<T> comparator, int lo, int hi, boolean toTmp) {
+			this.a = a;
+			this.tmp = tmp;
+			this.comparator = comparator;
+			this.lo = lo;
+			this.hi = hi;
+			this.toTmp = toTmp;
+		}
+
+		@Override
+		protected void compute() {
+			if(hi - lo < PARALLEL_CUTOFF) {
+				sort(a, tmp, comparator, lo, hi);
+				if(toTmp) System.arraycopy(a, lo, tmp, lo, hi - lo + 1);
+				return;
+			}
+			int mid = (lo + hi) >>> 1;
+			invokeAll(new SortTask<T>(a, tmp, comparator, lo, mid, !toTmp), new SortTask<T>(a, tmp, comparator, mid + 1, hi, !toTmp));
+			if(toTmp) new MergeTask<T>(a, tmp, comparator, lo, mid, mid + 1, hi, lo).compute();
+			else      new MergeTask<T>(tmp, a, comparator, lo, mid, mid + 1, hi, lo).compute();
+		}
+	}
+
+	private static class MergeTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final T[] src, dst;
+		private final Comparator<T> comparator;
+		private final int lo1, hi1, lo2, hi2, k;
+
+		public MergeTask(T[] src, T[] dst, Comparator<T> comparator, int lo1, int hi1, int lo2, int hi2, int k) {
+			this.src = src;
+			this.dst = dst;
+			this.comparator = comparator;
+			this.lo1 = lo1;
+			this.hi1 = hi1;
+			this.lo2 = lo2;
+			this.hi2 = hi2;
+			this.k = k;
+		}
+
+		@Override
+		protected void compute() {
+			int n1 = hi1 - lo1 + 1, n2 = hi2 - lo2 + 1;
+			if(n1 + n2 <= MERGE_CUTOFF) {
+				int i = lo1, j = lo2;
+				for(int m = k; m < k + n1 + n2; m++) {
+					if(i > hi1) dst[m] = src[j++];
+					else if(j > hi2) dst[m] = src[i++];
+					else if(comparator.compare(src[j], src[i]) < 0) dst[m] = src[j++];
+					else dst[m] = src[i++]; // left first when equal (stable)
+				}
+				return;
+			}
+			int m1, m2;
+			if(n1 >= n2) {
+				m1 = (lo1 + hi1) >>> 1;
+				m2 = bound(src, lo2, hi2, src[m1], comparator, false);
+			}
+			else {
+				m2 = (lo2 + hi2) >>> 1;
+				m1 = bound(src, lo1, hi1, src[m2], comparator, true);
+			}
+			int mk = k + (m1 - lo1) + (m2 - lo2);
+			invokeAll(new MergeTask<T>(src, dst, comparator, lo1, m1 - 1, lo2, m2 - 1, k), new MergeTask<T>(src, dst, comparator, m1, hi1, m2, hi2, mk));
+		}
+	}
+	private static <T> int bound(T[] a, int lo, int hi, T key, Comparator<T> comparator, boolean upper) { // first index with a[i] >= key (> key if upper), or hi + 1
+		hi++;
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			int cmp = comparator.compare(a[mid], key);
+			if(cmp < 0 || (upper && cmp == 0)) lo = mid + 1;
+			else                               hi = mid;
+		}
+		return lo;
+	}
+
 	// TESTS ========================================================
 	public static void main(String[] args) {
 		int[] arr = { 4, 8, 1, 0, 3, 4, 9, 2 };
@@ -135,5 +343,43 @@ public class MergeSort
 		System.out.println("name order=           " + Arrays.toString(students));
 		sort(students, new Student[students.length], Student.BY_SECTION, 0, students.length - 1);
 		System.out.println("section order=        " + Arrays.toString(students));
+
+		System.out.println();
+		System.out.println("Test : parallelSort is the same as Arrays.sort, and stable for the generic sort");
+		java.util.Random random = new java.util.Random(19);
+		for(int n : new int[] { 0, 1, 100, 8193, 100000, 1000003 }) {
+			int[] ints = new int[n];
+			for(int i = 0; i < n; i++) ints[i] = random.nextInt(n / 10 + 1); // many equal keys
+			int[] expected = ints.clone();
+			Arrays.sort(expected);
+			parallelSort(ints);
+			if(!Arrays.equals(ints, expected)) throw new IllegalStateException("int[] " + n);
+			Student[] many = new Student[n];
+			for(int i = 0; i < n; i++) many[i] = new Student(i, "s" + random.nextInt(1000), random.nextInt(10));
+			Student[] sequential = many.clone();
+			sort(sequential, new Student[n], Student.BY_NAME, 0, n - 1);
+			sort(sequential, new Student[n], Student.BY_SECTION, 0, n - 1);
+			Student[] tmp = new Student[n];
+			parallelSort(many, tmp, Student.BY_NAME, 0, n - 1);
+			parallelSort(many, tmp, Student.BY_SECTION, 0, n - 1); // by section, and by name in each section
+			if(!Arrays.equals(many, sequential)) throw new IllegalStateException("Student[] " + n);
+		}
+		System.out.println("ok");
+
+		System.out.println("Test : ms to sort 10000000 random ints, cores: " + Runtime.getRuntime().availableProcessors());
+		int[] input = new int[10000000];
+		for(int i = 0; i < input.length; i++) input[i] = random.nextInt();
+		for(int round = 0; round < 3; round++) { // the first rounds warm up
+			int[] a1 = input.clone(), a2 = input.clone(), a3 = input.clone();
+			long t1 = System.nanoTime();
+			sort(a1);
+			long t2 = System.nanoTime();
+			parallelSort(a2);
+			long t3 = System.nanoTime();
+			Arrays.parallelSort(a3);
+			long t4 = System.nanoTime();
+			if(!Arrays.equals(a1, a2)) throw new IllegalStateException("parallelSort");
+			System.out.printf("sort %5d, parallelSort %5d, Arrays.parallelSort %5d%n", (t2 - t1) / 1000000, (t3 - t2) / 1000000, (t4 - t3) / 1000000);
+		}
 	}
 }
\ No newline at end of file
@@ -1,31 +1,60 @@
 package sorting;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.Scanner;
 
 /**
  * Multiway merges together the sorted input stream given as array
  *     into a single sorted output string on standard output.
+ *     The merge is done by a LoserTree (see LongLoserTree for streams of long keys).
  *  
  * @author joaquin
  */
 public class Multiway 
 {
+	private static final int LINE_BUFFER = 1 << 13;
+
 	private Multiway() { }
 
 	private static void merge(Scanner[] streams) {
-		int n = streams.length;
-		IndexMinPQ<String> pq = new IndexMinPQ<String>(n);
-		for (int i = 0; i < n; i++) 	{
-			if (streams[i].hasNext()) pq.insert(i, streams[i].next());			
-		}
-		while (!pq.isEmpty()) {
-			System.out.print(pq.minKey() + " ");
-			int i = pq.delMin();
-			if (streams[i].hasNext()) pq.insert(i, streams[i].next());
+		LoserTree<String> tree = new LoserTree<String>(streams, Comparator.naturalOrder());
+		while (tree.hasNext()) {
+			System.out.print(tree.next() + " ");
 		}
 		System.out.println();
 	}
 
+	/**
+	 * Merges the sorted lines of the inputs into output, a line each, with a LoserTree of the next line of
+	 *  every input (lg k compares per line, for fan-ins of hundreds of runs). Returns the number of lines written.
+	 * Lines end only at '\n' (see LineReader), a '\r' stays in its line.
+	 */
+	@SuppressWarnings("unchecked")
+	public static long merge(Reader[] inputs, Writer output) throws IOException {
+		Iterator<String>[] lines = (Iterator<String>[]) new Iterator<?>[inputs.length];
+		long n = 0;
+		try {
+			for (int i = 0; i < inputs.length; i++) {
+				lines[i] = new LineReader(inputs[i], LINE_BUFFER).lines();
+			}
+			LoserTree<String> tree = new LoserTree<String>(lines, Comparator.naturalOrder());
+			while (tree.hasNext()) {
+				output.write(tree.next());
+				output.write('\n');
+				n++;
+			}
+		}
+		catch (UncheckedIOException e) { // from the readers
+			throw e.getCause();
+		}
+		return n;
+	}
+
 	public static void main(String[] args) {
 		Scanner[] streams = {new Scanner("A B C F G I I Z"), new Scanner("B D H P Q Q"), new Scanner("A B E F J N")};
 		merge(streams);
@@ -4,6 +4,9 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
 
 import fundamentals.KnuthShuffle;
 import util.RandomN;
@@ -93,6 +96,143 @@ public class QuickSort
 		a[j] = temp;
 	}
 
+	// parallel quicksort (fork-join)
+	private static final int PARALLEL_CUTOFF = 1 << 13; // below it a subarray is sorted by one thread
+
+	/**
+	 * Parallel dual-pivot quicksort in the common ForkJoinPool.
+	 * Two random pivots p <= q split the subarray in three parts (< p, between p and q, > q) that are sorted
+	 *  at the same time. The pivots are random elements of the subarray instead of shuffling the whole array
+	 *  first (the shuffle is a sequential pass), so sorted inputs are not a worst case either. When p == q
+	 *  the subarray is split with the 3-way partition of sort(), so many equal keys are done in one pass.
+	 * Below CUTOFF elements: insertion sort.
+	 *
+	 *    |--------|---|-----------------|---|--------|
+	 *    |  < p   | p |  p <= x <= q    | q |  > q   |
+	 *    |--------|---|-----------------|---|--------|
+	 *    lo        lt                    gt        hi
+	 */
+	public static void parallelSort(int[] a) {
+		ForkJoinPool.commonPool().invoke(new DualPivotTask(a, 0, a.length - 1));
+	}
+
+	private static class DualPivotTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int[] a;
+		private final int lo, hi;
+
+		public DualPivotTask(int[] a, int lo, int hi) {
+			this.a = a;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected void compute() {
+			sort(lo, hi);
+		}
+
+		private void sort(int lo, int hi) {
+			if(lo + CUTOFF - 1 >= hi) {
+				InsertionSort.sort(a, lo, hi);
+				return;
+			}
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			swap(a, lo, random.nextInt(lo, hi + 1));
+			swap(a, hi, random.nextInt(lo + 1, hi + 1));
+			if(a[lo] > a[hi]) swap(a, lo, hi);
+			int p = a[lo], q = a[hi];
+			int lt, gt;
+			if(p == q) { // 3-way partition, the keys equal to the pivot are done
+				lt = lo;
+				gt = hi;
+				int i = lo + 1;
+				while(i <= gt) {
+					if     (a[i] < p) swap(a, lt++, i++);
+					else if(a[i] > p) swap(a, gt--, i);
+					else              i++;
+				}
+				if(hi - lo < PARALLEL_CUTOFF) {
+					sort(lo, lt - 1);
+					sort(gt + 1, hi);
+				}
+				else invokeAll(new DualPivotTask(a, lo, lt - 1), new DualPivotTask(a, gt + 1, hi));
+				return;
+			}
+			lt = lo + 1;
+			gt = hi - 1;
+			int i = lo + 1;
+			while(i <= gt) {
+				if     (a[i] < p) swap(a, lt++, i++);
+				else if(a[i] > q) swap(a, i, gt--);
+				else              i++;
+			}
+			swap(a, lo, --lt);
+			swap(a, hi, ++gt);
+			if(hi - lo < PARALLEL_CUTOFF) {
+				sort(lo, lt - 1);
+				sort(lt + 1, gt - 1);
+				sort(gt + 1, hi);
+			}
+			else invokeAll(new DualPivotTask(a, lo, lt - 1), new DualPivotTask(a, lt + 1, gt - 1), new DualPivotTask(a, gt + 1, hi));
+		}
+	}
+
+	/**
+	 * Parallel version of sort3Way(a, comparator) in the common ForkJoinPool: the same 3-way partition, with a
+	 *  random pivot in each subarray instead of the shuffle, and the parts less and greater than the pivot
+	 *  sorted at the same time.
+	 */
+	public static <T> void parallelSort3Way(T[] a, Comparator<T> comparator) {
+		ForkJoinPool.commonPool().invoke(new Sort3WayTask<T>(a, comparator, 0, a.length - 1));
+	}
+
+	private static class Sort3WayTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final T[] a;
+		private final Comparator<T> comparator;
+		private final int lo, hi;
+
+		public Sort3WayTask(T[] a, Comparator<T> comparator, int lo, int hi) {
+			this.a = a;
+			this.comparator = comparator;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected void compute() {
+			sort(lo, hi);
+		}
+
+		private void sort(int lo, int hi) {
+			if(lo + CUTOFF - 1 >= hi) {
+				InsertionSort.sort(a, comparator, lo, hi);
+				return;
+			}
+			swap(a, lo, ThreadLocalRandom.current().nextInt(lo, hi + 1));
+			int lt = lo;
+			int gt = hi;
+			T pivot = a[lo];
+			int i = lo + 1;
+			while (i <= gt)
+			{
+				if(comparator.compare(a[i], pivot) < 0) {
+					swap(a, lt++, i++);
+				} else if(comparator.compare(pivot, a[i]) < 0) {
+					swap(a, i, gt--);
+				} else {
+					i++;
+				}
+			}
+			if(hi - lo < PARALLEL_CUTOFF) {
+				sort(lo, lt - 1);
+				sort(gt + 1, hi);
+			}
+			else invokeAll(new Sort3WayTask<T>(a, comparator, lo, lt - 1), new Sort3WayTask<T>(a, comparator, gt + 1, hi));
+		}
+	}
+
 	// TESTS ========================================================
 	public static void main(String[] args) {
 		int[] arr = { 4, 8, 1, 0, 3, 4, 9, 2 };
@@ -128,5 +268,44 @@ public class QuickSort
 		System.out.println("name order=           " + Arrays.toString(students));
 		sort3Way(students, Student.BY_SECTION);
 		System.out.println("section order=        " + Arrays.toString(students));
+
+		System.out.println();
+		System.out.println("Test : parallelSort and parallelSort3Way are the same as Arrays.sort");
+		java.util.Random random = new java.util.Random(20);
+		for(int n : new int[] { 0, 1, 7, 100, 8193, 1000003 }) {
+			for(int kind = 0; kind < 4; kind++) { // random, sorted, reversed, few distinct keys
+				int[] ints = new int[n];
+				for(int i = 0; i < n; i++) ints[i] = kind == 0 ? random.nextInt() : kind == 1 ? i : kind == 2 ? n - i : random.nextInt(4);
+				int[] expected = ints.clone();
+				Arrays.sort(expected);
+				Integer[] boxed = new Integer[n];
+				for(int i = 0; i < n; i++) boxed[i] = ints[i];
+				parallelSort(ints);
+				parallelSort3Way(boxed, Integer::compareTo);
+				for(int i = 0; i < n; i++) {
+					if(ints[i] != expected[i] || boxed[i] != expected[i]) throw new IllegalStateException("n " + n + ", kind " + kind);
+				}
+			}
+		}
+		System.out.println("ok");
+
+		int n = 10000000;
+		System.out.println("Test : ms to sort " + n + " ints, cores: " + Runtime.getRuntime().availableProcessors());
+		for(String kind : new String[] { "random", "sorted", "duplicates" }) {
+			int[] input = new int[n];
+			for(int i = 0; i < n; i++) input[i] = kind.equals("random") ? random.nextInt() : kind.equals("sorted") ? i : random.nextInt(100);
+			for(int round = 0; round < 2; round++) { // the first round warms up
+				int[] a1 = input.clone(), a2 = input.clone(), a3 = input.clone();
+				long t1 = System.nanoTime();
+				sort(a1);
+				long t2 = System.nanoTime();
+				parallelSort(a2);
+				long t3 = System.nanoTime();
+				Arrays.parallelSort(a3);
+				long t4 = System.nanoTime();
+				if(!Arrays.equals(a2, a3)) throw new IllegalStateException("parallelSort");
+				if(round > 0) System.out.printf("%-10s sort %5d, parallelSort %5d, Arrays.parallelSort %5d%n", kind, (t2 - t1) / 1000000, (t3 - t2) / 1000000, (t4 - t3) / 1000000);
+			}
+		}
 	}
 }
@@ -3,7 +3,12 @@ package strings;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.ToLongFunction;
 
 /**
  * Least-Significant-Digit first string sort: sort an array of w-character strings.
@@ -12,8 +17,9 @@ import java.util.Scanner;
  * Extra space: O(n + R)
  * Operations: where n is the length of array, w length of string and R the radix.
  *     sort: O(w * n)
+ *     sort int[], long[], objects by a long key: O(n), 4 or 8 passes of a byte (parallel).
  *     
- * NOTE: usefull for short fixed-length strings.
+ * NOTE: usefull for short fixed-length strings, and for ids and timestamps.
  */
 public class LSD 
 {
@@ -34,6 +40,189 @@ public class LSD
 		}
 	}
 
+	/**
+	 * Sorts the keys of w bytes buffer[offsets[i] .. offsets[i] + w - 1] without making Strings, moving the offsets
+	 *  (the buffer does not change). Bytes are compared unsigned.
+	 */
+	public static void sort(byte[] buffer, int[] offsets, int w) {
+		int n = offsets.length;
+		int R = 256;
+		int[] aux = new int[n];
+		for(int d = w-1; d >= 0; d--) {
+			int[] count = new int[R+1];
+			for(int i = 0; i < n; i++)
+				count[(buffer[offsets[i] + d] & 0xFF) + 1]++;
+			for(int i = 0; i < R; i++)
+				count[i + 1] += count[i];
+			for(int i = 0; i < n; i++)
+				aux[count[buffer[offsets[i] + d] & 0xFF]++] = offsets[i];
+			for(int i = 0; i < n; i++)
+				offsets[i] = aux[i];
+		}
+	}
+
+	// radix sort of primitive keys, 8 bits per pass
+	private static final int BITS = 8;
+	private static final int RADIX = 1 << BITS;
+	private static final int MASK = RADIX - 1;
+	private static final int BLOCK = 1 << 16; // minimum number of keys per thread
+
+	/**
+	 * LSD radix sort of ints, a byte per pass (4 passes), Stable, O(n) time.
+	 *
+	 * The array is split in one block per thread of the common ForkJoinPool. In each pass every block counts
+	 *  its digits in its own histogram, the histograms are turned into the first index of each (digit, block),
+	 *  in digit order and block order inside a digit, and every block moves its keys to aux at the same time
+	 *  (in order, so the sort is stable). The prefix sums are over RADIX * blocks counters, not over n, so they
+	 *  are done by one thread.
+	 * A first pass counts all the digits at once: a digit that is the same in every key (the high bytes of
+	 *  small ids or of timestamps) skips its pass. The sign bit is flipped in the last digit, so negative keys
+	 *  come first.
+	 */
+	public static void sort(int[] a) {
+		int n = a.length;
+		int blocks = blocks(n);
+		boolean[] skip = new boolean[Integer.SIZE / BITS];
+		int[][] count = new int[blocks][RADIX * skip.length];
+		forEachBlock(n, blocks, (t, lo, hi) -> {
+			int[] c = count[t];
+			for (int i = lo; i < hi; i++) {
+				for (int pass = 0; pass < skip.length; pass++) c[pass * RADIX + digit(a[i], pass)]++;
+			}
+		});
+		constantDigits(count, skip, n);
+		int[] src = a, dst = new int[n];
+		for (int pass = 0; pass < skip.length; pass++) {
+			if (skip[pass]) continue;
+			int p = pass;
+			int[] from = src, to = dst;
+			forEachBlock(n, blocks, (t, lo, hi) -> {
+				int[] c = count[t];
+				Arrays.fill(c, 0, RADIX, 0);
+				for (int i = lo; i < hi; i++) c[digit(from[i], p)]++;
+			});
+			offsets(count);
+			forEachBlock(n, blocks, (t, lo, hi) -> {
+				int[] next = count[t];
+				for (int i = lo; i < hi; i++) to[next[digit(from[i], p)]++] = from[i];
+			});
+			src = to;
+			dst = from;
+		}
+		if (src != a) System.arraycopy(src, 0, a, 0, n);
+	}
+	private static int digit(int key, int pass) {
+		int digit = (key >>> (pass * BITS)) & MASK;
+		return pass == Integer.SIZE / BITS - 1 ? digit ^ (RADIX >>> 1) : digit;
+	}
+
+	/**
+	 * LSD radix sort of longs, a byte per pass (8 passes), Stable, O(n) time. Same as sort(int[]).
+	 */
+	public static void sort(long[] a) {
+		sort(a, null);
+	}
+
+	/**
+	 * Sorts the objects by a long key, Stable, O(n) time: the keys are extracted once and sorted as in
+	 *  sort(long[]), each object moving with its key.
+	 */
+	public static <T> void sort(T[] a, ToLongFunction<? super T> key) {
+		long[] keys = new long[a.length];
+		for (int i = 0; i < a.length; i++) keys[i] = key.applyAsLong(a[i]);
+		sort(keys, a);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> void sort(long[] a, T[] items) { // items (or null) in the same order as the keys
+		int n = a.length;
+		int blocks = blocks(n);
+		boolean[] skip = new boolean[Long.SIZE / BITS];
+		int[][] count = new int[blocks][RADIX * skip.length];
+		forEachBlock(n, blocks, (t, lo, hi) -> {
+			int[] c = count[t];
+			for (int i = lo; i < hi; i++) {
+				for (int pass = 0; pass < skip.length; pass++) c[pass * RADIX + digit(a[i], pass)]++;
+			}
+		});
+		constantDigits(count, skip, n);
+		long[] src = a, dst = new long[n];
+		T[] srcItems = items, dstItems = items == null ? null : (T[]) new Object[n];
+		for (int pass = 0; pass < skip.length; pass++) {
+			if (skip[pass]) continue;
+			int p = pass;
+			long[] from = src, to = dst;
+			T[] fromItems = srcItems, toItems = dstItems;
+			forEachBlock(n, blocks, (t, lo, hi) -> {
+				int[] c = count[t];
+				Arrays.fill(c, 0, RADIX, 0);
+				for (int i = lo; i < hi; i++) c[digit(from[i], p)]++;
+			});
+			offsets(count);
+			forEachBlock(n, blocks, (t, lo, hi) -> {
+				int[] next = count[t];
+				for (int i = lo; i < hi; i++) {
+					int j = next[digit(from[i], p)]++;
+					to[j] = from[i];
+					if (toItems != null) toItems[j] = fromItems[i];
+				}
+			});
+			src = to;
+			dst = from;
+			srcItems = toItems;
+			dstItems = fromItems;
+		}
+		if (src != a) System.arraycopy(src, 0, a, 0, n);
+		if (items != null && srcItems != items) System.arraycopy(srcItems, 0, items, 0, n);
+	}
+	private static int digit(long key, int pass) {
+		int digit = (int) (key >>> (pass * BITS)) & MASK;
+		return pass == Long.SIZE / BITS - 1 ? digit ^ (RADIX >>> 1) : digit;
+	}
+
+	private interface BlockAction {
+		void run(int block, int lo, int hi); // keys lo to hi - 1
+	}
+
+	private static int blocks(int n) {
+		return Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), n / BLOCK));
+	}
+
+	private static void forEachBlock(int n, int blocks, BlockAction action) {
+		if (blocks == 1) {
+			action.run(0, 0, n);
+			return;
+		}
+		ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[blocks];
+		for (int t = 0; t < blocks; t++) {
+			int block = t;
+			tasks[t] = ForkJoinTask.adapt(() -> action.run(block, (int) ((long) n * block / blocks), (int) ((long) n * (block + 1) / blocks)));
+		}
+		ForkJoinTask.invokeAll(tasks);
+	}
+
+	private static void constantDigits(int[][] count, boolean[] skip, int n) { // from the counts of all the digits
+		for (int pass = 0; pass < skip.length; pass++) {
+			for (int digit = pass * RADIX; digit < (pass + 1) * RADIX; digit++) {
+				int total = 0;
+				for (int[] c : count) total += c[digit];
+				if (total == n) skip[pass] = true;
+			}
+		}
+	}
+
+	private static void offsets(int[][] count) { // counts of a pass to the first index of each digit of each block
+		int sum = 0;
+		for (int digit = 0; digit < RADIX; digit++) {
+			for (int[] c : count) {
+				int tmp = c[digit];
+				c[digit] = sum;
+				sum += tmp;
+			}
+		}
+	}
+
+	// TESTS ========================================================
 	public static void main(String[] args) throws FileNotFoundException {
 		Scanner sc = new Scanner(new FileReader("resources/strings/words3.txt"));
 		ArrayList<String> arr = new ArrayList<String>();
@@ -47,5 +236,76 @@ public class LSD
 		sort(a, w);
 		for (int i = 0; i < n; i++)
 			System.out.println(a[i]);
+
+		System.out.println("Test : radix sorts of int[], long[] and objects by key are the same as Arrays.sort");
+		Random random = new Random(22);
+		for (int size : new int[] { 0, 1, 100, 70000, 1000003 }) {
+			int[] ints = new int[size];
+			long[] longs = new long[size];
+			Integer[] ids = new Integer[size];
+			for (int i = 0; i < size; i++) {
+				ints[i] = random.nextInt();
+				longs[i] = i % 3 == 0 ? random.nextLong() : 1700000000000L + random.nextInt(1000000); // timestamps
+				ids[i] = i;
+			}
+			int[] expectedInts = ints.clone();
+			long[] expectedLongs = longs.clone();
+			Arrays.sort(expectedInts);
+			Arrays.sort(expectedLongs);
+			sort(ints);
+			long[] byKey = longs.clone();
+			sort(longs);
+			sort(ids, id -> byKey[id] / 1000); // many equal keys, the ids of each key stay in order
+			if (!Arrays.equals(ints, expectedInts)) throw new IllegalStateException("int[] " + size);
+			if (!Arrays.equals(longs, expectedLongs)) throw new IllegalStateException("long[] " + size);
+			for (int i = 1; i < size; i++) {
+				long k1 = byKey[ids[i - 1]] / 1000, k2 = byKey[ids[i]] / 1000;
+				if (k1 > k2 || (k1 == k2 && ids[i - 1] > ids[i])) throw new IllegalStateException("objects " + size);
+			}
+		}
+		System.out.println("ok");
+
+		System.out.println("Test : sort of byte[] slices of width w is the same as sort of the Strings");
+		byte[] buffer = new byte[n * w];
+		int[] offsets = new int[n];
+		for (int i = 0; i < n; i++) {
+			offsets[i] = (n - 1 - i) * w; // the keys of the file in reverse order in the buffer
+			System.arraycopy(arr.get(i).getBytes(java.nio.charset.StandardCharsets.US_ASCII), 0, buffer, offsets[i], w);
+		}
+		sort(buffer, offsets, w);
+		for (int i = 0; i < n; i++) {
+			if (!new String(buffer, offsets[i], w, java.nio.charset.StandardCharsets.US_ASCII).equals(a[i])) throw new IllegalStateException("bytes " + i);
+		}
+		System.out.println("ok");
+
+		int size = 10000000;
+		System.out.println("Test : ms to sort " + size + " keys, cores: " + Runtime.getRuntime().availableProcessors());
+		int[] ints = new int[size];
+		long[] timestamps = new long[size];
+		for (int i = 0; i < size; i++) {
+			ints[i] = random.nextInt();
+			timestamps[i] = 1700000000000L + random.nextInt(1 << 30); // the 3 high bytes are the same
+		}
+		for (int round = 0; round < 2; round++) { // the first round warms up
+			int[] i1 = ints.clone(), i2 = ints.clone(), i3 = ints.clone();
+			long[] l1 = timestamps.clone(), l2 = timestamps.clone(), l3 = timestamps.clone();
+			long t1 = System.nanoTime();
+			sort(i1);
+			long t2 = System.nanoTime();
+			Arrays.sort(i2);
+			long t3 = System.nanoTime();
+			Arrays.parallelSort(i3);
+			long t4 = System.nanoTime();
+			sort(l1);
+			long t5 = System.nanoTime();
+			Arrays.sort(l2);
+			long t6 = System.nanoTime();
+			Arrays.parallelSort(l3);
+			long t7 = System.nanoTime();
+			if (round > 0) {
+				System.out.printf("int[]        LSD %5d, Arrays.sort %5d, Arrays.parallelSort %5d%n", (t2 - t1) / 1000000, (t3 - t2) / 1000000, (t4 - t3) / 1000000);
+				System.out.printf("timestamps   LSD %5d, Arrays.sort %5d, Arrays.parallelSort %5d%n", (t5 - t4) / 1000000, (t6 - t5) / 1000000, (t7 - t6) / 1000000);
+			}
+		}
 	}
 }
\ No newline at end of file
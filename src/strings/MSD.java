@@ -2,8 +2,14 @@ package strings;
 
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Most-Significant-Digit first string sort: sort a random array of w-character strings.
@@ -39,7 +45,7 @@ public class MSD
 			count[i + 1] += count[i];
 		for(int i = lo; i <= hi; i++) 
 			aux[count[charAt(arr[i], d) + 1]++] = arr[i];
-		for(int i = 0; i <= hi; i++) 
+		for(int i = lo; i <= hi; i++) 
 			arr[i] = aux[i - lo];
 		for(int i = 0; i < R; i++) 
 			sort(arr, aux, lo + count[i], lo + count[i + 1] - 1, d + 1);
@@ -71,6 +77,170 @@ public class MSD
 		return s.charAt(d);
 	}
 
+	// keys as byte[] slices
+	/**
+	 * Sorts the keys buffer[offsets[i] .. offsets[i] + lengths[i] - 1] without making Strings, moving offsets[i]
+	 *  and lengths[i] together (the buffer does not change). Bytes are compared unsigned, so UTF-8 keys are in the
+	 *  order of their code points.
+	 */
+	public static void sort(byte[] buffer, int[] offsets, int[] lengths) {
+		if (offsets.length != lengths.length) throw new IllegalArgumentException("offsets and lengths must have the same length.");
+		int n = offsets.length;
+		sort(buffer, offsets, lengths, new int[n], new int[n], 0, n - 1, 0);
+	}
+
+	private static void sort(byte[] buffer, int[] offsets, int[] lengths, int[] auxOffsets, int[] auxLengths, int lo, int hi, int d) {
+		if (hi <= lo + CUTOFF) {
+			insertion(buffer, offsets, lengths, lo, hi, d);
+			return;
+		}
+		int[] count = new int[R + 2];
+		for(int i = lo; i <= hi; i++)
+			count[byteAt(buffer, offsets[i], lengths[i], d) + 2]++;
+		for(int i = 0; i < R + 1; i++)
+			count[i + 1] += count[i];
+		for(int i = lo; i <= hi; i++) {
+			int j = count[byteAt(buffer, offsets[i], lengths[i], d) + 1]++;
+			auxOffsets[j] = offsets[i];
+			auxLengths[j] = lengths[i];
+		}
+		for(int i = lo; i <= hi; i++) {
+			offsets[i] = auxOffsets[i - lo];
+			lengths[i] = auxLengths[i - lo];
+		}
+		for(int i = 0; i < R; i++)
+			sort(buffer, offsets, lengths, auxOffsets, auxLengths, lo + count[i], lo + count[i + 1] - 1, d + 1);
+	}
+
+	private static void insertion(byte[] buffer, int[] offsets, int[] lengths, int lo, int hi, int d) {
+		for (int i = lo; i <= hi; i++)
+			for (int j = i; j > lo && less(buffer, offsets[j], lengths[j], offsets[j-1], lengths[j-1], d); j--) {
+				swap(offsets, j, j-1);
+				swap(lengths, j, j-1);
+			}
+	}
+
+	private static void swap(int[] a, int i, int j) {
+		int tmp = a[i];
+		a[i] = a[j];
+		a[j] = tmp;
+	}
+
+	private static boolean less(byte[] buffer, int v, int vLength, int w, int wLength, int d) {
+		for (int i = d; i < Math.min(vLength, wLength); i++) {
+			int a = buffer[v + i] & 0xFF, b = buffer[w + i] & 0xFF;
+			if (a < b) return true;
+			if (a > b) return false;
+		}
+		return vLength < wLength;
+	}
+
+	private static int byteAt(byte[] buffer, int offset, int length, int d) {
+		if(d == length)
+			return -1;
+		return buffer[offset + d] & 0xFF;
+	}
+
+	// parallel in place MSD (American flag sort)
+	private static final int PARALLEL_CUTOFF = 1 << 14; // buckets of at least this size are sorted by another task
+	private static final int QUICKSORT_CUTOFF = 1 << 8; // smaller subarrays go to MSD3WayQuickSort
+
+	/**
+	 * Parallel in place MSD (American flag sort), Not Stable.
+	 * Each pass counts the keys of every bucket for character d and then moves every key to its bucket by
+	 *  cycles of swaps, so there is no aux array and the count arrays of each depth are allocated once and
+	 *  reused by every subarray at that depth. The buckets are independent subarrays: the big ones are sorted
+	 *  by other tasks of the common ForkJoinPool, the others by the same task.
+	 * A subarray whose keys all have the same character d goes on to character d + 1 without moving anything.
+	 * Small subarrays, and skewed ones (almost all the keys in one bucket, where a pass of R counts moves
+	 *  almost nothing), are sorted with MSD3WayQuickSort from character d.
+	 * Same alphabet as sort(): characters less than R.
+	 */
+	public static void parallelSort(String[] a) {
+		ForkJoinPool.commonPool().invoke(new AmericanFlagTask(a, 0, a.length - 1, 0));
+	}
+
+	private static class AmericanFlagTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final String[] a;
+		private final int lo, hi, d;
+		private int[][] counts = new int[8][]; // by depth from d, reused
+		private int[][] nexts = new int[8][];
+
+		public AmericanFlagTask(String[] a, int lo, int hi, int d) {
+			this.a = a;
+			this.lo = lo;
+			this.hi = hi;
+			this.d = d;
+		}
+
+		@Override
+		protected void compute() {
+			sort(lo, hi, d);
+		}
+
+		private void sort(int lo, int hi, int d) {
+			if (hi - lo < QUICKSORT_CUTOFF) {
+				MSD3WayQuickSort.sort(a, lo, hi, d);
+				return;
+			}
+			int level = d - this.d;
+			if (level == counts.length) {
+				counts = Arrays.copyOf(counts, 2 * level);
+				nexts = Arrays.copyOf(nexts, 2 * level);
+			}
+			if (counts[level] == null) {
+				counts[level] = new int[R + 2];
+				nexts[level] = new int[R + 1];
+			}
+			int[] count = counts[level]; // count[b + 1] is the first index of bucket b, bucket 0 the keys of length d
+			int[] next = nexts[level];   // next index to fill in each bucket
+			Arrays.fill(count, 0);
+			for (int i = lo; i <= hi; i++)
+				count[charAt(a[i], d) + 2]++;
+			int max = 0;
+			for (int b = 0; b < R + 1; b++) max = Math.max(max, count[b + 1]);
+			if (max == hi - lo + 1) { // the same character d in every key: nothing to move
+				if (count[1] == max) return; // all the keys end at d, so they are equal
+				sort(lo, hi, d + 1);
+				return;
+			}
+			if (max > (hi - lo + 1) - ((hi - lo + 1) >> 4)) { // skewed
+				MSD3WayQuickSort.sort(a, lo, hi, d);
+				return;
+			}
+			count[0] = lo;
+			for (int b = 0; b < R + 1; b++) {
+				count[b + 1] += count[b];
+				next[b] = count[b];
+			}
+			for (int b = 0; b < R + 1; b++) {
+				while (next[b] < count[b + 1]) {
+					String s = a[next[b]];
+					int c = charAt(s, d) + 1;
+					while (c != b) { // s goes to its bucket, and the key that was there is the next to place
+						String t = a[next[c]];
+						a[next[c]++] = s;
+						s = t;
+						c = charAt(s, d) + 1;
+					}
+					a[next[b]++] = s;
+				}
+			}
+			List<AmericanFlagTask> tasks = new ArrayList<AmericanFlagTask>();
+			for (int b = 1; b < R + 1; b++) {
+				if (count[b + 1] - count[b] >= PARALLEL_CUTOFF) tasks.add(new AmericanFlagTask(a, count[b], count[b + 1] - 1, d + 1));
+			}
+			for (AmericanFlagTask task : tasks) task.fork();
+			for (int b = 1; b < R + 1; b++) {
+				int size = count[b + 1] - count[b];
+				if (size > 1 && size < PARALLEL_CUTOFF) sort(count[b], count[b + 1] - 1, d + 1);
+			}
+			for (AmericanFlagTask task : tasks) task.join();
+		}
+	}
+
+	// TESTS ========================================================
 	public static void main(String[] args) throws FileNotFoundException {
 		Scanner sc = new Scanner(new FileReader("resources/strings/shells.txt"));
 		ArrayList<String> arr = new ArrayList<String>();
@@ -83,5 +253,81 @@ public class MSD
 		sort(a);
 		for (int i = 0; i < n; i++)
 			System.out.println(a[i]);
+
+		System.out.println("Test : parallelSort is the same as Arrays.sort");
+		Random random = new Random(21);
+		for (int size : new int[] { 0, 1, 100, 5000, 100000, 1000000 }) {
+			String[] keys = logKeys(size, random);
+			String[] expected = keys.clone();
+			Arrays.sort(expected);
+			parallelSort(keys);
+			if (!Arrays.equals(keys, expected)) throw new IllegalStateException("size " + size);
+		}
+		String[] same = new String[100000]; // one bucket at every character, then all equal
+		for (int i = 0; i < same.length; i++) same[i] = i % 2 == 0 ? "host-07 2024" : "host-07 2024" + (char) ('a' + i % 26);
+		String[] sorted = same.clone();
+		Arrays.sort(sorted);
+		parallelSort(same);
+		if (!Arrays.equals(same, sorted)) throw new IllegalStateException("common prefix");
+		System.out.println("ok");
+
+		System.out.println("Test : sorts of byte[] slices are the same as Arrays.sort of the Strings");
+		String[] keys = logKeys(100000, random);
+		keys[0] = "caf\u00e9";
+		keys[1] = "cafe";
+		keys[2] = "caf";
+		byte[][] encoded = new byte[keys.length][];
+		int total = 0;
+		for (int i = 0; i < keys.length; i++) {
+			encoded[i] = keys[i].getBytes(StandardCharsets.UTF_8);
+			total += encoded[i].length;
+		}
+		byte[] buffer = new byte[total];
+		int[] offsets = new int[keys.length], lengths = new int[keys.length];
+		for (int i = 0, offset = 0; i < keys.length; offset += lengths[i++]) { // all the keys in one buffer
+			System.arraycopy(encoded[i], 0, buffer, offset, encoded[i].length);
+			offsets[i] = offset;
+			lengths[i] = encoded[i].length;
+		}
+		String[] expected = keys.clone();
+		Arrays.sort(expected);
+		int[] offsets3Way = offsets.clone(), lengths3Way = lengths.clone();
+		sort(buffer, offsets, lengths);
+		MSD3WayQuickSort.sort(buffer, offsets3Way, lengths3Way);
+		for (int i = 0; i < keys.length; i++) {
+			if (!new String(buffer, offsets[i], lengths[i], StandardCharsets.UTF_8).equals(expected[i])) throw new IllegalStateException("MSD " + i);
+			if (!new String(buffer, offsets3Way[i], lengths3Way[i], StandardCharsets.UTF_8).equals(expected[i])) throw new IllegalStateException("MSD3WayQuickSort " + i);
+		}
+		System.out.println("ok");
+
+		int size = 2000000;
+		System.out.println("Test : ms to sort " + size + " log keys, cores: " + Runtime.getRuntime().availableProcessors());
+		keys = logKeys(size, random);
+		for (int round = 0; round < 2; round++) { // the first round warms up
+			String[] a1 = keys.clone(), a2 = keys.clone(), a3 = keys.clone(), a4 = keys.clone();
+			long t1 = System.nanoTime();
+			sort(a1);
+			long t2 = System.nanoTime();
+			parallelSort(a2);
+			long t3 = System.nanoTime();
+			MSD3WayQuickSort.sort(a3);
+			long t4 = System.nanoTime();
+			Arrays.parallelSort(a4);
+			long t5 = System.nanoTime();
+			if (round > 0) System.out.printf("sort %5d, parallelSort %5d, MSD3WayQuickSort %5d, Arrays.parallelSort %5d%n",
+					(t2 - t1) / 1000000, (t3 - t2) / 1000000, (t4 - t3) / 1000000, (t5 - t4) / 1000000);
+		}
+	}
+
+	private static String[] logKeys(int n, Random random) { // "host-07 2024-01-15T10:31:22.123 GET /a/b 200", long common prefixes
+		String[] hosts = { "api", "auth", "cdn", "db", "web" };
+		String[] keys = new String[n];
+		for (int i = 0; i < n; i++) {
+			keys[i] = String.format("%s-%02d 2024-01-%02dT%02d:%02d:%02d.%03d %s /%c/%d %d", hosts[random.nextInt(hosts.length)],
+					random.nextInt(20), 1 + random.nextInt(3), random.nextInt(24), random.nextInt(60), random.nextInt(60),
+					random.nextInt(1000), random.nextBoolean() ? "GET" : "POST", (char) ('a' + random.nextInt(26)), random.nextInt(100),
+					random.nextInt(10) == 0 ? 500 : 200);
+		}
+		return keys;
 	}
 }
\ No newline at end of file
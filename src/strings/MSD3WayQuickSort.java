@@ -4,6 +4,7 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.concurrent.ThreadLocalRandom;
 
 import fundamentals.KnuthShuffle;
 
@@ -23,7 +24,18 @@ public class MSD3WayQuickSort
 
 	public static void sort(String[] a) {
 		KnuthShuffle.shuffle(a);
-		sort(a, 0, a.length-1, 0);
+		sort3Way(a, 0, a.length-1, 0);
+	}
+
+	/**
+	 * Sorts a[lo..hi], strings equal in their first d characters (a bucket of MSD), shuffling it first.
+	 */
+	static void sort(String[] a, int lo, int hi, int d) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int i = hi; i > lo; i--) {
+			swap(a, i, random.nextInt(lo, i + 1));
+		}
+		sort3Way(a, lo, hi, d);
 	}
 
 	/**
@@ -35,7 +47,7 @@ public class MSD3WayQuickSort
 	 *      i          
 	 *    privot
 	 */
-	private static void sort(String[] a, int lo, int hi, int d) { 
+	private static void sort3Way(String[] a, int lo, int hi, int d) { 
 		if (lo + CUTOFF >= hi) {
 			insertion(a, lo, hi, d);
 			return;
@@ -50,9 +62,9 @@ public class MSD3WayQuickSort
 			else if (t > pivot) swap(a, gt--, i);
 			else                i++;
 		}
-		sort(a, lo, lt-1, d);
-		if (pivot >= 0) sort(a, lt, gt, d+1);
-		sort(a, gt+1, hi, d);
+		sort3Way(a, lo, lt-1, d);
+		if (pivot >= 0) sort3Way(a, lt, gt, d+1);
+		sort3Way(a, gt+1, hi, d);
 	}
 
 	private static int charAt(String s, int d) { 
@@ -83,6 +95,75 @@ public class MSD3WayQuickSort
 		return v.length() < w.length();
 	}
 
+	// keys as byte[] slices
+	/**
+	 * Sorts the keys buffer[offsets[i] .. offsets[i] + lengths[i] - 1] without making Strings, moving offsets[i]
+	 *  and lengths[i] together. Bytes are compared unsigned, so UTF-8 keys are in the order of their code points.
+	 */
+	public static void sort(byte[] buffer, int[] offsets, int[] lengths) {
+		if (offsets.length != lengths.length) throw new IllegalArgumentException("offsets and lengths must have the same length.");
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int i = offsets.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			swap(offsets, i, j);
+			swap(lengths, i, j);
+		}
+		sort(buffer, offsets, lengths, 0, offsets.length - 1, 0);
+	}
+
+	private static void sort(byte[] buffer, int[] offsets, int[] lengths, int lo, int hi, int d) {
+		if (lo + CUTOFF >= hi) {
+			insertion(buffer, offsets, lengths, lo, hi, d);
+			return;
+		}
+		int lt = lo;
+		int gt = hi;
+		int i = lo + 1;
+		int pivot = byteAt(buffer, offsets[lo], lengths[lo], d);
+		while (i <= gt) {
+			int t = byteAt(buffer, offsets[i], lengths[i], d);
+			if      (t < pivot) swap(offsets, lengths, lt++, i++);
+			else if (t > pivot) swap(offsets, lengths, gt--, i);
+			else                i++;
+		}
+		sort(buffer, offsets, lengths, lo, lt-1, d);
+		if (pivot >= 0) sort(buffer, offsets, lengths, lt, gt, d+1);
+		sort(buffer, offsets, lengths, gt+1, hi, d);
+	}
+
+	private static int byteAt(byte[] buffer, int offset, int length, int d) {
+		if (d == length)
+			return -1;
+		return buffer[offset + d] & 0xFF;
+	}
+
+	private static void insertion(byte[] buffer, int[] offsets, int[] lengths, int lo, int hi, int d) {
+		for (int i = lo; i <= hi; i++) {
+			for (int j = i; j > lo && less(buffer, offsets[j], lengths[j], offsets[j-1], lengths[j-1], d); j--) {
+				swap(offsets, lengths, j, j-1);
+			}
+		}
+	}
+
+	private static void swap(int[] offsets, int[] lengths, int i, int j) {
+		swap(offsets, i, j);
+		swap(lengths, i, j);
+	}
+	private static void swap(int[] a, int i, int j) {
+		int tmp = a[i];
+		a[i] = a[j];
+		a[j] = tmp;
+	}
+
+	private static boolean less(byte[] buffer, int v, int vLength, int w, int wLength, int d) {
+		for (int i = d; i < Math.min(vLength, wLength); i++) {
+			int a = buffer[v + i] & 0xFF, b = buffer[w + i] & 0xFF;
+			if (a < b) return true;
+			if (a > b) return false;
+		}
+		return vLength < wLength;
+	}
+
 	public static void main(String[] args) throws FileNotFoundException {
 		Scanner sc = new Scanner(new FileReader("resources/strings/shells.txt"));
 		ArrayList<String> arr = new ArrayList<String>();
@@ -146,6 +146,70 @@ public class TST<V>
 		return query.substring(0, length);
 	}
 
+	// keys as byte[] slices
+	/*
+	 * A key from a byte[] (buffer[offset .. offset + length - 1]) has one char per byte, with the unsigned value of
+	 *  the byte: an ASCII key from bytes and from a String are the same node, keys() gives it back as a String.
+	 */
+	public boolean contains(byte[] buffer, int offset, int length) {
+		return get(buffer, offset, length) != null;
+	}
+
+	public V get(byte[] buffer, int offset, int length) {
+		if (buffer == null) throw new IllegalArgumentException("calls get() with null argument");
+		if (length == 0) throw new IllegalArgumentException("key must have length >= 1");
+		Node<V> x = root;
+		int d = 0;
+		while (x != null) {
+			char c = (char) (buffer[offset + d] & 0xFF);
+			if      (c < x.c)          x = x.left;
+			else if (c > x.c)          x = x.right;
+			else if (d < length - 1) { x = x.mid; d++; }
+			else                       return x.value;
+		}
+		return null;
+	}
+
+	public void put(byte[] buffer, int offset, int length, V value) {
+		if (buffer == null) throw new IllegalArgumentException("calls put() with null key");
+		if (length == 0) throw new IllegalArgumentException("key must have length >= 1");
+		if (!contains(buffer, offset, length)) n++;
+		root = put(root, buffer, offset, length, value, 0);
+	}
+	private Node<V> put(Node<V> x, byte[] buffer, int offset, int length, V value, int d) {
+		char c = (char) (buffer[offset + d] & 0xFF);
+		if(x == null) {
+			x = new Node<V>();
+			x.c = c;
+		}
+		if     (c < x.c)         x.left  = put(x.left,  buffer, offset, length, value, d);
+		else if(c > x.c)         x.right = put(x.right, buffer, offset, length, value, d);
+		else if(d < length - 1)  x.mid   = put(x.mid,   buffer, offset, length, value, d+1);
+		else                     x.value = value;
+		return x;
+	}
+
+	/**
+	 * Length of the longest key that is a prefix of buffer[offset .. offset + length - 1], 0 if none.
+	 */
+	public int longestPrefixOf(byte[] buffer, int offset, int length) {
+		if (buffer == null) throw new IllegalArgumentException("calls longestPrefixOf() with null argument");
+		int longest = 0;
+		Node<V> x = root;
+		int i = 0;
+		while (x != null && i < length) {
+			char c = (char) (buffer[offset + i] & 0xFF);
+			if      (c < x.c) x = x.left;
+			else if (c > x.c) x = x.right;
+			else {
+				i++;
+				if (x.value != null) longest = i;
+				x = x.mid;
+			}
+		}
+		return longest;
+	}
+
 	public static void main(String[] args) throws FileNotFoundException {
 		Scanner sc = new Scanner(new FileReader("resources/strings/shellsST.txt"));
 		TST<Integer> tst = new TST<Integer>();
@@ -171,5 +235,10 @@ public class TST<V>
 		System.out.println("keysThatMatch(\".he.l.\"):");
 		for (String s : tst.keysThatMatch(".he.l."))
 			System.out.println(s);
+		System.out.println();
+		byte[] buffer = "by the shore shells".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+		tst.put(buffer, 0, 2, -1);
+		System.out.println("from bytes: get(\"shore\") " + tst.get(buffer, 7, 5) + ", get(\"by\") " + tst.get("by")
+				+ ", longestPrefixOf(\"shells\") " + tst.longestPrefixOf(buffer, 13, 6));
 	}
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package strings;
 
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
 import fundamentals.Queue;
@@ -147,6 +148,59 @@ public class TrieST<V>
 		return longestPrefixOf(x.next[c], query, d+1, length);
 	}
 
+	// keys as byte[] slices
+	/*
+	 * The key buffer[offset .. offset + length - 1] is the same key as the String of the chars with the values of
+	 *  its bytes (unsigned), so a key put from bytes is returned by keys() as that String. For ASCII keys it is the
+	 *  same String; a UTF-8 key that is not ASCII is its bytes, one char each.
+	 */
+	public boolean contains(byte[] buffer, int offset, int length) {
+		return get(buffer, offset, length) != null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(byte[] buffer, int offset, int length) {
+		if (buffer == null) throw new IllegalArgumentException("argument to get() is null");
+		Node x = root;
+		for (int d = 0; x != null && d < length; d++) {
+			x = x.next[buffer[offset + d] & 0xFF];
+		}
+		if (x == null) return null;
+		return (V) x.value;
+	}
+
+	public void put(byte[] buffer, int offset, int length, V val) {
+		if (buffer == null) throw new IllegalArgumentException("first argument to put() is null");
+		if (val == null) {
+			delete(new String(buffer, offset, length, StandardCharsets.ISO_8859_1));
+			return;
+		}
+		if (root == null) root = new Node();
+		Node x = root;
+		for (int d = 0; d < length; d++) {
+			int c = buffer[offset + d] & 0xFF;
+			if (x.next[c] == null) x.next[c] = new Node();
+			x = x.next[c];
+		}
+		if (x.value == null) n++;
+		x.value = val;
+	}
+
+	/**
+	 * Length of the longest key that is a prefix of buffer[offset .. offset + length - 1], or -1.
+	 */
+	public int longestPrefixOf(byte[] buffer, int offset, int length) {
+		if (buffer == null) throw new IllegalArgumentException("argument to longestPrefixOf() is null");
+		int longest = -1;
+		Node x = root;
+		for (int d = 0; x != null; d++) {
+			if (x.value != null) longest = d;
+			if (d == length) break;
+			x = x.next[buffer[offset + d] & 0xFF];
+		}
+		return longest;
+	}
+
 	public static void main(String[] args) throws FileNotFoundException {
 		Scanner sc = new Scanner(new FileReader("resources/strings/shellsST.txt"));
 		TrieST<Integer> trie = new TrieST<Integer>();
@@ -172,5 +226,10 @@ public class TrieST<V>
 		System.out.println("keysThatMatch(\".he.l.\"):");
 		for (String s : trie.keysThatMatch(".he.l."))
 			System.out.println(s);
+		System.out.println();
+		byte[] buffer = "by the shore shells".getBytes(StandardCharsets.UTF_8);
+		trie.put(buffer, 0, 2, -1);
+		System.out.println("from bytes: get(\"shore\") " + trie.get(buffer, 7, 5) + ", get(\"by\") " + trie.get("by")
+				+ ", longestPrefixOf(\"shells\") " + trie.longestPrefixOf(buffer, 13, 6));
 	}
 }
\ No newline at end of file